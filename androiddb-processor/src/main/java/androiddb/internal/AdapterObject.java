@@ -18,39 +18,84 @@ package androiddb.internal;
 
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import com.squareup.javawriter.JavaWriter;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.io.StringWriter;
 import java.io.Writer;
-import java.util.Date;
+import java.util.Collections;
 import java.util.EnumSet;
-import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
 
 import javax.lang.model.element.Element;
 
+import tale.androiddb.Column;
+import tale.androiddb.DatabaseHelper;
+import tale.androiddb.Id;
 import tale.androiddb.TypeAdapter;
 
 import static javax.lang.model.element.Modifier.FINAL;
 import static javax.lang.model.element.Modifier.PRIVATE;
 import static javax.lang.model.element.Modifier.PUBLIC;
 import static javax.lang.model.element.Modifier.STATIC;
+import static javax.lang.model.element.Modifier.VOLATILE;
 
 class AdapterObject {
 
-    private static final String SERIALIZE_FUNCTION = "serialize";
-    private static final String DESERIALIZE_FUNCTION = "deserialize";
+    /**
+     * The types generated adapters may refer to by their simple name
+     */
+    private static final List<String> IMPORTS = Collections.unmodifiableList(Lists.newArrayList(
+            "android.content.ContentValues",
+            "android.content.ContentUris",
+            "android.content.UriMatcher",
+            "android.database.Cursor",
+            "android.database.DatabaseUtils",
+            "android.database.sqlite.SQLiteDatabase",
+            "android.database.sqlite.SQLiteStatement",
+            "android.net.Uri",
+            "java.util.ArrayList",
+            "java.util.Date",
+            "java.util.LinkedList",
+            "java.util.List",
+            "java.util.Map",
+            "tale.androiddb.BlobCodecs",
+            "tale.androiddb.BlobReader",
+            "tale.androiddb.BlobWriter",
+            "tale.androiddb.ChangeTracker",
+            "tale.androiddb.DatabaseHelper",
+            "tale.androiddb.EnumCodes",
+            "tale.androiddb.Session",
+            "tale.androiddb.UriMatched"));
+
+    private static final String SERIALIZE_FUNCTION = "BlobCodecs.serialize";
+    private static final String DESERIALIZE_FUNCTION = "BlobCodecs.deserialize";
+
+    /**
+     * Used as a template to create a new table from its column definitions
+     */
+    private static final String CREATE_TABLE_DEFAULT = "CREATE TABLE %s (%s)%s;";
 
     /**
-     * Used as a template to create a new table
+     * Used as a template to insert a single row with one bind argument per column
      */
-    private static final String CREATE_TABLE_DEFAULT = "CREATE TABLE %s "
-            + "(%s INTEGER PRIMARY KEY AUTOINCREMENT, %s);";
+    private static final String INSERT_DEFAULT = "INSERT INTO %s (%s) VALUES (%s)";
+
+    /**
+     * Used to insert a row when the table only has an id column
+     */
+    private static final String INSERT_DEFAULT_VALUES = "INSERT INTO %s DEFAULT VALUES";
+
+    /**
+     * Separates the name of a one to one column from the column of the referenced table in the
+     * aliases of joined columns. Cursors drop everything up to a '.' in column names so it can't
+     * be used here.
+     */
+    private static final String JOIN_ALIAS_SEPARATOR = "__";
+
 
     /**
      * SQL statement to select the id of the last inserted row. Does not end with ; in order to be
@@ -65,9 +110,13 @@ class AdapterObject {
     private final ShillelaghLogger logger;
 
     private boolean isChildTable = false;
+    private boolean trackChanges = false;
+    private Id.Strategy idStrategy = Id.Strategy.AUTOINCREMENT;
     private String idColumnName;
 
     private final List<TableColumn> columns = Lists.newLinkedList();
+    private final List<TableIndex> indexes = Lists.newArrayList();
+    private final Set<Element> originatingElements = Sets.newLinkedHashSet();
 
     AdapterObject(Element element, String classPackage, String className, ShillelaghLogger logger) {
         this.element = element;
@@ -84,18 +133,90 @@ class AdapterObject {
         return idColumnName;
     }
 
+    void setIdStrategy(Id.Strategy idStrategy) {
+        this.idStrategy = idStrategy;
+    }
+
+    private boolean isWithoutRowId() {
+        return idStrategy == Id.Strategy.WITHOUT_ROWID;
+    }
+
     void setIsChildTable(boolean isChildTable) {
         this.isChildTable = isChildTable;
     }
 
+    void setTrackChanges(boolean trackChanges) {
+        this.trackChanges = trackChanges;
+    }
+
     Element getOriginatingElement() {
         return element;
     }
 
+    /**
+     * Adds a type, besides the table itself, whose change has to regenerate this adapter
+     */
+    void addOriginatingElement(Element originatingElement) {
+        originatingElements.add(originatingElement);
+    }
+
+    /**
+     * The table and every type its generated code depends on, for incremental compilation
+     */
+    Element[] getOriginatingElements() {
+        Set<Element> elements = Sets.newLinkedHashSet();
+        elements.add(element);
+        elements.addAll(originatingElements);
+        return elements.toArray(new Element[elements.size()]);
+    }
+
     void addColumn(TableColumn column) {
         columns.add(column);
     }
 
+    void addIndex(TableIndex index) {
+        indexes.add(index);
+    }
+
+    List<TableIndex> getIndexes() {
+        return indexes;
+    }
+
+    /**
+     * Tells if the table has a column with this name, the one to many child column is only known
+     * once every table was processed
+     */
+    boolean hasColumn(String columnName) {
+        if (columnName.equals(idColumnName)) {
+            return true;
+        }
+        for (TableColumn column : columns) {
+            if (!column.isOneToMany() && column.getColumnName().equals(columnName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the statements creating the indexes of the table. The column pointing to the parent of
+     * a one to many relationship is always indexed, children are looked up by it.
+     */
+    private List<String> getIndexStatements() {
+        List<String> statements = Lists.newArrayList();
+        for (TableColumn column : columns) {
+            if (column.isOneToManyChild()) {
+                TableIndex index = new TableIndex("",
+                        Collections.singletonList(column.getColumnName()), false, "");
+                statements.add(index.getCreateStatement(getTableName()));
+            }
+        }
+        for (TableIndex index : indexes) {
+            statements.add(index.getCreateStatement(getTableName()));
+        }
+        return statements;
+    }
+
     String getTableName() {
         return element.toString().replace(".", "_");
     }
@@ -109,24 +230,164 @@ class AdapterObject {
      */
     private String getSchema() {
         StringBuilder sb = new StringBuilder();
-        Iterator<TableColumn> iterator = columns.iterator();
-        while (iterator.hasNext()) {
-            TableColumn column = iterator.next();
+        for (String definition : getColumnDefinitions()) {
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(definition);
+        }
+
+        return String.format(CREATE_TABLE_DEFAULT, getTableName(), sb.toString(),
+                isWithoutRowId() ? " WITHOUT ROWID" : "");
+    }
+
+    /**
+     * Definition of every column stored in the table, the id column first
+     */
+    private List<String> getColumnDefinitions() {
+        List<String> definitions = Lists.newArrayList(idColumnName + " " + getIdDefinition());
+        for (TableColumn column : columns) {
+            if (!column.isOneToMany()) {
+                definitions.add(column.toString());
+            }
+        }
+        return definitions;
+    }
+
+    /**
+     * Type and constraints of the id column for the key strategy of the table
+     */
+    private String getIdDefinition() {
+        switch (idStrategy) {
+            case ROWID:
+                return "INTEGER PRIMARY KEY";
+            case WITHOUT_ROWID:
+                return "INTEGER PRIMARY KEY NOT NULL";
+            default:
+                return "INTEGER PRIMARY KEY AUTOINCREMENT";
+        }
+    }
+
+    /**
+     * One to many columns, their type is the child table
+     */
+    List<TableColumn> getOneToManyColumns() {
+        List<TableColumn> oneToManyColumns = Lists.newArrayList();
+        for (TableColumn column : columns) {
             if (column.isOneToMany()) {
-                if (!iterator.hasNext()) {
-                    // remove the extra ", " after one to many
-                    int length = sb.length();
-                    sb.replace(length - 2, length, "");
-                }
+                oneToManyColumns.add(column);
+            }
+        }
+        return oneToManyColumns;
+    }
+
+    /**
+     * The column of the child tables of one to many relationships holding the id of their parent,
+     * it is named after this table
+     */
+    private String getChildParentColumn() {
+        return getTableName().toLowerCase();
+    }
+
+    /**
+     * One to one columns, each one holds the id of the row it references
+     */
+    List<TableColumn> getOneToOneColumns() {
+        List<TableColumn> oneToOneColumns = Lists.newArrayList();
+        for (TableColumn column : columns) {
+            if (column.isOneToOne()) {
+                oneToOneColumns.add(column);
+            }
+        }
+        return oneToOneColumns;
+    }
+
+    /**
+     * One to one columns whose referenced table was resolved, these are joined when selecting
+     */
+    private List<TableColumn> getJoinedColumns() {
+        List<TableColumn> joinedColumns = Lists.newArrayList();
+        for (TableColumn column : getOneToOneColumns()) {
+            if (column.getReference() != null) {
+                joinedColumns.add(column);
+            }
+        }
+        return joinedColumns;
+    }
+
+    /**
+     * Columns written by the generated insert statement, in the order of its bind arguments
+     */
+    private List<TableColumn> getInsertedColumns() {
+        List<TableColumn> insertedColumns = Lists.newArrayList();
+        for (TableColumn column : columns) {
+            if (column.isOneToMany() || column.isOneToManyChild()) {
                 continue;
             }
-            sb.append(column);
-            if (iterator.hasNext()) {
-                sb.append(", ");
+            insertedColumns.add(column);
+        }
+        return insertedColumns;
+    }
+
+    /**
+     * Get the sql statement inserting a row, values are bound by the generated bindInsert. When
+     * <b>parentColumn</b> is not null it is written last, by the bindInsert taking a parent id.
+     */
+    private String getInsertStatement(String parentColumn) {
+        List<TableColumn> insertedColumns = getInsertedColumns();
+        if (insertedColumns.isEmpty() && !isWithoutRowId() && parentColumn == null) {
+            return String.format(INSERT_DEFAULT_VALUES, getTableName());
+        }
+
+        StringBuilder names = new StringBuilder();
+        StringBuilder arguments = new StringBuilder();
+        // Ids of WITHOUT ROWID tables are not assigned, they are the first bind argument
+        if (isWithoutRowId()) {
+            names.append(idColumnName);
+            arguments.append('?');
+        }
+        for (TableColumn column : insertedColumns) {
+            if (names.length() > 0) {
+                names.append(", ");
+                arguments.append(", ");
             }
+            names.append(column.getColumnName());
+            arguments.append('?');
+        }
+        if (parentColumn != null) {
+            names.append(names.length() > 0 ? ", " : "").append(parentColumn);
+            arguments.append(arguments.length() > 0 ? ", ?" : "?");
         }
+        return String.format(INSERT_DEFAULT, getTableName(), names, arguments);
+    }
 
-        return String.format(CREATE_TABLE_DEFAULT, getTableName(), idColumnName, sb.toString());
+    /**
+     * Get the statement selecting every row, the tables referenced by one to one columns are
+     * joined. Selections are applied to the table in a sub query so that they can't be ambiguous
+     * with the joined columns. The rows of this table are always aliased as t.
+     */
+    private String getSelectStatement(String from) {
+        List<TableColumn> joinedColumns = getJoinedColumns();
+        if (joinedColumns.isEmpty()) {
+            return "SELECT * FROM " + from + " AS t";
+        }
+
+        StringBuilder select = new StringBuilder("SELECT t.*");
+        StringBuilder joins = new StringBuilder(from).append(" AS t");
+        int join = 0;
+        for (TableColumn column : joinedColumns) {
+            AdapterObject reference = column.getReference();
+            String alias = "j" + join++;
+            String prefix = column.getColumnName() + JOIN_ALIAS_SEPARATOR;
+            for (String name : reference.getColumnNames()) {
+                select.append(", ").append(alias).append('.').append(name)
+                        .append(" AS ").append(prefix).append(name);
+            }
+            joins.append(" LEFT JOIN ").append(reference.getTableName()).append(" AS ")
+                    .append(alias).append(" ON t.").append(column.getColumnName()).append(" = ")
+                    .append(alias).append('.').append(reference.getIdColumnName());
+        }
+        return select.append(" FROM ").append(joins).toString();
     }
 
     /**
@@ -136,44 +397,128 @@ class AdapterObject {
         return classPackage + "." + className;
     }
 
+    /**
+     * Get the fully qualified name of the class holding the typed columns of the table
+     */
+    String getColumnsFqcn() {
+        String tableClassName = className.substring(0,
+                className.length() - DatabaseHelper.$$SUFFIX.length());
+        return classPackage + "." + tableClassName + DatabaseHelper.$$COLUMNS_SUFFIX;
+    }
+
+    /**
+     * Create the typed columns used to build queries on the table. Blobs can't be compared and
+     * get no column unless they are converted, one to one columns hold the id of the referenced
+     * row.
+     */
+    void brewColumnsJava(Writer writer) throws IOException {
+        logger.d("brewColumnsJava");
+        String fqcn = getColumnsFqcn();
+        JavaWriter javaWriter = new JavaWriter(writer);
+        javaWriter.setCompressingTypes(false);
+
+        javaWriter.emitSingleLineComment("Generated code from Shillelagh. Do not modify!")
+                .emitPackage(classPackage)
+                .beginType(fqcn.substring(classPackage.length() + 1), "class",
+                        EnumSet.of(PUBLIC, FINAL));
+        emitColumnField(javaWriter, idColumnName, Long.class.getName(), null);
+        for (TableColumn column : columns) {
+            if (column.isOneToOne()) {
+                emitColumnField(javaWriter, column.getColumnName(), Long.class.getName(), null);
+            } else if (column.getConverter() != null) {
+                emitColumnField(javaWriter, column.getColumnName(), column.getBoxedType(),
+                        newConverter(column));
+            } else if (!column.isBlob() && !column.isOneToMany() && !column.isOneToManyChild()) {
+                emitColumnField(javaWriter, column.getColumnName(), column.getBoxedType(), null);
+            }
+        }
+        javaWriter.beginConstructor(EnumSet.of(PRIVATE))
+                .endConstructor()
+                .endType();
+    }
+
+    /**
+     * Creates a typed column, columns of converted fields convert the values they are compared
+     * with
+     */
+    private static void emitColumnField(JavaWriter javaWriter, String name, String type,
+                                        String newConverter) throws IOException {
+        String columnType = String.format("%s<%s>", Column.class.getName(), type);
+        javaWriter.emitField(columnType, name, EnumSet.of(PUBLIC, STATIC, FINAL),
+                newConverter == null ? String.format("new %s(\"%s\")", columnType, name)
+                        : String.format("new %s(\"%s\", %s)", columnType, name, newConverter));
+    }
+
     /**
      * Create the java functions required for the internal class
      */
     void brewJava(Writer writer) throws IOException {
         logger.d("brewJava");
-        JavaWriter javaWriter = new JavaWriter(writer);
+        // The body is written first, only the types it uses are imported
+        StringWriter body = new StringWriter();
+        JavaWriter javaWriter = new JavaWriter(body);
         javaWriter.setCompressingTypes(false);
+        emitType(javaWriter);
 
-        javaWriter.emitSingleLineComment("Generated code from Shillelagh. Do not modify!")
+        JavaWriter headerWriter = new JavaWriter(writer);
+        headerWriter.emitSingleLineComment("Generated code from Shillelagh. Do not modify!")
                 .emitPackage(classPackage)
-        /* Knows nothing of android types */
-                .emitImports("android.content.ContentValues",
-                        "android.database.Cursor",
-                        "android.database.DatabaseUtils",
-                        "android.database.sqlite.SQLiteDatabase",
-                        "android.net.Uri",
-                        "android.content.UriMatcher",
-                        "android.content.ContentUris",
-                        "tale.androiddb.UriMatched")
-                .emitImports(ByteArrayInputStream.class, ByteArrayOutputStream.class, IOException.class,
-                        ObjectInputStream.class, ObjectOutputStream.class, LinkedList.class, Date.class,
-                        List.class)
-                .beginType(className, "class", EnumSet.of(PUBLIC, FINAL), null, String.format("%s<%s>", TypeAdapter.class.getName(), getTargetClass()))
+                .emitImports(getUsedImports(body.toString()));
+        writer.write(body.toString());
+    }
+
+    /**
+     * The imports of the types the body refers to by their simple name
+     */
+    private static List<String> getUsedImports(String body) {
+        List<String> imports = Lists.newArrayList();
+        for (String type : IMPORTS) {
+            String simpleName = type.substring(type.lastIndexOf('.') + 1);
+            // Qualified names, like the target class, are preceded by a dot
+            if (Pattern.compile("(?<![\\w.])" + simpleName + "\\b").matcher(body).find()) {
+                imports.add(type);
+            }
+        }
+        return imports;
+    }
+
+    private void emitType(JavaWriter javaWriter) throws IOException {
+        javaWriter.beginType(className, "class", EnumSet.of(PUBLIC, FINAL), null, String.format("%s<%s>", TypeAdapter.class.getName(), getTargetClass()))
                 .emitField("int", "SINGLE_ITEM", EnumSet.of(PRIVATE, STATIC, FINAL), "1")
                 .emitField("int", "MULTIPLE_ITEM", EnumSet.of(PRIVATE, STATIC, FINAL), "2")
-                .emitField("UriMatcher", "mUriMatcher", EnumSet.of(PRIVATE))
-                .emitField("String", "mAuthority", EnumSet.of(PRIVATE));
-
+                .emitField("UriMatcher", "mUriMatcher", EnumSet.of(PRIVATE, VOLATILE))
+                .emitField("String", "mAuthority", EnumSet.of(PRIVATE))
+                .emitField("String", "INSERT_STATEMENT", EnumSet.of(PRIVATE, STATIC, FINAL),
+                        JavaWriter.stringLiteral(getInsertStatement(null)))
+                .emitField("String", "INSERT_CHILD_STATEMENT", EnumSet.of(PRIVATE, STATIC, FINAL),
+                        JavaWriter.stringLiteral(getInsertStatement("%s")));
+        emitColumns(javaWriter);
+        emitIndexStatements(javaWriter);
+        emitReferenceAdapterFields(javaWriter);
+        emitBlobCodecFields(javaWriter, columns);
+        emitConverterFields(javaWriter, columns);
+        emitEnumFields(javaWriter, columns);
 
         // Implement TypeAdapter
         emitGetCreateStatement(javaWriter);
+        emitGetIndexStatements(javaWriter);
+        emitGetColumnDefinitions(javaWriter);
         emitNewObject(javaWriter);
         emitAsContentValues(javaWriter);
+        emitChangeTracking(javaWriter);
+        emitGetInsertStatement(javaWriter);
+        emitBindInsert(javaWriter);
+        emitInsertChildren(javaWriter);
+        emitGetSelectStatement(javaWriter);
+        emitGetColumnIndexes(javaWriter);
         emitMapCursor(javaWriter);
+        emitLoadRelations(javaWriter);
+        emitGetId(javaWriter);
         emitGetTableName(javaWriter);
+        emitGetTargetClass(javaWriter);
         emitUriMatched(javaWriter);
         emitInitUriMatched(javaWriter);
-        emitByteArraySerialization(javaWriter);
+        emitBlobCodecs(javaWriter, columns);
         javaWriter.endType();
     }
 
@@ -181,9 +526,11 @@ class AdapterObject {
 
         logger.d("emitInitUriMatched");
         javaWriter.beginMethod("void", "initUriMatcher", EnumSet.of(PUBLIC), "String", "authority")
-                .emitStatement("this.mUriMatcher = new UriMatcher(UriMatcher.NO_MATCH)")
-                .emitStatement("this.mUriMatcher.addURI(authority, getTableName(), MULTIPLE_ITEM)")
-                .emitStatement("this.mUriMatcher.addURI(authority, getTableName()+\"/#\", SINGLE_ITEM)")
+                .emitStatement("final UriMatcher uriMatcher = new UriMatcher(UriMatcher.NO_MATCH)")
+                .emitStatement("uriMatcher.addURI(authority, getTableName(), MULTIPLE_ITEM)")
+                .emitStatement("uriMatcher.addURI(authority, getTableName()+\"/#\", SINGLE_ITEM)")
+                // Published complete, the adapter may already be matching on other threads
+                .emitStatement("this.mUriMatcher = uriMatcher")
                 .endMethod();
 
 //        public void initProvider(String authority) {
@@ -223,6 +570,46 @@ class AdapterObject {
                 .endMethod();
     }
 
+    private void emitIndexStatements(JavaWriter javaWriter) throws IOException {
+        StringBuilder sb = new StringBuilder("{");
+        for (String statement : getIndexStatements()) {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            sb.append(JavaWriter.stringLiteral(statement));
+        }
+        sb.append('}');
+        javaWriter.emitField("String[]", "INDEX_STATEMENTS", EnumSet.of(PRIVATE, STATIC, FINAL),
+                sb.toString());
+    }
+
+    /**
+     * Creates the function describing the columns of the table, used to migrate existing tables
+     */
+    private void emitGetColumnDefinitions(JavaWriter javaWriter) throws IOException {
+        logger.d("emitGetColumnDefinitions");
+        StringBuilder definitions = new StringBuilder();
+        for (String definition : getColumnDefinitions()) {
+            if (definitions.length() > 0) {
+                definitions.append(", ");
+            }
+            definitions.append(JavaWriter.stringLiteral(definition));
+        }
+        javaWriter.beginMethod("String[]", "getColumnDefinitions", EnumSet.of(PUBLIC))
+                .emitStatement("return new String[]{%s}", definitions)
+                .endMethod();
+    }
+
+    /**
+     * Creates the function returning the statements creating the indexes of the table
+     */
+    private void emitGetIndexStatements(JavaWriter javaWriter) throws IOException {
+        logger.d("emitGetIndexStatements");
+        javaWriter.beginMethod("String[]", "getIndexStatements", EnumSet.of(PUBLIC))
+                .emitStatement("return INDEX_STATEMENTS.clone()")
+                .endMethod();
+    }
+
     private void emitNewObject(JavaWriter javaWriter) throws IOException {
         logger.d("emitNewObject");
         javaWriter.beginMethod(
@@ -242,117 +629,641 @@ class AdapterObject {
                 .endMethod();
     }
 
+    private void emitGetTargetClass(JavaWriter javaWriter) throws IOException {
+        logger.d("emitGetTargetClass");
+        javaWriter.beginMethod(String.format("Class<%s>", getTargetClass()), "getTargetClass",
+                EnumSet.of(PUBLIC))
+                .emitStatement("return %s.class", getTargetClass())
+                .endMethod();
+    }
+
     /**
      * Creates the function for inserting a new value into the database
      */
     private void emitAsContentValues(JavaWriter javaWriter) throws IOException {
         logger.d("emitAsContentValues");
-        String tableName = getTableName();
         javaWriter.beginMethod("ContentValues", "asContentValues", EnumSet.of(PUBLIC),
                 getTargetClass(), "target")
                 .emitStatement("ContentValues values = new ContentValues()");
-        List<TableColumn> childColumns = Lists.newLinkedList();
+        Set<String> embeddedFields = Sets.newHashSet();
         for (TableColumn column : columns) {
-            String columnName = column.getColumnName();
-            if (column.isBlob() && !column.isByteArray()) {
-                javaWriter.emitStatement("values.put(\"%s\", %s(target.%s))", columnName,
-                        SERIALIZE_FUNCTION, columnName);
-            } else if (column.isOneToOne()) {
-//        javaWriter.emitStatement("%s%s.%s(target.%s, db)", column.getType(),
-//            $$SUFFIX, INSERT_ONE_TO_ONE, column.getColumnName())
-//            .emitStatement("values.put(\"%s\", %s%s.%s(target.%s))", columnName,
-//                column.getType(), $$SUFFIX, GET_ID_FUNCTION, columnName);
-            } else if (column.isDate()) {
-                javaWriter.emitStatement(
-                        "values.put(\"%s\", target.%s.getTime())", columnName, columnName);
-            } else if (column.isOneToMany()) {
-//        childColumns.add(column);
-            } else if (!column.isOneToManyChild()) {
-                javaWriter.emitStatement("values.put(\"%s\", target.%s)", columnName, columnName);
+            String embeddedField = column.getEmbeddedField();
+            if (embeddedField == null) {
+                emitContentValue(javaWriter, column);
+            } else if (embeddedFields.add(embeddedField)) {
+                // A null value object has all of its columns set to null
+                List<TableColumn> embeddedColumns = getEmbeddedColumns(embeddedField);
+                javaWriter.beginControlFlow(String.format("if (target.%s != null)", embeddedField));
+                for (TableColumn embeddedColumn : embeddedColumns) {
+                    emitContentValue(javaWriter, embeddedColumn);
+                }
+                javaWriter.nextControlFlow("else");
+                for (TableColumn embeddedColumn : embeddedColumns) {
+                    javaWriter.emitStatement("values.putNull(\"%s\")",
+                            embeddedColumn.getColumnName());
+                }
+                javaWriter.endControlFlow();
             }
         }
         javaWriter.emitStatement("return %s", "values");
         javaWriter.endMethod();
     }
 
+    /**
+     * Puts the value of a column in the ContentValues of {@link #emitAsContentValues(JavaWriter)}
+     */
+    private void emitContentValue(JavaWriter javaWriter, TableColumn column) throws IOException {
+        String columnName = column.getColumnName();
+        String field = "target." + column.getFieldAccess();
+        if (column.getConverter() != null) {
+            javaWriter.emitStatement(
+                    "values.put(\"%1$s\", %2$s != null ? %3$s.toColumn(%2$s) : null)",
+                    columnName, field, getConverterField(column));
+        } else if (column.isBlob() && !column.isByteArray()) {
+            javaWriter.emitStatement("values.put(\"%s\", %s)", columnName,
+                    getBlobEncoder(column, field));
+        } else if (column.isEnum()) {
+            javaWriter.emitStatement("values.put(\"%1$s\", %2$s != null ? %3$s : null)",
+                    columnName, field, getEnumValue(column, field));
+        } else if (column.isOneToOne()) {
+            if (column.getReference() != null) {
+                javaWriter.emitStatement(
+                        "values.put(\"%1$s\", %2$s != null ? %3$s.getId(%2$s) : null)",
+                        columnName, field, getAdapterField(column));
+            }
+        } else if (column.isDate()) {
+            javaWriter.emitStatement("values.put(\"%1$s\", %2$s != null ? %2$s.getTime() : null)",
+                    columnName, field);
+        } else if (!column.isOneToMany() && !column.isOneToManyChild()) {
+            javaWriter.emitStatement("values.put(\"%s\", %s)", columnName, field);
+        }
+    }
+
+    /**
+     * Columns of the value object held by the field, in table order
+     */
+    private List<TableColumn> getEmbeddedColumns(String embeddedField) {
+        List<TableColumn> embeddedColumns = Lists.newArrayList();
+        for (TableColumn column : columns) {
+            if (embeddedField.equals(column.getEmbeddedField())) {
+                embeddedColumns.add(column);
+            }
+        }
+        return embeddedColumns;
+    }
+
+    /**
+     * Creates the function returning the tracker of the table in a database
+     */
+    private void emitChangeTracking(JavaWriter javaWriter) throws IOException {
+        logger.d("emitChangeTracking");
+        javaWriter.beginMethod("ChangeTracker", "getChangeTracker", EnumSet.of(PUBLIC),
+                "SQLiteDatabase", "database");
+        if (trackChanges) {
+            javaWriter.emitStatement("return ChangeTracker.get(database, getTableName(), COLUMNS)");
+        } else {
+            javaWriter.emitStatement("return null");
+        }
+        javaWriter.endMethod();
+    }
+
+    private void emitGetInsertStatement(JavaWriter javaWriter) throws IOException {
+        logger.d("emitGetInsertStatement");
+        javaWriter.beginMethod("String", "getInsertStatement", EnumSet.of(PUBLIC))
+                .emitStatement("return INSERT_STATEMENT")
+                .endMethod();
+
+        javaWriter.beginMethod("String", "getInsertStatement", EnumSet.of(PUBLIC),
+                "String", "parentColumn")
+                .emitStatement("return String.format(INSERT_CHILD_STATEMENT, parentColumn)")
+                .endMethod();
+    }
+
+    /**
+     * Creates the function binding the values of an object to the compiled insert statement.
+     * Values are bound with the primitive bind functions so nothing is boxed or copied into a
+     * ContentValues.
+     */
+    private void emitBindInsert(JavaWriter javaWriter) throws IOException {
+        logger.d("emitBindInsert");
+        javaWriter.beginMethod("void", "bindInsert", EnumSet.of(PUBLIC),
+                "SQLiteStatement", "statement", getTargetClass(), "target");
+        int index = 1;
+        if (isWithoutRowId()) {
+            javaWriter.emitStatement("statement.bindLong(%d, target.%s)", index++, idColumnName);
+        }
+        Set<String> embeddedFields = Sets.newHashSet();
+        for (TableColumn column : getInsertedColumns()) {
+            String embeddedField = column.getEmbeddedField();
+            if (embeddedField == null) {
+                emitBindColumn(javaWriter, column, index++);
+            } else if (embeddedFields.add(embeddedField)) {
+                // Columns of a value object are inserted next to each other
+                List<TableColumn> embeddedColumns = getEmbeddedColumns(embeddedField);
+                javaWriter.beginControlFlow(String.format("if (target.%s == null)", embeddedField));
+                for (int i = 0; i < embeddedColumns.size(); i++) {
+                    javaWriter.emitStatement("statement.bindNull(%d)", index + i);
+                }
+                javaWriter.nextControlFlow("else");
+                for (TableColumn embeddedColumn : embeddedColumns) {
+                    emitBindColumn(javaWriter, embeddedColumn, index++);
+                }
+                javaWriter.endControlFlow();
+            }
+        }
+        javaWriter.endMethod();
+    }
+
+    /**
+     * Creates the functions inserting the one to many children of an inserted object, they are
+     * written with the id of their parent
+     */
+    private void emitInsertChildren(JavaWriter javaWriter) throws IOException {
+        logger.d("emitInsertChildren");
+        // The parent id is bound after every column of the plain insert
+        int parentIndex = getInsertedColumns().size() + (isWithoutRowId() ? 2 : 1);
+        javaWriter.beginMethod("void", "bindInsert", EnumSet.of(PUBLIC),
+                "SQLiteStatement", "statement", getTargetClass(), "target", "long", "parentId")
+                .emitStatement("bindInsert(statement, target)")
+                .emitStatement("statement.bindLong(%d, parentId)", parentIndex)
+                .endMethod();
+
+        List<TableColumn> oneToManyColumns = getOneToManyColumns();
+        javaWriter.beginMethod("boolean", "hasChildren", EnumSet.of(PUBLIC))
+                .emitStatement("return %b", !oneToManyColumns.isEmpty())
+                .endMethod();
+
+        javaWriter.beginMethod("void", "insertChildren", EnumSet.of(PUBLIC),
+                "SQLiteDatabase", "database", getTargetClass(), "target", "long", "id");
+        String parentColumn = getChildParentColumn();
+        for (TableColumn column : oneToManyColumns) {
+            javaWriter.beginControlFlow(String.format("if (target.%s != null)",
+                    column.getColumnName()))
+                    .emitStatement("DatabaseHelper.insertChildren(database, %s.class, \"%s\", id, "
+                            + "target.%s)", column.getType(), parentColumn, column.getColumnName())
+                    .endControlFlow();
+        }
+        javaWriter.endMethod();
+    }
+
+    private void emitBindColumn(JavaWriter javaWriter, TableColumn column, int index)
+            throws IOException {
+        if (column.isPrimitive()) {
+            javaWriter.emitStatement("statement.%s", getBindValue(column, index));
+        } else {
+            javaWriter.beginControlFlow(
+                    String.format("if (target.%s == null)", column.getFieldAccess()))
+                    .emitStatement("statement.bindNull(%d)", index)
+                    .nextControlFlow("else")
+                    .emitStatement("statement.%s", getBindValue(column, index))
+                    .endControlFlow();
+        }
+    }
+
+    /**
+     * Java call binding the value of a column to the given argument of a compiled statement
+     */
+    private String getBindValue(TableColumn column, int index) {
+        String field = "target." + column.getFieldAccess();
+        if (column.getConverter() != null) {
+            // Converted values are bound with the function of the type they are stored as
+            field = String.format("%s.toColumn(%s)", getConverterField(column), field);
+        } else if (column.isEnum()) {
+            return String.format("bindLong(%d, %s)", index, getEnumValue(column, field));
+        } else if (column.isDate()) {
+            return String.format("bindLong(%d, %s.getTime())", index, field);
+        } else if (column.isBoolean()) {
+            return String.format("bindLong(%d, %s ? 1 : 0)", index, field);
+        } else if (column.isOneToOne()) {
+            return String.format("bindLong(%d, %s.getId(%s))", index, getAdapterField(column),
+                    field);
+        } else if (column.isBlob() && !column.isByteArray()) {
+            return String.format("bindBlob(%d, %s)", index, getBlobEncoder(column, field));
+        }
+
+        switch (column.getSqlType()) {
+            case INTEGER:
+                return String.format("bindLong(%d, %s)", index, field);
+            case REAL:
+                return String.format("bindDouble(%d, %s)", index, field);
+            case TEXT:
+                return String.format("bindString(%d, %s)", index, field);
+            default:
+                return String.format("bindBlob(%d, %s)", index, field);
+        }
+    }
+
+    /**
+     * Columns read back by {@link #emitMapCursor(JavaWriter)}, in the order of the generated
+     * column index array. The id column is always first.
+     */
+    private List<TableColumn> getMappedColumns() {
+        List<TableColumn> mappedColumns = Lists.newArrayList();
+        for (TableColumn column : columns) {
+            if (column.isOneToOne() || column.isOneToMany() || column.isOneToManyChild()) {
+                // Relationships are mapped from joined columns or loaded by loadRelations
+                continue;
+            }
+            mappedColumns.add(column);
+        }
+        return mappedColumns;
+    }
+
+    /**
+     * Names of the columns of this table read by {@link #emitMapCursor(JavaWriter)}, the id first
+     */
+    List<String> getColumnNames() {
+        List<String> names = Lists.newArrayList(idColumnName);
+        for (TableColumn column : getMappedColumns()) {
+            names.add(column.getColumnName());
+        }
+        return names;
+    }
+
+    /**
+     * Creates the array of column names the cursor positions are resolved against. The columns of
+     * this table come first, followed by the aliased columns of every joined table.
+     */
+    private void emitColumns(JavaWriter javaWriter) throws IOException {
+        List<String> names = Lists.newArrayList(getColumnNames());
+        for (TableColumn column : getJoinedColumns()) {
+            for (String name : column.getReference().getColumnNames()) {
+                names.add(column.getColumnName() + JOIN_ALIAS_SEPARATOR + name);
+            }
+        }
+
+        StringBuilder sb = new StringBuilder("{");
+        for (String name : names) {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            sb.append('"').append(name).append('"');
+        }
+        sb.append('}');
+        javaWriter.emitField("String[]", "COLUMNS", EnumSet.of(PRIVATE, STATIC, FINAL),
+                sb.toString());
+    }
+
+    /**
+     * Creates the function resolving the column positions of a cursor once, so that mapping each
+     * row does not have to look up the columns by name
+     */
+    private void emitGetColumnIndexes(JavaWriter javaWriter) throws IOException {
+        logger.d("emitGetColumnIndexes");
+        javaWriter.beginMethod("int[]", "getColumnIndexes", EnumSet.of(PUBLIC), "Cursor", "cursor")
+                .emitStatement("final int[] columnIndexes = new int[COLUMNS.length]")
+                .beginControlFlow("for (int i = 0; i < COLUMNS.length; i++)")
+                .emitStatement("columnIndexes[i] = cursor.getColumnIndex(COLUMNS[i])")
+                .endControlFlow()
+                .emitStatement("return columnIndexes")
+                .endMethod();
+    }
 
     private void emitMapCursor(JavaWriter javaWriter) throws IOException {
+        logger.d("emitMapCursor");
         javaWriter.beginMethod("void", "map", EnumSet.of(PUBLIC),
                 "Cursor", "cursor", getTargetClass(), "target")
-                .emitStatement("target.%s = cursor.getLong(cursor.getColumnIndex(\"%s\"))",
-                        idColumnName, idColumnName);
+                .emitStatement("map(cursor, getColumnIndexes(cursor), target)")
+                .endMethod();
 
-        for (TableColumn column : columns) {
+        javaWriter.beginMethod("void", "map", EnumSet.of(PUBLIC),
+                "Cursor", "cursor", "int[]", "columnIndexes", getTargetClass(), "target")
+                .emitStatement("map(cursor, columnIndexes, 0, target)");
+
+        // The row referenced by a one to one column is mapped from its joined columns, a null id
+        // means the left join found nothing. Rows already mapped in the current session are
+        // reused instead.
+        int offset = getColumnNames().size();
+        for (TableColumn column : getJoinedColumns()) {
             String columnName = column.getColumnName();
-            if (column.isDate()) {
-                javaWriter.emitStatement(
-                        "target.%s = new Date(cursor.%s(cursor.getColumnIndex(\"%s\")))", columnName,
-                        CursorFunctions.get(long.class.getName()), columnName);
-            } else if (column.isOneToOne()) {
-//                javaWriter.emitStatement(
-//                        "target.%s = %s%s.%s(cursor.%s(cursor.getColumnIndex(\"%s\")), db)",
-//                        columnName, column.getType(), $$SUFFIX, $$GET_OBJECT_BY_ID,
-//                        CursorFunctions.get(Long.class.getName()), columnName);
-            } else if (column.isBoolean()) {
-                javaWriter.emitStatement("target.%s = cursor.%s(cursor.getColumnIndex(\"%s\")) == 1",
-                        columnName, CursorFunctions.get(column.getType()), columnName);
-            } else if (column.getSqlType() == SqliteType.BLOB) {
-                if (column.isByteArray()) {
-                    javaWriter.emitStatement("target.%s = cursor.%s(cursor.getColumnIndex(\"%s\"))",
-                            columnName, CursorFunctions.get(column.getType()), columnName);
-                } else {
-                    javaWriter.emitStatement(
-                            "target.%s = %s(cursor.%s(cursor.getColumnIndex(\"%s\")));", columnName,
-                            DESERIALIZE_FUNCTION, CursorFunctions.get(column.getType()), columnName);
+            String idIndex = String.format("columnIndexes[%d]", offset);
+            String idVariable = columnName + "Id";
+            javaWriter.beginControlFlow(String.format("if (%s != -1)", idIndex))
+                    .beginControlFlow(String.format("if (cursor.isNull(%s))", idIndex))
+                    .emitStatement("target.%s = null", columnName)
+                    .nextControlFlow("else")
+                    .emitStatement("final long %s = cursor.getLong(%s)", idVariable, idIndex)
+                    .emitStatement("target.%s = Session.find(%s.class, %s)", columnName,
+                            column.getType(), idVariable)
+                    .beginControlFlow(String.format("if (target.%s == null)", columnName))
+                    .emitStatement("target.%s = %s.newObject()", columnName,
+                            getAdapterField(column))
+                    .emitStatement("%s.map(cursor, columnIndexes, %d, target.%s)",
+                            getAdapterField(column), offset, columnName)
+                    .emitStatement("Session.remember(%s.class, %s, target.%s)", column.getType(),
+                            idVariable, columnName)
+                    .endControlFlow()
+                    .endControlFlow()
+                    .endControlFlow();
+            offset += column.getReference().getColumnNames().size();
+        }
+        // Rows joined into the cursor of another table are not remembered, they are only updated
+        // in full
+        if (trackChanges) {
+            javaWriter.emitStatement(
+                    "ChangeTracker.snapshot(this, cursor, columnIndexes, target.%s)", idColumnName);
+        }
+        javaWriter.endMethod();
+
+        javaWriter.beginMethod("void", "map", EnumSet.of(PUBLIC),
+                "Cursor", "cursor", "int[]", "columnIndexes", "int", "offset",
+                getTargetClass(), "target")
+                .beginControlFlow("if (columnIndexes[offset] != -1)")
+                .emitStatement("target.%s = cursor.getLong(columnIndexes[offset])", idColumnName)
+                .endControlFlow();
+
+        int index = 1;
+        Set<String> embeddedFields = Sets.newHashSet();
+        List<TableColumn> mappedColumns = getMappedColumns();
+        for (TableColumn column : mappedColumns) {
+            String embeddedField = column.getEmbeddedField();
+            if (embeddedField == null) {
+                emitMapColumn(javaWriter, column, index++);
+            } else if (embeddedFields.add(embeddedField)) {
+                // The value object is null when all of its columns are
+                List<TableColumn> embeddedColumns = getEmbeddedColumns(embeddedField);
+                StringBuilder hasValue = new StringBuilder();
+                for (int i = 0; i < embeddedColumns.size(); i++) {
+                    String columnIndex = String.format("columnIndexes[offset + %d]", index + i);
+                    hasValue.append(hasValue.length() > 0 ? " || " : "")
+                            .append(String.format("(%1$s != -1 && !cursor.isNull(%1$s))",
+                                    columnIndex));
                 }
-            } else if (column.isOneToMany()) {
-//                javaWriter.emitStatement("Cursor childCursor = %s%s.%s(db)", column.getType(),
-//                        $$SUFFIX, SELECT_ALL_FUNCTION)
-//                        .emitStatement("target.%s = %s%s.%s(childCursor, db)",
-//                                column.getColumnName(), column.getType(), $$SUFFIX, $$MAP_OBJECT_FUNCTION)
-//                        .emitStatement("childCursor.close()");
-            } else if (column.isOneToManyChild()) {
-                // TODO Skip and have custom mapping?
-            } else {
-                javaWriter.emitStatement("target.%s = cursor.%s(cursor.getColumnIndex(\"%s\"))",
-                        columnName, CursorFunctions.get(column.getType()), columnName);
+                javaWriter.beginControlFlow(String.format("if (%s)", hasValue))
+                        .beginControlFlow(String.format("if (target.%s == null)", embeddedField))
+                        .emitStatement("target.%s = new %s()", embeddedField,
+                                column.getEmbeddedType())
+                        .endControlFlow();
+                for (TableColumn embeddedColumn : embeddedColumns) {
+                    emitMapColumn(javaWriter, embeddedColumn, index++);
+                }
+                javaWriter.nextControlFlow("else")
+                        .emitStatement("target.%s = null", embeddedField)
+                        .endControlFlow();
             }
         }
 
         javaWriter.endMethod();
     }
 
+    private void emitMapColumn(JavaWriter javaWriter, TableColumn column, int index)
+            throws IOException {
+        String columnIndex = String.format("columnIndexes[offset + %d]", index);
+        javaWriter.beginControlFlow(String.format("if (%s != -1)", columnIndex))
+                .emitStatement("target.%s = %s", column.getFieldAccess(),
+                        getCursorValue(column, columnIndex))
+                .endControlFlow();
+    }
+
     /**
-     * Creates functions for serialization to and from byte arrays
+     * Creates the function loading the one to many children of a list of targets. Each
+     * relationship costs one query per chunk of parents instead of one query per parent.
      */
-    private void emitByteArraySerialization(JavaWriter javaWriter) throws IOException {
-        logger.d("emitByteArraySerialization");
-        javaWriter.beginMethod("<K> byte[]", SERIALIZE_FUNCTION, EnumSet.of(STATIC), "K", "object")
-                .beginControlFlow("try")
-                .emitStatement("ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream()")
-                .emitStatement(
-                        "ObjectOutputStream objectOutputStream = new ObjectOutputStream(byteArrayOutputStream)")
-                .emitStatement("objectOutputStream.writeObject(object)")
-                .emitStatement("return byteArrayOutputStream.toByteArray()")
-                .nextControlFlow("catch (IOException e)")
-                .emitStatement("throw new RuntimeException(e)")
-                .endControlFlow()
-                .endMethod()
-                .beginMethod("<K> K", DESERIALIZE_FUNCTION, EnumSet.of(STATIC), "byte[]", "bytes")
-                .beginControlFlow("try")
-                .emitStatement(
-                        "ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(bytes)")
-                .emitStatement(
-                        "ObjectInputStream objectInputStream = new ObjectInputStream(byteArrayInputStream)")
-                .emitStatement("return (K) objectInputStream.readObject()")
-                .nextControlFlow("catch (IOException e)")
-                .emitStatement("throw new RuntimeException(e)")
-                .nextControlFlow("catch (ClassNotFoundException e)")
-                .emitStatement("throw new RuntimeException(e)")
+    private void emitLoadRelations(JavaWriter javaWriter) throws IOException {
+        logger.d("emitLoadRelations");
+        javaWriter.beginMethod("void", "loadRelations", EnumSet.of(PUBLIC),
+                "SQLiteDatabase", "database", String.format("List<%s>", getTargetClass()),
+                "targets");
+
+        List<TableColumn> oneToManyColumns = getOneToManyColumns();
+        if (oneToManyColumns.isEmpty()) {
+            javaWriter.endMethod();
+            return;
+        }
+
+        javaWriter.emitStatement("final long[] ids = new long[targets.size()]")
+                .emitStatement("int i = 0")
+                .beginControlFlow(String.format("for (%s target : targets)", getTargetClass()))
+                .emitStatement("ids[i++] = target.%s", idColumnName)
+                .endControlFlow();
+
+        String parentColumn = getChildParentColumn();
+        for (TableColumn column : oneToManyColumns) {
+            String childType = column.getType();
+            String children = column.getColumnName() + "ByParent";
+            javaWriter.emitStatement("final Map<Long, List<%1$s>> %2$s = DatabaseHelper"
+                    + ".getChildren(database, %1$s.class, \"%3$s\", ids)",
+                    childType, children, parentColumn)
+                    .beginControlFlow(String.format("for (%s target : targets)", getTargetClass()))
+                    .emitStatement("final List<%s> children = %s.get(target.%s)", childType,
+                            children, idColumnName)
+                    .emitStatement("target.%s = children != null ? children : new ArrayList<%s>()",
+                            column.getColumnName(), childType)
+                    .endControlFlow();
+        }
+        javaWriter.endMethod();
+    }
+
+    private void emitGetId(JavaWriter javaWriter) throws IOException {
+        logger.d("emitGetId");
+        javaWriter.beginMethod("long", "getId", EnumSet.of(PUBLIC), getTargetClass(), "target")
+                .emitStatement("return target.%s", idColumnName)
+                .endMethod();
+
+        javaWriter.beginMethod("void", "setId", EnumSet.of(PUBLIC), getTargetClass(), "target",
+                "long", "id")
+                .emitStatement("target.%s = id", idColumnName)
+                .endMethod();
+
+        javaWriter.beginMethod("String", "getIdColumnName", EnumSet.of(PUBLIC))
+                .emitStatement("return \"%s\"", idColumnName)
+                .endMethod();
+
+        javaWriter.beginMethod("boolean", "isWithoutRowId", EnumSet.of(PUBLIC))
+                .emitStatement("return %b", isWithoutRowId())
+                .endMethod();
+    }
+
+    /**
+     * Creates the function selecting rows with the tables referenced by one to one columns joined
+     */
+    private void emitGetSelectStatement(JavaWriter javaWriter) throws IOException {
+        logger.d("emitGetSelectStatement");
+        String selectAll = getSelectStatement(getTableName());
+        String select = getJoinedColumns().isEmpty() ? selectAll + " WHERE %s"
+                : getSelectStatement(String.format("(SELECT * FROM %s WHERE %%s)", getTableName()));
+        int selection = select.indexOf("%s");
+        String tail = select.substring(selection + 2);
+        javaWriter.beginMethod("String", "getSelectStatement", EnumSet.of(PUBLIC),
+                "String", "selection")
+                .beginControlFlow("if (selection == null)")
+                .emitStatement("return %s", JavaWriter.stringLiteral(selectAll))
                 .endControlFlow()
+                .emitStatement("return %s + selection%s",
+                        JavaWriter.stringLiteral(select.substring(0, selection)),
+                        tail.isEmpty() ? "" : " + " + JavaWriter.stringLiteral(tail))
                 .endMethod();
     }
 
+    /**
+     * Java expression reading the value of a column from the cursor at the given position
+     */
+    static String getCursorValue(TableColumn column, String columnIndex) {
+        if (column.getConverter() != null) {
+            return String.format("cursor.isNull(%1$s) ? null : %2$s.fromColumn(cursor.%3$s(%1$s))",
+                    columnIndex, getConverterField(column),
+                    CursorFunctions.get(column.getStoredType()));
+        } else if (column.isEnum()) {
+            return String.format("cursor.isNull(%1$s) ? null : %2$s", columnIndex,
+                    getEnumConstant(column, String.format("cursor.getInt(%s)", columnIndex)));
+        } else if (column.isDate()) {
+            return String.format("cursor.isNull(%1$s) ? null : new Date(cursor.%2$s(%1$s))",
+                    columnIndex, CursorFunctions.get(long.class.getName()));
+        } else if (column.isBoolean()) {
+            return String.format("cursor.%s(%s) == 1",
+                    CursorFunctions.get(column.getType()), columnIndex);
+        } else if (column.isBlob() && !column.isByteArray()) {
+            return getBlobDecoder(column, String.format("cursor.%s(%s)",
+                    CursorFunctions.get(column.getType()), columnIndex));
+        }
+        return String.format("cursor.%s(%s)", CursorFunctions.get(column.getType()), columnIndex);
+    }
+
+    /**
+     * Java expression finding the constant of an enum column stored as <b>value</b>, without
+     * allocating
+     */
+    private static String getEnumConstant(TableColumn column, String value) {
+        if (column.isCodedEnum()) {
+            return String.format("%s.get(%s)", getEnumField(column), value);
+        }
+        return String.format("%s[%s]", getEnumField(column), value);
+    }
+
+    /**
+     * Java expression of the value stored for an enum column
+     */
+    private static String getEnumValue(TableColumn column, String constant) {
+        return String.format(column.isCodedEnum() ? "%s.getCode()" : "%s.ordinal()", constant);
+    }
+
+    private static String getEnumField(TableColumn column) {
+        return column.getColumnName() + (column.isCodedEnum() ? "Codes" : "Values");
+    }
+
+    /**
+     * Creates the lookup of the constants of every enum field, an array of the constants indexed
+     * by ordinal or the constants by code
+     */
+    static void emitEnumFields(JavaWriter javaWriter, List<TableColumn> columns)
+            throws IOException {
+        for (TableColumn column : columns) {
+            if (!column.isEnum()) {
+                continue;
+            }
+            if (column.isCodedEnum()) {
+                javaWriter.emitField(String.format("EnumCodes<%s>", column.getType()),
+                        getEnumField(column), EnumSet.of(PRIVATE, STATIC, FINAL),
+                        String.format("new EnumCodes<%1$s>(%1$s.class)", column.getType()));
+            } else {
+                // values() copies the array on every call, it is only called once
+                javaWriter.emitField(column.getType() + "[]", getEnumField(column),
+                        EnumSet.of(PRIVATE, STATIC, FINAL),
+                        String.format("%s.values()", column.getType()));
+            }
+        }
+    }
+
+    /**
+     * Java expression converting the value of a blob column to bytes
+     */
+    static String getBlobEncoder(TableColumn column, String value) {
+        if (column.getBlobCodec() != null) {
+            return String.format("BlobCodecs.encode(%s, %s)", getCodecField(column), value);
+        } else if (column.getValueClass() != null) {
+            return String.format("encode%s(%s)", capitalize(column.getColumnName()), value);
+        } else if (BlobFunctions.isPacked(column.getType())) {
+            return String.format("BlobCodecs.%s(%s)", BlobFunctions.getEncoder(column.getType()),
+                    value);
+        }
+        return String.format("%s(%s)", SERIALIZE_FUNCTION, value);
+    }
+
+    /**
+     * Java expression converting bytes back to the value of a blob column
+     */
+    static String getBlobDecoder(TableColumn column, String bytes) {
+        if (column.getBlobCodec() != null) {
+            return String.format("BlobCodecs.decode(%s, %s)", getCodecField(column), bytes);
+        } else if (column.getValueClass() != null) {
+            return String.format("decode%s(%s)", capitalize(column.getColumnName()), bytes);
+        } else if (BlobFunctions.isPacked(column.getType())) {
+            return String.format("BlobCodecs.%s(%s)", BlobFunctions.getDecoder(column.getType()),
+                    bytes);
+        }
+        return String.format("%s(%s)", DESERIALIZE_FUNCTION, bytes);
+    }
+
+    private String getAdapterField(TableColumn column) {
+        return column.getColumnName() + "Adapter";
+    }
+
+    /**
+     * Creates the adapters of the tables referenced by one to one columns
+     */
+    private void emitReferenceAdapterFields(JavaWriter javaWriter) throws IOException {
+        for (TableColumn column : getJoinedColumns()) {
+            String adapter = column.getReference().getFqcn();
+            javaWriter.emitField(adapter, getAdapterField(column),
+                    EnumSet.of(PRIVATE, STATIC, FINAL), String.format("new %s()", adapter));
+        }
+    }
+
+    private static String newConverter(TableColumn column) {
+        return String.format("new %s(%s)", column.getConverter(), column.getConverterArguments());
+    }
+
+    private static String getConverterField(TableColumn column) {
+        return column.getColumnName() + "Converter";
+    }
+
+    /**
+     * Creates an instance of every converter set on a field
+     */
+    static void emitConverterFields(JavaWriter javaWriter, List<TableColumn> columns)
+            throws IOException {
+        for (TableColumn column : columns) {
+            if (column.getConverter() != null) {
+                javaWriter.emitField(column.getConverter(), getConverterField(column),
+                        EnumSet.of(PRIVATE, STATIC, FINAL), newConverter(column));
+            }
+        }
+    }
+
+    private static String getCodecField(TableColumn column) {
+        return column.getColumnName() + "Codec";
+    }
+
+    private static String capitalize(String name) {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    /**
+     * Creates an instance of every codec set on a blob field
+     */
+    static void emitBlobCodecFields(JavaWriter javaWriter, List<TableColumn> columns)
+            throws IOException {
+        for (TableColumn column : columns) {
+            if (column.getBlobCodec() != null) {
+                javaWriter.emitField(column.getBlobCodec(), getCodecField(column),
+                        EnumSet.of(PRIVATE, STATIC, FINAL),
+                        String.format("new %s()", column.getBlobCodec()));
+            }
+        }
+    }
+
+    /**
+     * Creates the field by field codecs of value classes stored as blobs
+     */
+    static void emitBlobCodecs(JavaWriter javaWriter, List<TableColumn> columns)
+            throws IOException {
+        for (TableColumn column : columns) {
+            if (column.getValueClass() != null) {
+                column.getValueClass().emitCodec(javaWriter, capitalize(column.getColumnName()));
+            }
+        }
+    }
+
     @Override
     public String toString() {
         return getSchema();
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androiddb.internal;
+
+import java.util.HashMap;
+
+/**
+ * Maps array and list types to the packed encodings of tale.androiddb.BlobCodecs
+ */
+final class BlobFunctions {
+    private static final String ENCODE_METHOD = "encode";
+
+    private static final HashMap<String, String> SUPPORTED_DECODE_METHODS
+            = new HashMap<String, String>();
+
+    /**
+     * Lists erase to the same type, each has its own encode function instead of an overload
+     */
+    private static final HashMap<String, String> LIST_ENCODE_METHODS
+            = new HashMap<String, String>();
+
+    static {
+        SUPPORTED_DECODE_METHODS.put("java.lang.Byte[]", "decodeBoxedByteArray");
+        SUPPORTED_DECODE_METHODS.put("boolean[]", "decodeBooleanArray");
+        SUPPORTED_DECODE_METHODS.put("short[]", "decodeShortArray");
+        SUPPORTED_DECODE_METHODS.put("char[]", "decodeCharArray");
+        SUPPORTED_DECODE_METHODS.put("int[]", "decodeIntArray");
+        SUPPORTED_DECODE_METHODS.put("long[]", "decodeLongArray");
+        SUPPORTED_DECODE_METHODS.put("float[]", "decodeFloatArray");
+        SUPPORTED_DECODE_METHODS.put("double[]", "decodeDoubleArray");
+        SUPPORTED_DECODE_METHODS.put("java.util.List<java.lang.Integer>", "decodeIntegerList");
+        SUPPORTED_DECODE_METHODS.put("java.util.List<java.lang.Long>", "decodeLongList");
+        SUPPORTED_DECODE_METHODS.put("java.util.List<java.lang.Float>", "decodeFloatList");
+        SUPPORTED_DECODE_METHODS.put("java.util.List<java.lang.Double>", "decodeDoubleList");
+
+        LIST_ENCODE_METHODS.put("java.util.List<java.lang.Integer>", "encodeIntegerList");
+        LIST_ENCODE_METHODS.put("java.util.List<java.lang.Long>", "encodeLongList");
+        LIST_ENCODE_METHODS.put("java.util.List<java.lang.Float>", "encodeFloatList");
+        LIST_ENCODE_METHODS.put("java.util.List<java.lang.Double>", "encodeDoubleList");
+    }
+
+    /**
+     * Tells if the type has a packed encoding
+     */
+    static boolean isPacked(String type) {
+        return SUPPORTED_DECODE_METHODS.containsKey(type);
+    }
+
+    /**
+     * Maps a packed type to the BlobCodecs function encoding it
+     */
+    static String getEncoder(String type) {
+        final String listEncoder = LIST_ENCODE_METHODS.get(type);
+        return listEncoder != null ? listEncoder : ENCODE_METHOD;
+    }
+
+    /**
+     * Maps a type to the BlobCodecs function decoding it, null if the type is not packed
+     */
+    static String getDecoder(String type) {
+        return SUPPORTED_DECODE_METHODS.get(type);
+    }
+
+    private BlobFunctions() {
+        throw new UnsupportedOperationException();
+    }
+}
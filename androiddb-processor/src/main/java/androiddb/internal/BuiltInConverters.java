@@ -0,0 +1,72 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androiddb.internal;
+
+import java.math.BigDecimal;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.UUID;
+
+/**
+ * Maps value types to the converters of tale.androiddb.ValueConverters, used for fields of those
+ * types that have no @Converter and are not marked as blobs
+ */
+final class BuiltInConverters {
+    private static final String CONVERTERS_CLASS = "tale.androiddb.ValueConverters.";
+
+    private static final HashMap<String, String> CONVERTERS = new HashMap<String, String>();
+    private static final HashMap<String, String> STORED_TYPES = new HashMap<String, String>();
+
+    static {
+        put(UUID.class.getName(), "UuidConverter", "byte[]");
+        put(BigDecimal.class.getName(), "BigDecimalConverter", Long.class.getName());
+        put(java.sql.Date.class.getName(), "SqlDateConverter", Long.class.getName());
+        put(Time.class.getName(), "TimeConverter", Long.class.getName());
+        put(Timestamp.class.getName(), "TimestampConverter", Long.class.getName());
+    }
+
+    private static void put(String type, String converter, String storedType) {
+        CONVERTERS.put(type, CONVERTERS_CLASS + converter);
+        STORED_TYPES.put(type, storedType);
+    }
+
+    /**
+     * Maps a type to the fully qualified name of its converter, null if it has none
+     */
+    static String getConverter(String type) {
+        return CONVERTERS.get(type);
+    }
+
+    /**
+     * Maps a type to the type its converter stores
+     */
+    static String getStoredType(String type) {
+        return STORED_TYPES.get(type);
+    }
+
+    /**
+     * Tells if the converter of the type is created with the scale of the field
+     */
+    static boolean isScaled(String type) {
+        return BigDecimal.class.getName().equals(type);
+    }
+
+    private BuiltInConverters() {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androiddb.internal;
+
+import com.google.common.collect.Lists;
+import com.squareup.javawriter.JavaWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+
+import javax.lang.model.element.Element;
+
+import tale.androiddb.CursorMapper;
+
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.PUBLIC;
+import static javax.lang.model.element.Modifier.STATIC;
+
+/**
+ * The cursor mapper of a class annotated with QueryResult. Its columns are read the same way as
+ * the columns of a table, see {@link AdapterObject}.
+ */
+class MapperObject {
+
+    private final Element element;
+    private final String classPackage;
+    private final String className;
+    private final ShillelaghLogger logger;
+
+    private final List<TableColumn> columns = Lists.newArrayList();
+
+    MapperObject(Element element, String classPackage, String className, ShillelaghLogger logger) {
+        this.element = element;
+        this.classPackage = classPackage;
+        this.className = className;
+        this.logger = logger;
+    }
+
+    Element getOriginatingElement() {
+        return element;
+    }
+
+    void addColumn(TableColumn column) {
+        columns.add(column);
+    }
+
+    String getTargetClass() {
+        return element.toString();
+    }
+
+    /**
+     * Get the fully qualified class name
+     */
+    String getFqcn() {
+        return classPackage + "." + className;
+    }
+
+    void brewJava(Writer writer) throws IOException {
+        logger.d("brewJava mapper");
+        JavaWriter javaWriter = new JavaWriter(writer);
+        javaWriter.setCompressingTypes(false);
+
+        StringBuilder names = new StringBuilder("{");
+        for (TableColumn column : columns) {
+            if (names.length() > 1) {
+                names.append(", ");
+            }
+            names.append('"').append(column.getColumnName()).append('"');
+        }
+        names.append('}');
+
+        javaWriter.emitSingleLineComment("Generated code from Shillelagh. Do not modify!")
+                .emitPackage(classPackage)
+                .emitImports("android.database.Cursor",
+                        "tale.androiddb.BlobCodecs",
+                        "tale.androiddb.BlobReader",
+                        "tale.androiddb.BlobWriter",
+                        "tale.androiddb.EnumCodes")
+                .emitImports(Date.class)
+                .beginType(className, "class", EnumSet.of(PUBLIC, FINAL), null,
+                        String.format("%s<%s>", CursorMapper.class.getName(), getTargetClass()))
+                .emitField("String[]", "COLUMNS", EnumSet.of(PRIVATE, STATIC, FINAL),
+                        names.toString());
+        AdapterObject.emitBlobCodecFields(javaWriter, columns);
+        AdapterObject.emitConverterFields(javaWriter, columns);
+        AdapterObject.emitEnumFields(javaWriter, columns);
+
+        javaWriter.beginMethod(String.format("Class<%s>", getTargetClass()), "getTargetClass",
+                EnumSet.of(PUBLIC))
+                .emitStatement("return %s.class", getTargetClass())
+                .endMethod();
+
+        javaWriter.beginMethod(getTargetClass(), "newObject", EnumSet.of(PUBLIC))
+                .emitStatement("return new %s()", getTargetClass())
+                .endMethod();
+
+        javaWriter.beginMethod("int[]", "getColumnIndexes", EnumSet.of(PUBLIC), "Cursor", "cursor")
+                .emitStatement("final int[] columnIndexes = new int[COLUMNS.length]")
+                .beginControlFlow("for (int i = 0; i < COLUMNS.length; i++)")
+                .emitStatement("columnIndexes[i] = cursor.getColumnIndex(COLUMNS[i])")
+                .endControlFlow()
+                .emitStatement("return columnIndexes")
+                .endMethod();
+
+        javaWriter.beginMethod("void", "map", EnumSet.of(PUBLIC),
+                "Cursor", "cursor", "int[]", "columnIndexes", getTargetClass(), "target");
+        for (int i = 0; i < columns.size(); i++) {
+            TableColumn column = columns.get(i);
+            String columnIndex = String.format("columnIndexes[%d]", i);
+            javaWriter.beginControlFlow(String.format("if (%s != -1)", columnIndex))
+                    .emitStatement("target.%s = %s", column.getColumnName(),
+                            AdapterObject.getCursorValue(column, columnIndex))
+                    .endControlFlow();
+        }
+        javaWriter.endMethod();
+
+        AdapterObject.emitBlobCodecs(javaWriter, columns);
+        javaWriter.endType();
+    }
+}
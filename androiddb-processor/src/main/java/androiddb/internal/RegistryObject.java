@@ -0,0 +1,120 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androiddb.internal;
+
+import com.google.common.collect.Lists;
+import com.squareup.javawriter.JavaWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.EnumSet;
+import java.util.List;
+
+import javax.lang.model.element.Element;
+
+import tale.androiddb.AdapterRegistry;
+import tale.androiddb.CursorMapper;
+import tale.androiddb.TypeAdapter;
+
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PUBLIC;
+
+/**
+ * The registry of every adapter and mapper generated by a compilation, lets the runtime find
+ * adapters with direct constructor calls instead of reflection
+ */
+class RegistryObject {
+
+    private final String fqcn;
+    private final ShillelaghLogger logger;
+
+    private final List<AdapterObject> adapters = Lists.newArrayList();
+    private final List<MapperObject> mappers = Lists.newArrayList();
+
+    RegistryObject(String fqcn, ShillelaghLogger logger) {
+        this.fqcn = fqcn;
+        this.logger = logger;
+    }
+
+    void addAdapter(AdapterObject adapter) {
+        adapters.add(adapter);
+    }
+
+    void addMapper(MapperObject mapper) {
+        mappers.add(mapper);
+    }
+
+    boolean isEmpty() {
+        return adapters.isEmpty() && mappers.isEmpty();
+    }
+
+    String getFqcn() {
+        return fqcn;
+    }
+
+    /**
+     * Elements of every registered table and query result, the registry has to be regenerated
+     * when any changes
+     */
+    Element[] getOriginatingElements() {
+        List<Element> elements = Lists.newArrayList();
+        for (AdapterObject adapter : adapters) {
+            elements.add(adapter.getOriginatingElement());
+        }
+        for (MapperObject mapper : mappers) {
+            elements.add(mapper.getOriginatingElement());
+        }
+        return elements.toArray(new Element[elements.size()]);
+    }
+
+    void brewJava(Writer writer) throws IOException {
+        logger.d("brewJava registry");
+        int lastDot = fqcn.lastIndexOf('.');
+        String classPackage = lastDot == -1 ? "" : fqcn.substring(0, lastDot);
+        String className = fqcn.substring(lastDot + 1);
+        String adapterType = TypeAdapter.class.getName();
+        String mapperType = CursorMapper.class.getName();
+
+        JavaWriter javaWriter = new JavaWriter(writer);
+        javaWriter.setCompressingTypes(false);
+
+        javaWriter.emitSingleLineComment("Generated code from Shillelagh. Do not modify!");
+        if (!classPackage.isEmpty()) {
+            javaWriter.emitPackage(classPackage);
+        }
+        javaWriter.beginType(className, "class", EnumSet.of(PUBLIC, FINAL), null,
+                AdapterRegistry.class.getName())
+                .beginMethod(adapterType + "<?>[]", "createAdapters", EnumSet.of(PUBLIC))
+                .emitStatement("%1$s<?>[] adapters = new %1$s<?>[%2$d]", adapterType,
+                        adapters.size());
+        for (int i = 0; i < adapters.size(); i++) {
+            javaWriter.emitStatement("adapters[%d] = new %s()", i, adapters.get(i).getFqcn());
+        }
+        javaWriter.emitStatement("return adapters")
+                .endMethod();
+
+        javaWriter.beginMethod(mapperType + "<?>[]", "createMappers", EnumSet.of(PUBLIC))
+                .emitStatement("%1$s<?>[] mappers = new %1$s<?>[%2$d]", mapperType,
+                        mappers.size());
+        for (int i = 0; i < mappers.size(); i++) {
+            javaWriter.emitStatement("mappers[%d] = new %s()", i, mappers.get(i).getFqcn());
+        }
+        javaWriter.emitStatement("return mappers")
+                .endMethod()
+                .endType();
+    }
+}
@@ -16,12 +16,15 @@
 
 package androiddb.internal;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
 import java.io.IOException;
 import java.io.Serializable;
 import java.io.Writer;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -32,23 +35,51 @@ import javax.annotation.processing.ProcessingEnvironment;
 import javax.annotation.processing.RoundEnvironment;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.MirroredTypeException;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.Elements;
 import javax.lang.model.util.Types;
 import javax.tools.JavaFileObject;
 
+import tale.androiddb.BlobCodec;
+import tale.androiddb.CodedEnum;
+import tale.androiddb.Converter;
 import tale.androiddb.DatabaseHelper;
+import tale.androiddb.Embedded;
 import tale.androiddb.Field;
 import tale.androiddb.Id;
+import tale.androiddb.Index;
+import tale.androiddb.Indexes;
+import tale.androiddb.QueryResult;
 import tale.androiddb.Table;
+import tale.androiddb.TypeConverter;
+import tale.androiddb.Unique;
 
 public final class ShillelaghProcessor extends AbstractProcessor {
     static final boolean DEBUG = false;
 
-    private Map<String, AdapterObject> oneToManyCache;
+    /**
+     * Processor option naming the generated adapter registry
+     */
+    static final String OPTION_REGISTRY = "shillelagh.registry";
+
+
+    /**
+     * Tables of every round by class name, one to one columns are resolved against them
+     */
+    private final Map<String, AdapterObject> knownTables = Maps.newHashMap();
+
+    /**
+     * Adapters written so far, the registry is written once no more tables show up in a round
+     */
+    private RegistryObject registry;
+    private boolean registryWritten;
 
     private ShillelaghLogger logger;
 
@@ -64,12 +95,22 @@ public final class ShillelaghProcessor extends AbstractProcessor {
         elementUtils = processingEnv.getElementUtils();
         typeUtils = processingEnv.getTypeUtils();
         filer = processingEnv.getFiler();
+
+        String registryName = processingEnv.getOptions().get(OPTION_REGISTRY);
+        registry = new RegistryObject(
+                registryName != null ? registryName : DatabaseHelper.$$REGISTRY, logger);
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        return Collections.singleton(OPTION_REGISTRY);
     }
 
     @Override
     public Set<String> getSupportedAnnotationTypes() {
         Set<String> supportTypes = Sets.newLinkedHashSet();
         supportTypes.add(Table.class.getCanonicalName());
+        supportTypes.add(QueryResult.class.getCanonicalName());
 
         return supportTypes;
     }
@@ -80,16 +121,24 @@ public final class ShillelaghProcessor extends AbstractProcessor {
 
         long startTime = System.currentTimeMillis();
 
-        Map<String, AdapterObject> tableObjectCache = Maps.newHashMap();
-        oneToManyCache = Maps.newHashMap();
+        Map<String, AdapterObject> tableObjectCache = Maps.newLinkedHashMap();
+
+        List<MapperObject> mappers = Lists.newArrayList();
+        for (Element element : roundEnvironment.getElementsAnnotatedWith(QueryResult.class)) {
+            mappers.add(createMapper(element));
+        }
 
         for (TypeElement annotation : annotations) {
+            if (!Table.class.getCanonicalName().equals(annotation.getQualifiedName().toString())) {
+                continue;
+            }
             Set<? extends Element> elements = roundEnvironment.getElementsAnnotatedWith(annotation);
             for (Element element : elements) {
                 String targetType = element.toString();
                 String classPackage = getPackageName(element);
                 String className = getClassName((TypeElement) element, classPackage) + DatabaseHelper.$$SUFFIX;
                 AdapterObject tableObject = new AdapterObject(element, classPackage, className, logger);
+                tableObject.setTrackChanges(element.getAnnotation(Table.class).trackChanges());
                 logger.d("Element: " + element.toString());
                 logger.d("TargetType: " + targetType);
                 logger.d("ClassPackage: " + classPackage);
@@ -114,6 +163,7 @@ public final class ShillelaghProcessor extends AbstractProcessor {
                         checkForFields(tableObject, enclosedElement);
                     }
                 }
+                checkForIndexes(tableObject, element);
 
                 logger.d(tableObject.toString());
                 if (tableObject.getIdColumnName() == null) {
@@ -124,36 +174,142 @@ public final class ShillelaghProcessor extends AbstractProcessor {
             }
         }
 
-        // Process one to many relationships
-        for (Map.Entry<String, AdapterObject> entry : oneToManyCache.entrySet()) {
-            logger.d("Entry: " + entry.getKey() + " " + entry.getValue());
-            AdapterObject tableObject = tableObjectCache.get(entry.getKey());
-            tableObject.addColumn(new TableColumn(entry.getValue().getTableName().toLowerCase(),
-                    Integer.class.getName(), SqliteType.ONE_TO_MANY_CHILD));
-            tableObject.setIsChildTable(true);
+        // Process one to many relationships, the child table gets a column holding the parent id.
+        // Everything is derived from the tables of this round so no state leaks between
+        // elements or rounds.
+        for (AdapterObject parent : tableObjectCache.values()) {
+            for (TableColumn column : parent.getOneToManyColumns()) {
+                logger.d("One to many: " + parent.getTableName() + " " + column.getType());
+                AdapterObject child = tableObjectCache.get(column.getType());
+                if (child == null) {
+                    logger.e(String.format("%s in %s references %s which is not a table of "
+                            + "this compilation round", column.getColumnName(),
+                            parent.getTableName(), column.getType()));
+                    continue;
+                }
+                String parentColumn = parent.getTableName().toLowerCase();
+                if (!child.hasColumn(parentColumn)) {
+                    child.addColumn(new TableColumn(parentColumn, Integer.class.getName(),
+                            SqliteType.ONE_TO_MANY_CHILD));
+                }
+                child.setIsChildTable(true);
+                child.addOriginatingElement(parent.getOriginatingElement());
+                parent.addOriginatingElement(child.getOriginatingElement());
+            }
+        }
+
+        Map<String, String> indexTables = Maps.newHashMap();
+        for (AdapterObject tableObject : tableObjectCache.values()) {
+            for (TableIndex index : tableObject.getIndexes()) {
+                String indexName = index.getName(tableObject.getTableName());
+                String otherTable = indexTables.put(indexName, tableObject.getTargetClass());
+                if (otherTable != null) {
+                    logger.e(String.format("Index %s of %s has the same name as an index of %s",
+                            indexName, tableObject.getTargetClass(), otherTable));
+                }
+                for (String column : index.getColumns()) {
+                    if (!tableObject.hasColumn(TableIndex.getColumnName(column))) {
+                        logger.e(String.format("Index %s of %s is on unknown column %s",
+                                index.getName(tableObject.getTableName()),
+                                tableObject.getTargetClass(), column));
+                    }
+                }
+            }
+        }
+
+        // Resolve the tables referenced by one to one relationships, they are joined when selected
+        knownTables.putAll(tableObjectCache);
+        for (AdapterObject tableObject : tableObjectCache.values()) {
+            for (TableColumn column : tableObject.getOneToOneColumns()) {
+                AdapterObject reference = knownTables.get(column.getType());
+                if (reference == null) {
+                    logger.e(String.format("%s in %s references %s which is not a known table",
+                            column.getColumnName(), tableObject.getTableName(), column.getType()));
+                    continue;
+                }
+                column.setReference(reference);
+                tableObject.addOriginatingElement(reference.getOriginatingElement());
+            }
         }
 
+        long parseTime = System.currentTimeMillis() - startTime;
+        int filesWritten = 0;
+
         for (AdapterObject tableObject : tableObjectCache.values()) {
             logger.d("Writing for " + tableObject.getTableName());
             Element element = tableObject.getOriginatingElement();
+            Element[] originatingElements = tableObject.getOriginatingElements();
             try {
-                JavaFileObject jfo = filer.createSourceFile(tableObject.getFqcn(), element);
+                JavaFileObject jfo = filer.createSourceFile(tableObject.getFqcn(),
+                        originatingElements);
                 Writer writer = jfo.openWriter();
                 tableObject.brewJava(writer);
                 writer.flush();
                 writer.close();
+                filesWritten++;
+
+                jfo = filer.createSourceFile(tableObject.getColumnsFqcn(), element);
+                writer = jfo.openWriter();
+                tableObject.brewColumnsJava(writer);
+                writer.flush();
+                writer.close();
+                filesWritten++;
+                registry.addAdapter(tableObject);
             } catch (IOException e) {
                 logger.e(String.format(
                         "Unable to write shillelagh classes for type %s: %s", element, e.getMessage()));
             }
         }
 
+        for (MapperObject mapper : mappers) {
+            logger.d("Writing mapper for " + mapper.getTargetClass());
+            Element element = mapper.getOriginatingElement();
+            try {
+                JavaFileObject jfo = filer.createSourceFile(mapper.getFqcn(), element);
+                Writer writer = jfo.openWriter();
+                mapper.brewJava(writer);
+                writer.flush();
+                writer.close();
+                filesWritten++;
+                registry.addMapper(mapper);
+            } catch (IOException e) {
+                logger.e(String.format("Unable to write shillelagh mapper for type %s: %s",
+                        element, e.getMessage()));
+            }
+        }
+
+        // Tables generated by other processors show up in later rounds, only write the registry
+        // once a round brings no new table
+        if (tableObjectCache.isEmpty() && mappers.isEmpty() && !registry.isEmpty()
+                && !registryWritten) {
+            writeRegistry();
+            filesWritten++;
+        }
+
         long endTime = System.currentTimeMillis() - startTime;
-        logger.n("Shillelagh took %d milliseconds", endTime);
+        logger.n("Shillelagh took %d milliseconds (%d parsing, %d writing): %d tables, "
+                + "%d query results, %d files written", endTime, parseTime, endTime - parseTime,
+                tableObjectCache.size(), mappers.size(), filesWritten);
 
         return true;
     }
 
+    private void writeRegistry() {
+        logger.d("Writing registry " + registry.getFqcn());
+        registryWritten = true;
+        try {
+            JavaFileObject jfo = filer.createSourceFile(registry.getFqcn(),
+                    registry.getOriginatingElements());
+            Writer writer = jfo.openWriter();
+            registry.brewJava(writer);
+            writer.flush();
+            writer.close();
+        } catch (IOException e) {
+            logger.e(String.format("Unable to write shillelagh registry %s: %s",
+                    registry.getFqcn(), e.getMessage()));
+        }
+    }
+
     @Override
     public SourceVersion getSupportedSourceVersion() {
         return SourceVersion.latestSupported();
@@ -174,6 +330,49 @@ public final class ShillelaghProcessor extends AbstractProcessor {
         return type.getQualifiedName().toString().substring(packageLen).replace('.', '$');
     }
 
+    /**
+     * Create the mapper of a @QueryResult class from its fields and those of its super types
+     */
+    private MapperObject createMapper(Element element) {
+        String classPackage = getPackageName(element);
+        String className = getClassName((TypeElement) element, classPackage)
+                + DatabaseHelper.$$MAPPER_SUFFIX;
+        MapperObject mapper = new MapperObject(element, classPackage, className, logger);
+
+        List<Element> fieldElements = Lists.newArrayList(element.getEnclosedElements());
+        for (TypeMirror typeMirror : typeUtils.directSupertypes(element.asType())) {
+            TypeElement typeElement = elementUtils.getTypeElement(typeMirror.toString());
+            fieldElements.addAll(typeElement.getEnclosedElements());
+        }
+
+        for (Element fieldElement : fieldElements) {
+            Field fieldAnnotation = fieldElement.getAnnotation(Field.class);
+            if (fieldAnnotation == null && fieldElement.getAnnotation(Id.class) == null) {
+                continue;
+            }
+            final Element typeElement = typeUtils.asElement(fieldElement.asType());
+            final String type = typeElement == null ? fieldElement.asType().toString()
+                    : elementUtils.getBinaryName((TypeElement) typeElement).toString();
+            TableColumn column = new TableColumn(fieldElement, type);
+            if (hasConverter(fieldElement)) {
+                if (checkForConverter(element, fieldElement, column)) {
+                    mapper.addColumn(column);
+                }
+                continue;
+            }
+            checkForEnum(fieldElement, column);
+            if (column.isBlob() && !column.isByteArray()) {
+                checkForBlobEncoding(element, fieldElement, column, fieldAnnotation);
+            } else if (column.isOneToMany() || column.getSqlType() == SqliteType.UNKNOWN) {
+                logger.e(String.format("%s in %s: query results can't have relationships, mark "
+                        + "it as a blob or select its columns into fields", fieldElement, element));
+                continue;
+            }
+            mapper.addColumn(column);
+        }
+        return mapper;
+    }
+
     /**
      * Check if the element has the @Id annotation if it does use that for it's id
      */
@@ -187,6 +386,51 @@ public final class ShillelaghProcessor extends AbstractProcessor {
             }
             // Id attribute set and continue
             tableObject.setIdColumnName(element.getSimpleName().toString());
+            tableObject.setIdStrategy(idAnnotation.strategy());
+        }
+    }
+
+    /**
+     * Check if the table class has @Index or @Indexes annotations and add their composite indexes
+     */
+    private void checkForIndexes(AdapterObject tableObject, Element element) {
+        List<Index> indexAnnotations = Lists.newArrayList();
+        Index indexAnnotation = element.getAnnotation(Index.class);
+        if (indexAnnotation != null) {
+            indexAnnotations.add(indexAnnotation);
+        }
+        Indexes indexesAnnotation = element.getAnnotation(Indexes.class);
+        if (indexesAnnotation != null) {
+            Collections.addAll(indexAnnotations, indexesAnnotation.value());
+        }
+
+        for (Index index : indexAnnotations) {
+            if (index.value().length == 0) {
+                logger.e(String.format("@Index on %s needs at least one column", element));
+                continue;
+            }
+            tableObject.addIndex(new TableIndex(index.name(), Arrays.asList(index.value()),
+                    index.unique(), index.where()));
+        }
+    }
+
+    /**
+     * Check if a field has @Index or @Unique and add its single column index
+     */
+    private void checkForFieldIndex(AdapterObject tableObject, Element columnElement) {
+        String columnName = columnElement.getSimpleName().toString();
+        Index index = columnElement.getAnnotation(Index.class);
+        if (index != null) {
+            if (index.value().length != 0) {
+                logger.e(String.format("@Index on field %s can't list columns, "
+                        + "put composite indexes on the class", columnElement));
+            }
+            tableObject.addIndex(new TableIndex(index.name(),
+                    Collections.singletonList(columnName), index.unique(), index.where()));
+        }
+        if (columnElement.getAnnotation(Unique.class) != null) {
+            tableObject.addIndex(new TableIndex("", Collections.singletonList(columnName), true,
+                    ""));
         }
     }
 
@@ -195,6 +439,11 @@ public final class ShillelaghProcessor extends AbstractProcessor {
      * add it to the table object
      */
     private void checkForFields(AdapterObject tableObject, Element columnElement) {
+        if (columnElement.getAnnotation(Embedded.class) != null) {
+            checkForEmbedded(tableObject, columnElement);
+            return;
+        }
+        checkForFieldIndex(tableObject, columnElement);
         Field fieldAnnotation = columnElement.getAnnotation(Field.class);
         if (fieldAnnotation == null) return;
 
@@ -204,13 +453,17 @@ public final class ShillelaghProcessor extends AbstractProcessor {
                 : elementUtils.getBinaryName((TypeElement) typeElement).toString();
 
         TableColumn tableColumn = new TableColumn(columnElement, type);
-        if (tableColumn.isBlob() && !tableColumn.isByteArray()) {
-            if (!checkForSuperType(columnElement, Serializable.class)
-                    && !columnElement.asType().toString().equals("java.lang.Byte[]")) {
-                logger.e(String.format(
-                        "%s in %s is not Serializable and will not be able to be converted to a byte array",
-                        columnElement.toString(), tableObject.getTableName()));
+        if (hasConverter(columnElement)) {
+            if (checkForConverter(tableObject.getOriginatingElement(), columnElement,
+                    tableColumn)) {
+                tableObject.addColumn(tableColumn);
             }
+            return;
+        }
+        checkForEnum(columnElement, tableColumn);
+        if (tableColumn.isBlob() && !tableColumn.isByteArray()) {
+            checkForBlobEncoding(tableObject.getOriginatingElement(), columnElement, tableColumn,
+                    fieldAnnotation);
         } else if (tableColumn.isOneToMany()) {
             // List<T> should only have one generic type. Get that type and make sure
             // it has @Table annotation
@@ -219,9 +472,7 @@ public final class ShillelaghProcessor extends AbstractProcessor {
                 logger.e("One to many relationship in class %s where %s is not annotated with @Table",
                         tableObject.getTableName(), tableColumn.getColumnName());
             }
-            oneToManyCache.put(typeMirror.toString(), tableObject);
-            TypeElement childColumnElement = elementUtils.getTypeElement(typeMirror.toString());
-            tableColumn.setType(getClassName(childColumnElement, getPackageName(childColumnElement)));
+            tableColumn.setType(typeMirror.toString());
         } else if (tableColumn.getSqlType() == SqliteType.UNKNOWN) {
             @SuppressWarnings("ConstantConditions")
             Table annotation = typeElement.getAnnotation(Table.class);
@@ -229,11 +480,280 @@ public final class ShillelaghProcessor extends AbstractProcessor {
                 logger.e(String.format("%s in %s needs to be marked as a blob or should be "
                         + "annotated with @Table", columnElement.toString(), tableObject.getTableName()));
             }
+            tableColumn.setType(columnElement.asType().toString());
             tableColumn.setOneToOne(true);
         }
         tableObject.addColumn(tableColumn);
     }
 
+    /**
+     * Flatten the @Field fields of an @Embedded value object into prefixed columns of the table
+     */
+    private void checkForEmbedded(AdapterObject tableObject, Element columnElement) {
+        String fieldName = columnElement.getSimpleName().toString();
+        Element typeElement = typeUtils.asElement(columnElement.asType());
+        if (typeElement == null || typeElement.getKind() != ElementKind.CLASS) {
+            logger.e(String.format("%s in %s is @Embedded but is not a class", fieldName,
+                    tableObject.getTableName()));
+            return;
+        }
+
+        boolean samePackage = getPackageName(typeElement).equals(
+                getPackageName(tableObject.getOriginatingElement()));
+        boolean hasEmptyConstructor = false;
+        String prefix = columnElement.getAnnotation(Embedded.class).prefix();
+        if (prefix.isEmpty()) {
+            prefix = fieldName + "_";
+        }
+        for (Element enclosedElement : typeElement.getEnclosedElements()) {
+            Set<Modifier> modifiers = enclosedElement.getModifiers();
+            if (enclosedElement.getKind() == ElementKind.CONSTRUCTOR) {
+                hasEmptyConstructor |= ((ExecutableElement) enclosedElement).getParameters()
+                        .isEmpty() && isAccessible(modifiers, samePackage);
+                continue;
+            }
+            Field fieldAnnotation = enclosedElement.getAnnotation(Field.class);
+            if (fieldAnnotation == null) {
+                if (enclosedElement.getAnnotation(Embedded.class) != null) {
+                    logger.e(String.format("%s in %s: embedded objects can't be nested",
+                            enclosedElement, typeElement));
+                }
+                continue;
+            }
+            if (!isAccessible(modifiers, samePackage) || modifiers.contains(Modifier.FINAL)) {
+                logger.e(String.format("%s in %s must be visible to the adapter of %s and "
+                        + "not final", enclosedElement, typeElement, tableObject.getTableName()));
+                continue;
+            }
+
+            Element fieldTypeElement = typeUtils.asElement(enclosedElement.asType());
+            String type = fieldTypeElement == null ? enclosedElement.asType().toString()
+                    : elementUtils.getBinaryName((TypeElement) fieldTypeElement).toString();
+            TableColumn column = new TableColumn(enclosedElement, type);
+            if (hasConverter(enclosedElement)) {
+                if (checkForConverter(typeElement, enclosedElement, column)) {
+                    column.setEmbedded(fieldName, columnElement.asType().toString(), prefix);
+                    tableObject.addColumn(column);
+                }
+                continue;
+            }
+            checkForEnum(enclosedElement, column);
+            if (column.isBlob() && !column.isByteArray()) {
+                checkForBlobEncoding(tableObject.getOriginatingElement(), enclosedElement, column,
+                        fieldAnnotation);
+            } else if (column.isOneToMany() || column.getSqlType() == SqliteType.UNKNOWN) {
+                logger.e(String.format("%s in %s: embedded objects can't have relationships, "
+                        + "mark it as a blob", enclosedElement, typeElement));
+                continue;
+            }
+            column.setEmbedded(fieldName, columnElement.asType().toString(), prefix);
+            tableObject.addColumn(column);
+        }
+
+        if (!hasEmptyConstructor) {
+            logger.e(String.format("%s needs an empty constructor visible to the adapter of %s",
+                    typeElement, tableObject.getTableName()));
+        }
+    }
+
+    /**
+     * Pick how a blob field is converted to bytes. A codec set on the field wins, then packed
+     * arrays, then a generated codec for value classes, Java serialization is the fallback.
+     */
+    private void checkForBlobEncoding(Element ownerElement, Element columnElement,
+                                      TableColumn tableColumn, Field fieldAnnotation) {
+        TypeMirror codecType = getCodecType(fieldAnnotation);
+        if (codecType != null) {
+            tableColumn.setBlobCodec(codecType.toString());
+            return;
+        }
+
+        // The column type of a list is erased, packed lists are told apart by their element type
+        String fieldType = columnElement.asType().toString();
+        if (BlobFunctions.isPacked(fieldType)) {
+            tableColumn.setType(fieldType);
+            return;
+        }
+
+        ValueClass valueClass = getValueClass(columnElement.asType(), getPackageName(ownerElement));
+        if (valueClass != null) {
+            tableColumn.setValueClass(valueClass);
+            return;
+        }
+
+        if (!checkForSuperType(columnElement, Serializable.class)) {
+            logger.e(String.format(
+                    "%s in %s is not Serializable and will not be able to be converted to a byte array",
+                    columnElement.toString(), ownerElement));
+        }
+    }
+
+    /**
+     * Tells if the field is stored through a converter, set with @Converter or built in for its
+     * type
+     */
+    private boolean hasConverter(Element columnElement) {
+        Field fieldAnnotation = columnElement.getAnnotation(Field.class);
+        return columnElement.getAnnotation(Converter.class) != null
+                || ((fieldAnnotation == null || !fieldAnnotation.isBlob())
+                && BuiltInConverters.getConverter(columnElement.asType().toString()) != null);
+    }
+
+    /**
+     * Store a field with a @Converter as the type its converter converts it to. Returns false if
+     * the converter can't be used for the field.
+     */
+    private boolean checkForConverter(Element ownerElement, Element columnElement,
+                                      TableColumn tableColumn) {
+        if (columnElement.getAnnotation(Converter.class) == null) {
+            String type = columnElement.asType().toString();
+            String storedType = BuiltInConverters.getStoredType(type);
+            tableColumn.setType(type);
+            tableColumn.setConverter(BuiltInConverters.getConverter(type), storedType,
+                    SqliteType.fromConvertedType(storedType));
+            if (BuiltInConverters.isScaled(type)) {
+                tableColumn.setConverterArguments(
+                        String.valueOf(columnElement.getAnnotation(Field.class).scale()));
+            }
+            return true;
+        }
+
+        TypeMirror converterType;
+        try {
+            columnElement.getAnnotation(Converter.class).value();
+            return false;
+        } catch (MirroredTypeException e) {
+            // Classes are not loaded while processing, the type is only available as a mirror
+            converterType = e.getTypeMirror();
+        }
+
+        DeclaredType converterInterface = getTypeConverter(converterType);
+        if (converterInterface == null || converterInterface.getTypeArguments().size() != 2) {
+            logger.e(String.format("%s in %s: %s must implement TypeConverter with its type "
+                    + "arguments", columnElement, ownerElement, converterType));
+            return false;
+        }
+        TypeMirror fieldType = columnElement.asType();
+        TypeMirror storedType = converterInterface.getTypeArguments().get(1);
+        SqliteType sqliteType = SqliteType.fromConvertedType(storedType.toString());
+        if (fieldType.getKind().isPrimitive()
+                || !typeUtils.isSameType(converterInterface.getTypeArguments().get(0), fieldType)) {
+            logger.e(String.format("%s in %s: %s does not convert %s", columnElement,
+                    ownerElement, converterType, fieldType));
+            return false;
+        } else if (sqliteType == null) {
+            logger.e(String.format("%s in %s: %s converts to %s, it must convert to Integer, "
+                    + "Long, Short, Double, Float, String or byte[]", columnElement, ownerElement,
+                    converterType, storedType));
+            return false;
+        }
+        tableColumn.setType(fieldType.toString());
+        tableColumn.setConverter(converterType.toString(), storedType.toString(), sqliteType);
+        return true;
+    }
+
+    /**
+     * Find the TypeConverter interface implemented by the type, null if it does not implement it
+     */
+    private DeclaredType getTypeConverter(TypeMirror type) {
+        for (TypeMirror superType : typeUtils.directSupertypes(type)) {
+            if (typeUtils.erasure(superType).toString().equals(TypeConverter.class.getName())) {
+                return (DeclaredType) superType;
+            }
+            DeclaredType converterInterface = getTypeConverter(superType);
+            if (converterInterface != null) {
+                return converterInterface;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Check if the field is an enum stored in an INTEGER column, enums marked as blobs are
+     * serialized like any other blob
+     */
+    private void checkForEnum(Element columnElement, TableColumn tableColumn) {
+        Element typeElement = typeUtils.asElement(columnElement.asType());
+        if (tableColumn.isBlob() || typeElement == null
+                || typeElement.getKind() != ElementKind.ENUM) {
+            return;
+        }
+        TypeMirror codedEnum = elementUtils.getTypeElement(CodedEnum.class.getName()).asType();
+        // Generated code refers to nested enums with their canonical name
+        tableColumn.setType(columnElement.asType().toString());
+        tableColumn.setEnum(true, typeUtils.isAssignable(columnElement.asType(), codedEnum));
+    }
+
+    /**
+     * Get the codec set with Field#codec, null if the default was kept
+     */
+    private TypeMirror getCodecType(Field fieldAnnotation) {
+        TypeMirror codecType;
+        try {
+            fieldAnnotation.codec();
+            return null;
+        } catch (MirroredTypeException e) {
+            // Classes are not loaded while processing, the type is only available as a mirror
+            codecType = e.getTypeMirror();
+        }
+        return BlobCodec.class.getName().equals(codecType.toString()) ? null : codecType;
+    }
+
+    /**
+     * Get the description of a value class that can be encoded field by field, null if the type
+     * is not a class with an accessible empty constructor whose instance fields are all
+     * accessible, mutable and of a type supported by {@link ValueClass}
+     */
+    private ValueClass getValueClass(TypeMirror typeMirror, String tablePackage) {
+        Element element = typeUtils.asElement(typeMirror);
+        if (element == null || element.getKind() != ElementKind.CLASS
+                || element.getAnnotation(Table.class) != null) {
+            return null;
+        }
+
+        TypeElement typeElement = (TypeElement) element;
+        Set<Modifier> classModifiers = typeElement.getModifiers();
+        boolean samePackage = getPackageName(typeElement).equals(tablePackage);
+        if (classModifiers.contains(Modifier.ABSTRACT)
+                || !isAccessible(classModifiers, samePackage)
+                || (typeElement.getNestingKind().isNested()
+                        && !classModifiers.contains(Modifier.STATIC))
+                || !typeElement.getTypeParameters().isEmpty()
+                || !Object.class.getName().equals(typeElement.getSuperclass().toString())) {
+            return null;
+        }
+
+        boolean hasEmptyConstructor = false;
+        ValueClass valueClass = new ValueClass(typeElement.getQualifiedName().toString());
+        for (Element enclosedElement : typeElement.getEnclosedElements()) {
+            Set<Modifier> modifiers = enclosedElement.getModifiers();
+            if (enclosedElement.getKind() == ElementKind.CONSTRUCTOR) {
+                if (((ExecutableElement) enclosedElement).getParameters().isEmpty()
+                        && isAccessible(modifiers, samePackage)) {
+                    hasEmptyConstructor = true;
+                }
+            } else if (enclosedElement.getKind() == ElementKind.FIELD
+                    && !modifiers.contains(Modifier.STATIC)
+                    && !modifiers.contains(Modifier.TRANSIENT)) {
+                String fieldType = enclosedElement.asType().toString();
+                if (!isAccessible(modifiers, samePackage) || modifiers.contains(Modifier.FINAL)
+                        || !ValueClass.isSupported(fieldType)) {
+                    return null;
+                }
+                valueClass.addField(enclosedElement.getSimpleName().toString(), fieldType);
+            }
+        }
+        return hasEmptyConstructor ? valueClass : null;
+    }
+
+    /**
+     * Tells if generated code in the table's package can access a member with these modifiers
+     */
+    private boolean isAccessible(Set<Modifier> modifiers, boolean samePackage) {
+        return modifiers.contains(Modifier.PUBLIC)
+                || (samePackage && !modifiers.contains(Modifier.PRIVATE));
+    }
+
     /**
      * Checks for a supertype returns true if element has a supertype
      */
@@ -24,6 +24,8 @@ import java.util.Date;
 import java.util.Set;
 
 import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 
@@ -85,6 +87,24 @@ enum SqliteType {
         return name();
     }
 
+    /**
+     * The type of a column holding the values a converter converts a field to, null if the
+     * converted type can't be stored
+     */
+    static SqliteType fromConvertedType(String type) {
+        if (type.equals("byte[]")) {
+            return BLOB;
+        } else if (type.equals(Integer.class.getName()) || type.equals(Long.class.getName())
+                || type.equals(Short.class.getName())) {
+            return INTEGER;
+        } else if (type.equals(Double.class.getName()) || type.equals(Float.class.getName())) {
+            return REAL;
+        } else if (type.equals(String.class.getName())) {
+            return TEXT;
+        }
+        return null;
+    }
+
     static SqliteType from(Element element) {
         if (element == null) {
             throw new NullPointerException("element must not be null");
@@ -95,12 +115,21 @@ enum SqliteType {
         }
 
         String typeString = element.asType().toString();
-        // TODO Arrays?
+        // Byte arrays, packed arrays and lists of numbers are blobs without being marked
+        if (typeString.equals("byte[]") || BlobFunctions.isPacked(typeString)) {
+            return BLOB;
+        }
         if (typeString.contains("java.util.List")) {
             return ONE_TO_MANY;
         }
 
         final TypeMirror typeMirror = element.asType();
+        // Enums are stored as their ordinal or code
+        if (typeMirror.getKind() == TypeKind.DECLARED
+                && ((DeclaredType) typeMirror).asElement().getKind() == ElementKind.ENUM) {
+            return INTEGER;
+        }
+
         for (SqliteType sqliteType : values()) {
             if (sqliteType.kinds.contains(typeMirror.getKind())
                     || sqliteType.objects.contains(typeMirror.toString())) {
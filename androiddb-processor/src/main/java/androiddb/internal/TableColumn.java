@@ -17,6 +17,8 @@
 package androiddb.internal;
 
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
 
 import javax.lang.model.element.Element;
 
@@ -26,15 +28,63 @@ import static androiddb.internal.SqliteType.INTEGER;
  * Represents the data for a column in a database and mapping it back to its java counter part
  */
 class TableColumn {
-    private final SqliteType sqliteType;
-    private final String columnName;
+    private static final Map<String, String> BOXED_TYPES = new HashMap<String, String>();
+
+    static {
+        BOXED_TYPES.put(boolean.class.getName(), Boolean.class.getName());
+        BOXED_TYPES.put(short.class.getName(), Short.class.getName());
+        BOXED_TYPES.put(int.class.getName(), Integer.class.getName());
+        BOXED_TYPES.put(long.class.getName(), Long.class.getName());
+        BOXED_TYPES.put(float.class.getName(), Float.class.getName());
+        BOXED_TYPES.put(double.class.getName(), Double.class.getName());
+    }
+
+    private SqliteType sqliteType;
+    private final String fieldName;
+    private String columnName;
     private String type;
 
+    /**
+     * Field of the target holding the value object this column is embedded from, null if the
+     * column is a field of the target itself
+     */
+    private String embeddedField;
+    private String embeddedType;
+
     /**
      * Indicates if column is a one to one mapping
      */
     private boolean oneToOne = false;
 
+    /**
+     * Fully qualified name of the BlobCodec set on the field, null if none
+     */
+    private String blobCodec;
+
+    /**
+     * Value class getting a generated codec, null if the blob is encoded another way
+     */
+    private ValueClass valueClass;
+
+    /**
+     * Table referenced by a one to one column
+     */
+    private AdapterObject reference;
+
+    /**
+     * Fully qualified name of the TypeConverter set on the field and the type it converts to, null
+     * if none
+     */
+    private String converter;
+    private String converterArguments = "";
+    private String storedType;
+
+    /**
+     * Indicates if column holds an enum, stored as its ordinal unless it is a CodedEnum
+     */
+    private boolean isEnum = false;
+    private boolean isCodedEnum = false;
+
     /**
      * Construct a table column from the element
      *
@@ -43,7 +93,8 @@ class TableColumn {
      *                Ex. "java.lang.Integer"
      */
     TableColumn(Element element, String type) {
-        this.columnName = element.getSimpleName().toString();
+        this.fieldName = element.getSimpleName().toString();
+        this.columnName = fieldName;
         this.sqliteType = SqliteType.from(element);
         this.type = type;
     }
@@ -56,6 +107,7 @@ class TableColumn {
      * @param sqliteType the sqlite type this column will be
      */
     TableColumn(String columnName, String type, SqliteType sqliteType) {
+        this.fieldName = columnName;
         this.columnName = columnName;
         this.type = type;
         this.sqliteType = sqliteType;
@@ -65,6 +117,31 @@ class TableColumn {
         return columnName;
     }
 
+    /**
+     * Java expression reading the field of this column from the target, relative to the target
+     */
+    String getFieldAccess() {
+        return embeddedField != null ? embeddedField + "." + fieldName : fieldName;
+    }
+
+    /**
+     * Mark the column as a field of the value object held by <b>embeddedField</b>, its name gets
+     * the prefix
+     */
+    void setEmbedded(String embeddedField, String embeddedType, String prefix) {
+        this.embeddedField = embeddedField;
+        this.embeddedType = embeddedType;
+        this.columnName = prefix + fieldName;
+    }
+
+    String getEmbeddedField() {
+        return embeddedField;
+    }
+
+    String getEmbeddedType() {
+        return embeddedType;
+    }
+
     SqliteType getSqlType() {
         return isOneToOne() ? INTEGER : sqliteType;
     }
@@ -89,6 +166,18 @@ class TableColumn {
         return typeString.equals(boolean.class.getName()) || typeString.equals(Boolean.class.getName());
     }
 
+    boolean isPrimitive() {
+        return !getType().contains(".") && !getType().endsWith("[]");
+    }
+
+    /**
+     * The type of the column with primitives boxed, for use as a type argument
+     */
+    String getBoxedType() {
+        String boxedType = BOXED_TYPES.get(getType());
+        return boxedType != null ? boxedType : getType();
+    }
+
     boolean isByteArray() {
         final String typeString = getType();
         return typeString.equals("byte[]");
@@ -114,6 +203,71 @@ class TableColumn {
         return oneToOne;
     }
 
+    void setEnum(boolean isEnum, boolean isCodedEnum) {
+        this.isEnum = isEnum;
+        this.isCodedEnum = isCodedEnum;
+    }
+
+    boolean isEnum() {
+        return isEnum;
+    }
+
+    boolean isCodedEnum() {
+        return isCodedEnum;
+    }
+
+    /**
+     * Store the field as <b>storedType</b>, converted with <b>converter</b>
+     */
+    void setConverter(String converter, String storedType, SqliteType sqliteType) {
+        this.converter = converter;
+        this.storedType = storedType;
+        this.sqliteType = sqliteType;
+    }
+
+    String getConverter() {
+        return converter;
+    }
+
+    /**
+     * Arguments of the constructor of the converter, as Java source
+     */
+    void setConverterArguments(String converterArguments) {
+        this.converterArguments = converterArguments;
+    }
+
+    String getConverterArguments() {
+        return converterArguments;
+    }
+
+    String getStoredType() {
+        return storedType;
+    }
+
+    void setBlobCodec(String blobCodec) {
+        this.blobCodec = blobCodec;
+    }
+
+    String getBlobCodec() {
+        return blobCodec;
+    }
+
+    void setValueClass(ValueClass valueClass) {
+        this.valueClass = valueClass;
+    }
+
+    ValueClass getValueClass() {
+        return valueClass;
+    }
+
+    void setReference(AdapterObject reference) {
+        this.reference = reference;
+    }
+
+    AdapterObject getReference() {
+        return reference;
+    }
+
     @Override
     public String toString() {
         return columnName + " " + getSqlType().toString();
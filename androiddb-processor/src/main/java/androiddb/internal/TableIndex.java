@@ -0,0 +1,77 @@
+/*
+ * Copyright 2014 Andrew Reitz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androiddb.internal;
+
+import com.google.common.base.Joiner;
+
+import java.util.List;
+
+/**
+ * An index created with its table
+ */
+class TableIndex {
+    private static final String CREATE_INDEX = "CREATE %sINDEX IF NOT EXISTS %s ON %s (%s)%s";
+
+    private final String name;
+    private final List<String> columns;
+    private final boolean unique;
+    private final String where;
+
+    /**
+     * @param name    Name of the index, the default name is used when empty
+     * @param columns Columns of the index, each may be followed by ASC or DESC
+     * @param unique  Tells if the index is unique
+     * @param where   Condition of a partial index, empty to index every row
+     */
+    TableIndex(String name, List<String> columns, boolean unique, String where) {
+        this.name = name;
+        this.columns = columns;
+        this.unique = unique;
+        this.where = where;
+    }
+
+    List<String> getColumns() {
+        return columns;
+    }
+
+    /**
+     * Get the name of the column without its sort order
+     */
+    static String getColumnName(String column) {
+        return column.trim().split("\\s+")[0];
+    }
+
+    /**
+     * Get the name of the index. Index names are shared by every table of the schema, custom
+     * names are prefixed with the table name like the default ones
+     */
+    String getName(String tableName) {
+        if (!name.isEmpty()) {
+            return tableName + '_' + name;
+        }
+        StringBuilder sb = new StringBuilder(tableName);
+        for (String column : columns) {
+            sb.append('_').append(getColumnName(column));
+        }
+        return sb.toString();
+    }
+
+    String getCreateStatement(String tableName) {
+        return String.format(CREATE_INDEX, unique ? "UNIQUE " : "", getName(tableName), tableName,
+                Joiner.on(", ").join(columns), where.isEmpty() ? "" : " WHERE " + where);
+    }
+}
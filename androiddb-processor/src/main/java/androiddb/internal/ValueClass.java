@@ -0,0 +1,145 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package androiddb.internal;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.squareup.javawriter.JavaWriter;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+import static javax.lang.model.element.Modifier.STATIC;
+
+/**
+ * A class without @Table whose fields are all simple values. Blob fields of such a class get a
+ * generated field-by-field codec instead of Java serialization. The codec writes the number of
+ * fields first: fields added at the end of the class read as their default in older rows, and
+ * fields removed from the end are skipped. Fields removed or reordered elsewhere can't be told
+ * apart.
+ */
+class ValueClass {
+
+    /**
+     * Maps supported field types to the suffix of the BlobWriter/BlobReader function for them
+     */
+    private static final Map<String, String> PRIMITIVES = ImmutableMap.<String, String>builder()
+            .put(boolean.class.getName(), "Boolean")
+            .put(byte.class.getName(), "Byte")
+            .put(short.class.getName(), "Short")
+            .put(char.class.getName(), "Char")
+            .put(int.class.getName(), "Int")
+            .put(long.class.getName(), "Long")
+            .put(float.class.getName(), "Float")
+            .put(double.class.getName(), "Double")
+            .put(String.class.getName(), "String")
+            .put("byte[]", "Bytes")
+            .build();
+    private static final Map<String, String> BOXED = ImmutableMap.<String, String>builder()
+            .put(Boolean.class.getName(), "Boolean")
+            .put(Byte.class.getName(), "Byte")
+            .put(Short.class.getName(), "Short")
+            .put(Character.class.getName(), "Char")
+            .put(Integer.class.getName(), "Int")
+            .put(Long.class.getName(), "Long")
+            .put(Float.class.getName(), "Float")
+            .put(Double.class.getName(), "Double")
+            .build();
+
+    private final String type;
+    private final List<String> fieldNames = Lists.newArrayList();
+    private final List<String> fieldTypes = Lists.newArrayList();
+
+    ValueClass(String type) {
+        this.type = type;
+    }
+
+    static boolean isSupported(String fieldType) {
+        return PRIMITIVES.containsKey(fieldType) || BOXED.containsKey(fieldType)
+                || Date.class.getName().equals(fieldType);
+    }
+
+    String getType() {
+        return type;
+    }
+
+    void addField(String name, String fieldType) {
+        fieldNames.add(name);
+        fieldTypes.add(fieldType);
+    }
+
+    /**
+     * Creates the encode and decode functions for this class, named after the given suffix
+     */
+    void emitCodec(JavaWriter javaWriter, String suffix) throws IOException {
+        javaWriter.beginMethod("byte[]", "encode" + suffix, EnumSet.of(STATIC), type, "value")
+                .beginControlFlow("if (value == null)")
+                .emitStatement("return null")
+                .endControlFlow()
+                .emitStatement("BlobWriter writer = new BlobWriter(32, %d)", fieldNames.size());
+        for (int i = 0; i < fieldNames.size(); i++) {
+            String field = "value." + fieldNames.get(i);
+            String fieldType = fieldTypes.get(i);
+            if (PRIMITIVES.containsKey(fieldType)) {
+                javaWriter.emitStatement("writer.write%s(%s)", PRIMITIVES.get(fieldType), field);
+            } else {
+                String write = Date.class.getName().equals(fieldType)
+                        ? String.format("writer.writeLong(%s.getTime())", field)
+                        : String.format("writer.write%s(%s)", BOXED.get(fieldType), field);
+                javaWriter.emitStatement("writer.writeBoolean(%s != null)", field)
+                        .beginControlFlow(String.format("if (%s != null)", field))
+                        .emitStatement(write)
+                        .endControlFlow();
+            }
+        }
+        javaWriter.emitStatement("return writer.toByteArray()")
+                .endMethod();
+
+        javaWriter.beginMethod(type, "decode" + suffix, EnumSet.of(STATIC), "byte[]", "bytes")
+                .beginControlFlow("if (bytes == null)")
+                .emitStatement("return null")
+                .nextControlFlow("else if (BlobCodecs.isSerialized(bytes))")
+                .emitSingleLineComment("Written with Java serialization by an earlier version")
+                .emitStatement("return BlobCodecs.deserialize(bytes)")
+                .endControlFlow()
+                .emitStatement("BlobReader reader = new BlobReader(bytes)")
+                .emitStatement("%1$s value = new %1$s()", type);
+        for (int i = 0; i < fieldNames.size(); i++) {
+            String field = "value." + fieldNames.get(i);
+            String fieldType = fieldTypes.get(i);
+            // Records written before trailing fields were added end early, the rest are defaults
+            javaWriter.beginControlFlow(String.format("if (!reader.hasField(%d))", i))
+                    .emitStatement("return value")
+                    .endControlFlow();
+            if (PRIMITIVES.containsKey(fieldType)) {
+                javaWriter.emitStatement("%s = reader.read%s()", field, PRIMITIVES.get(fieldType));
+            } else if (Date.class.getName().equals(fieldType)) {
+                javaWriter.emitStatement(
+                        "%s = reader.readBoolean() ? new Date(reader.readLong()) : null", field);
+            } else {
+                javaWriter.emitStatement(
+                        "%s = reader.readBoolean() ? %s.valueOf(reader.read%s()) : null",
+                        field, fieldType, BOXED.get(fieldType));
+            }
+        }
+        javaWriter.emitStatement("return value")
+                .endMethod();
+    }
+}
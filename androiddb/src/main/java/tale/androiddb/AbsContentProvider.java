@@ -70,6 +70,7 @@ public abstract class AbsContentProvider extends ContentProvider {
             final String tableName = uriMatched.getTableName();
             // Opens the database object in "write" mode.
             final SQLiteDatabase db = mSqliteOpenHelper.getWritableDatabase();
+            ChangeTracker.clear(db, tableName);
             if (id == UriMatched.UNKNOWN_ID) {
                 count = db.delete(tableName, where, whereArgs);
             } else {
@@ -170,6 +171,7 @@ public abstract class AbsContentProvider extends ContentProvider {
         final long id = uriMatched.getId();
         final String tableName = uriMatched.getTableName();
         int count;
+        ChangeTracker.clear(db, tableName);
         if (id == UriMatched.UNKNOWN_ID) {
             // Does the update and returns the number of rows updated.
             count = db.update(tableName, // The database table name.
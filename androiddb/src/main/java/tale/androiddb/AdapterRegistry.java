@@ -0,0 +1,35 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tale.androiddb;
+
+/**
+ * Knows every adapter generated for the {@link Table} classes of a compilation, and every mapper
+ * generated for its {@link QueryResult} classes. An implementation is generated by the Shillelagh
+ * processor and registered with {@link DatabaseHelper#addAdapterRegistry(AdapterRegistry)}.
+ */
+public interface AdapterRegistry {
+
+    /**
+     * Create a new instance of every adapter known to this registry.
+     */
+    TypeAdapter<?>[] createAdapters();
+
+    /**
+     * Create a new instance of every mapper generated for a {@link QueryResult} class.
+     */
+    CursorMapper<?>[] createMappers();
+}
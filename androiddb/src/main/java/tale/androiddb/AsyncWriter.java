@@ -0,0 +1,351 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tale.androiddb;
+
+import android.database.sqlite.SQLiteConstraintException;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Writes objects from any number of threads on a single writer thread. Operations queued while the
+ * writer is busy, or within <b>maxDelay</b> of the first one of a batch, are committed together in
+ * one transaction, so that many small writes share a commit:
+ * <pre>
+ * AsyncWriter writer = new AsyncWriter(helper);
+ * Future&lt;Long&gt; id = writer.insert(event);
+ * </pre>
+ * The futures complete once the transaction of their operation is committed. An operation that
+ * breaks a constraint, like an insert of a duplicate unique value, fails its own future only, the
+ * rest of the batch is still committed. Any other error, like a full disk, fails the commit and
+ * with it every future of the batch. When the writer thread itself fails the writer is closed and
+ * every queued future fails.
+ */
+public final class AsyncWriter implements Closeable {
+
+    /**
+     * The default time the first operation of a batch waits for others to be queued, in
+     * milliseconds.
+     */
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 10;
+
+    /**
+     * The default number of operations committed per transaction.
+     */
+    public static final int DEFAULT_MAX_BATCH_SIZE = 500;
+
+    private static final int INSERT = 0;
+    private static final int UPDATE = 1;
+    private static final int DELETE = 2;
+    private static final int CLOSE = 3;
+
+    private final SQLiteOpenHelper helper;
+    private final long maxDelayNanos;
+    private final int maxBatchSize;
+    private final BlockingQueue<Operation<?>> queue = new LinkedBlockingQueue<Operation<?>>();
+
+    private Thread writerThread;
+    private boolean closed;
+
+    public AsyncWriter(SQLiteOpenHelper helper) {
+        this(helper, DEFAULT_MAX_DELAY_MILLIS, TimeUnit.MILLISECONDS, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    /**
+     * @param helper       SQLiteOpenHelper object. Which will be used to open database
+     * @param maxDelay     How long the first operation of a batch waits for others to be queued
+     *                     before it is committed, 0 to only commit those already queued with it.
+     * @param unit         The unit of <b>maxDelay</b>.
+     * @param maxBatchSize The number of operations committed per transaction at most.
+     */
+    public AsyncWriter(SQLiteOpenHelper helper, long maxDelay, TimeUnit unit, int maxBatchSize) {
+        if (maxDelay < 0) {
+            throw new IllegalArgumentException("maxDelay must not be negative");
+        }
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be at least 1");
+        }
+        this.helper = helper;
+        this.maxDelayNanos = unit.toNanos(maxDelay);
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Queue the insert of an object.
+     *
+     * @return The id of the inserted object, once it is committed.
+     */
+    public Future<Long> insert(Object item) {
+        return enqueue(new Operation<Long>(INSERT, item));
+    }
+
+    /**
+     * Queue the update of the row of an object, found by its id.
+     *
+     * @return The number of rows updated, once they are committed.
+     * @see DatabaseHelper#update(SQLiteOpenHelper, Object)
+     */
+    public Future<Integer> update(Object item) {
+        return enqueue(new Operation<Integer>(UPDATE, item));
+    }
+
+    /**
+     * Queue the delete of the row of an object, found by its id.
+     *
+     * @return The number of rows deleted, once they are committed.
+     */
+    public Future<Integer> delete(Object item) {
+        return enqueue(new Operation<Integer>(DELETE, item));
+    }
+
+    private synchronized <T> Future<T> enqueue(Operation<T> operation) {
+        if (closed) {
+            throw new IllegalStateException("AsyncWriter is closed");
+        }
+        if (writerThread == null) {
+            writerThread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    runWriter();
+                }
+            }, "AsyncWriter");
+            writerThread.setDaemon(true);
+            writerThread.start();
+        }
+        queue.add(operation);
+        return operation;
+    }
+
+    /**
+     * Stop accepting operations. Those already queued are still written, the writer thread stops
+     * after them.
+     */
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            closed = true;
+            queue.add(new Operation<Void>(CLOSE, null));
+        }
+    }
+
+    private void runWriter() {
+        final List<Operation<?>> batch = new ArrayList<Operation<?>>();
+        boolean closing = false;
+        try {
+            while (!closing) {
+                final Operation<?> first = queue.take();
+                if (first.type == CLOSE) {
+                    return;
+                }
+                batch.add(first);
+                final long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < maxBatchSize) {
+                    final long remaining = deadline - System.nanoTime();
+                    final Operation<?> next = remaining > 0
+                            ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    if (next.type == CLOSE) {
+                        closing = true;
+                        break;
+                    }
+                    batch.add(next);
+                }
+                commit(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            fail(batch, new IllegalStateException("AsyncWriter was interrupted"));
+        } catch (Throwable e) {
+            // The writer stops, its futures must not wait for it
+            fail(batch, e);
+        }
+    }
+
+    /**
+     * Stop accepting operations and fail the batch and every queued operation.
+     */
+    private void fail(List<Operation<?>> batch, Throwable error) {
+        synchronized (this) {
+            closed = true;
+            queue.drainTo(batch);
+        }
+        for (Operation<?> operation : batch) {
+            operation.complete(error);
+        }
+    }
+
+    private void commit(final List<Operation<?>> batch) {
+        try {
+            DatabaseHelper.runInTransaction(helper, new Transaction.Work<Void>() {
+                @Override
+                public Void run(Transaction transaction) {
+                    write(transaction.getDatabase(), batch);
+                    return null;
+                }
+            });
+        } catch (RuntimeException e) {
+            for (Operation<?> operation : batch) {
+                operation.complete(e);
+            }
+            return;
+        }
+
+        for (Operation<?> operation : batch) {
+            operation.complete(null);
+        }
+    }
+
+    private static void write(SQLiteDatabase database, List<Operation<?>> batch) {
+        final Map<Class<?>, SQLiteStatement> inserts = new HashMap<Class<?>, SQLiteStatement>();
+        final Map<Class<?>, SQLiteStatement> deletes = new HashMap<Class<?>, SQLiteStatement>();
+        try {
+            for (Operation<?> operation : batch) {
+                // A statement breaking a constraint is aborted alone, the transaction goes on
+                // without it. Any other error, like a full disk, fails the whole batch
+                try {
+                    operation.result = write(database, operation, inserts, deletes);
+                } catch (SQLiteConstraintException e) {
+                    operation.error = e;
+                }
+            }
+        } finally {
+            for (SQLiteStatement statement : inserts.values()) {
+                statement.close();
+            }
+            for (SQLiteStatement statement : deletes.values()) {
+                statement.close();
+            }
+        }
+    }
+
+    private static Object write(final SQLiteDatabase database, final Operation<?> operation,
+                                Map<Class<?>, SQLiteStatement> inserts,
+                                Map<Class<?>, SQLiteStatement> deletes) {
+        final Class<?> clazz = operation.item.getClass();
+        final TypeAdapter<Object> adapter = DatabaseHelper.getAdapter(clazz);
+        switch (operation.type) {
+            case INSERT:
+                SQLiteStatement insert = inserts.get(clazz);
+                if (insert == null) {
+                    insert = database.compileStatement(adapter.getInsertStatement());
+                    inserts.put(clazz, insert);
+                }
+                if (!adapter.hasChildren()) {
+                    return DatabaseHelper.insertRow(database, adapter, insert, operation.item);
+                }
+                // A savepoint keeps a failed insert from leaving some of the children behind
+                final SQLiteStatement statement = insert;
+                return Transaction.run(database, new Transaction.Work<Long>() {
+                    @Override
+                    public Long run(Transaction transaction) {
+                        return DatabaseHelper.insertRow(database, adapter, statement,
+                                operation.item);
+                    }
+                });
+            case UPDATE:
+                return DatabaseHelper.update(database, adapter, operation.item);
+            default:
+                SQLiteStatement delete = deletes.get(clazz);
+                if (delete == null) {
+                    delete = database.compileStatement(DatabaseHelper.getDeleteStatement(adapter));
+                    deletes.put(clazz, delete);
+                }
+                return DatabaseHelper.deleteRow(database, adapter, delete, operation.item);
+        }
+    }
+
+    /**
+     * A queued operation and the future of its result, completed after its transaction ended
+     */
+    private static final class Operation<T> implements Future<T> {
+        final int type;
+        final Object item;
+        private final CountDownLatch done = new CountDownLatch(1);
+        // Written by the writer thread before the latch is released
+        Object result;
+        Throwable error;
+
+        Operation(int type, Object item) {
+            this.type = type;
+            this.item = item;
+        }
+
+        void complete(Throwable commitError) {
+            if (isDone()) {
+                return;
+            }
+            if (commitError != null) {
+                error = commitError;
+            }
+            done.countDown();
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            // Queued operations are written in order, they can not be taken back
+            return false;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public boolean isDone() {
+            return done.getCount() == 0;
+        }
+
+        @Override
+        public T get() throws InterruptedException, ExecutionException {
+            done.await();
+            return getResult();
+        }
+
+        @Override
+        public T get(long timeout, TimeUnit unit)
+                throws InterruptedException, ExecutionException, TimeoutException {
+            if (!done.await(timeout, unit)) {
+                throw new TimeoutException();
+            }
+            return getResult();
+        }
+
+        @SuppressWarnings("unchecked")
+        private T getResult() throws ExecutionException {
+            if (error != null) {
+                throw new ExecutionException(error);
+            }
+            return (T) result;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tale.androiddb;
+
+/**
+ * Converts the value of a blob field to and from the bytes stored in the database. Set it on a
+ * field with {@link Field#codec()}, the codec must have a public empty constructor.
+ *
+ * @param <T> The type of the field.
+ */
+public interface BlobCodec<T> {
+
+    /**
+     * Convert a value to the bytes stored in the database. Never called with null.
+     */
+    byte[] encode(T value);
+
+    /**
+     * Convert bytes read from the database back to a value. Never called with null.
+     */
+    T decode(byte[] bytes);
+}
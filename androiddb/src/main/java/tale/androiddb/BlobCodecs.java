@@ -0,0 +1,378 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tale.androiddb;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encoders used by generated adapters for blob fields. Arrays and lists of numbers are stored
+ * packed in little-endian order behind a one byte format header, which is never the first byte of
+ * a Java serialization stream, so rows written with {@link #serialize(Object)} by earlier versions
+ * are still decoded. A packed list has the same bytes as the array of its unboxed elements, it
+ * can't hold null elements. Every function returns null for a null argument.
+ */
+public final class BlobCodecs {
+
+    /**
+     * First byte of every blob in the compact format.
+     */
+    public static final byte FORMAT_COMPACT = 1;
+
+    /**
+     * First byte of a blob in the compact format that starts with the number of fields it holds.
+     */
+    public static final byte FORMAT_RECORD = 2;
+
+    /**
+     * First two bytes of a Java serialization stream.
+     */
+    private static final byte SERIALIZED_MAGIC_0 = (byte) 0xac;
+    private static final byte SERIALIZED_MAGIC_1 = (byte) 0xed;
+
+    /**
+     * Tells if the bytes were written by {@link #serialize(Object)}.
+     */
+    public static boolean isSerialized(byte[] bytes) {
+        return bytes.length > 1 && bytes[0] == SERIALIZED_MAGIC_0 && bytes[1] == SERIALIZED_MAGIC_1;
+    }
+
+    /**
+     * Fallback for blob fields that have no compact encoding, uses Java serialization.
+     */
+    public static byte[] serialize(Object object) {
+        if (object == null) {
+            return null;
+        }
+        try {
+            ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+            ObjectOutputStream objectOutputStream = new ObjectOutputStream(byteArrayOutputStream);
+            objectOutputStream.writeObject(object);
+            objectOutputStream.close();
+            return byteArrayOutputStream.toByteArray();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K> K deserialize(byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        try {
+            ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(bytes);
+            ObjectInputStream objectInputStream = new ObjectInputStream(byteArrayInputStream);
+            return (K) objectInputStream.readObject();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } catch (ClassNotFoundException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static <T> byte[] encode(BlobCodec<T> codec, T value) {
+        return value == null ? null : codec.encode(value);
+    }
+
+    public static <T> T decode(BlobCodec<T> codec, byte[] bytes) {
+        return bytes == null ? null : codec.decode(bytes);
+    }
+
+    public static byte[] encode(Byte[] value) {
+        if (value == null) {
+            return null;
+        }
+        final byte[] bytes = new byte[value.length + 1];
+        bytes[0] = FORMAT_COMPACT;
+        for (int i = 0; i < value.length; i++) {
+            bytes[i + 1] = value[i];
+        }
+        return bytes;
+    }
+
+    public static Byte[] decodeBoxedByteArray(byte[] bytes) {
+        if (bytes == null || isSerialized(bytes)) {
+            return deserialize(bytes);
+        }
+        final Byte[] value = new Byte[checkFormat(bytes, 1)];
+        for (int i = 0; i < value.length; i++) {
+            value[i] = bytes[i + 1];
+        }
+        return value;
+    }
+
+    public static byte[] encode(boolean[] value) {
+        if (value == null) {
+            return null;
+        }
+        final byte[] bytes = new byte[value.length + 1];
+        bytes[0] = FORMAT_COMPACT;
+        for (int i = 0; i < value.length; i++) {
+            bytes[i + 1] = value[i] ? (byte) 1 : (byte) 0;
+        }
+        return bytes;
+    }
+
+    public static boolean[] decodeBooleanArray(byte[] bytes) {
+        if (bytes == null || isSerialized(bytes)) {
+            return deserialize(bytes);
+        }
+        final boolean[] value = new boolean[checkFormat(bytes, 1)];
+        for (int i = 0; i < value.length; i++) {
+            value[i] = bytes[i + 1] != 0;
+        }
+        return value;
+    }
+
+    public static byte[] encode(short[] value) {
+        if (value == null) {
+            return null;
+        }
+        final ByteBuffer buffer = allocate(value.length * 2);
+        buffer.asShortBuffer().put(value);
+        return buffer.array();
+    }
+
+    public static short[] decodeShortArray(byte[] bytes) {
+        if (bytes == null || isSerialized(bytes)) {
+            return deserialize(bytes);
+        }
+        final short[] value = new short[checkFormat(bytes, 2)];
+        wrap(bytes).asShortBuffer().get(value);
+        return value;
+    }
+
+    public static byte[] encode(char[] value) {
+        if (value == null) {
+            return null;
+        }
+        final ByteBuffer buffer = allocate(value.length * 2);
+        buffer.asCharBuffer().put(value);
+        return buffer.array();
+    }
+
+    public static char[] decodeCharArray(byte[] bytes) {
+        if (bytes == null || isSerialized(bytes)) {
+            return deserialize(bytes);
+        }
+        final char[] value = new char[checkFormat(bytes, 2)];
+        wrap(bytes).asCharBuffer().get(value);
+        return value;
+    }
+
+    public static byte[] encode(int[] value) {
+        if (value == null) {
+            return null;
+        }
+        final ByteBuffer buffer = allocate(value.length * 4);
+        buffer.asIntBuffer().put(value);
+        return buffer.array();
+    }
+
+    public static int[] decodeIntArray(byte[] bytes) {
+        if (bytes == null || isSerialized(bytes)) {
+            return deserialize(bytes);
+        }
+        final int[] value = new int[checkFormat(bytes, 4)];
+        wrap(bytes).asIntBuffer().get(value);
+        return value;
+    }
+
+    public static byte[] encode(long[] value) {
+        if (value == null) {
+            return null;
+        }
+        final ByteBuffer buffer = allocate(value.length * 8);
+        buffer.asLongBuffer().put(value);
+        return buffer.array();
+    }
+
+    public static long[] decodeLongArray(byte[] bytes) {
+        if (bytes == null || isSerialized(bytes)) {
+            return deserialize(bytes);
+        }
+        final long[] value = new long[checkFormat(bytes, 8)];
+        wrap(bytes).asLongBuffer().get(value);
+        return value;
+    }
+
+    public static byte[] encode(float[] value) {
+        if (value == null) {
+            return null;
+        }
+        final ByteBuffer buffer = allocate(value.length * 4);
+        buffer.asFloatBuffer().put(value);
+        return buffer.array();
+    }
+
+    public static float[] decodeFloatArray(byte[] bytes) {
+        if (bytes == null || isSerialized(bytes)) {
+            return deserialize(bytes);
+        }
+        final float[] value = new float[checkFormat(bytes, 4)];
+        wrap(bytes).asFloatBuffer().get(value);
+        return value;
+    }
+
+    public static byte[] encode(double[] value) {
+        if (value == null) {
+            return null;
+        }
+        final ByteBuffer buffer = allocate(value.length * 8);
+        buffer.asDoubleBuffer().put(value);
+        return buffer.array();
+    }
+
+    public static double[] decodeDoubleArray(byte[] bytes) {
+        if (bytes == null || isSerialized(bytes)) {
+            return deserialize(bytes);
+        }
+        final double[] value = new double[checkFormat(bytes, 8)];
+        wrap(bytes).asDoubleBuffer().get(value);
+        return value;
+    }
+
+    public static byte[] encodeIntegerList(List<Integer> value) {
+        if (value == null) {
+            return null;
+        }
+        final ByteBuffer buffer = allocate(value.size() * 4);
+        for (Integer element : value) {
+            buffer.putInt(element);
+        }
+        return buffer.array();
+    }
+
+    public static List<Integer> decodeIntegerList(byte[] bytes) {
+        if (bytes == null || isSerialized(bytes)) {
+            return deserialize(bytes);
+        }
+        final int[] values = decodeIntArray(bytes);
+        final List<Integer> value = new ArrayList<Integer>(values.length);
+        for (int element : values) {
+            value.add(element);
+        }
+        return value;
+    }
+
+    public static byte[] encodeLongList(List<Long> value) {
+        if (value == null) {
+            return null;
+        }
+        final ByteBuffer buffer = allocate(value.size() * 8);
+        for (Long element : value) {
+            buffer.putLong(element);
+        }
+        return buffer.array();
+    }
+
+    public static List<Long> decodeLongList(byte[] bytes) {
+        if (bytes == null || isSerialized(bytes)) {
+            return deserialize(bytes);
+        }
+        final long[] values = decodeLongArray(bytes);
+        final List<Long> value = new ArrayList<Long>(values.length);
+        for (long element : values) {
+            value.add(element);
+        }
+        return value;
+    }
+
+    public static byte[] encodeFloatList(List<Float> value) {
+        if (value == null) {
+            return null;
+        }
+        final ByteBuffer buffer = allocate(value.size() * 4);
+        for (Float element : value) {
+            buffer.putFloat(element);
+        }
+        return buffer.array();
+    }
+
+    public static List<Float> decodeFloatList(byte[] bytes) {
+        if (bytes == null || isSerialized(bytes)) {
+            return deserialize(bytes);
+        }
+        final float[] values = decodeFloatArray(bytes);
+        final List<Float> value = new ArrayList<Float>(values.length);
+        for (float element : values) {
+            value.add(element);
+        }
+        return value;
+    }
+
+    public static byte[] encodeDoubleList(List<Double> value) {
+        if (value == null) {
+            return null;
+        }
+        final ByteBuffer buffer = allocate(value.size() * 8);
+        for (Double element : value) {
+            buffer.putDouble(element);
+        }
+        return buffer.array();
+    }
+
+    public static List<Double> decodeDoubleList(byte[] bytes) {
+        if (bytes == null || isSerialized(bytes)) {
+            return deserialize(bytes);
+        }
+        final double[] values = decodeDoubleArray(bytes);
+        final List<Double> value = new ArrayList<Double>(values.length);
+        for (double element : values) {
+            value.add(element);
+        }
+        return value;
+    }
+
+    /**
+     * Buffer for <b>length</b> bytes of payload, positioned after the format header
+     */
+    private static ByteBuffer allocate(int length) {
+        final ByteBuffer buffer = ByteBuffer.allocate(length + 1).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(FORMAT_COMPACT);
+        return buffer;
+    }
+
+    private static ByteBuffer wrap(byte[] bytes) {
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.position(1);
+        return buffer;
+    }
+
+    /**
+     * Checks the format header and returns the number of elements in the blob
+     */
+    private static int checkFormat(byte[] bytes, int elementSize) {
+        if (bytes.length == 0 || bytes[0] != FORMAT_COMPACT
+                || (bytes.length - 1) % elementSize != 0) {
+            throw new IllegalArgumentException("Not a compact blob");
+        }
+        return (bytes.length - 1) / elementSize;
+    }
+
+    private BlobCodecs() {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tale.androiddb;
+
+/**
+ * Reads values written by {@link BlobWriter}, in the order they were written.
+ */
+public final class BlobReader {
+
+    private final byte[] buffer;
+    private final int fieldCount;
+    private int position;
+
+    /**
+     * @param bytes Bytes created by {@link BlobWriter#toByteArray()}.
+     * @throws IllegalArgumentException if the bytes are not in the compact blob format.
+     */
+    public BlobReader(byte[] bytes) {
+        final byte format = bytes.length > 0 ? bytes[0] : 0;
+        if (format != BlobCodecs.FORMAT_COMPACT && format != BlobCodecs.FORMAT_RECORD) {
+            throw new IllegalArgumentException("Not a compact blob");
+        }
+        this.buffer = bytes;
+        this.position = 1;
+        // Blobs written without a count hold every field
+        this.fieldCount = format == BlobCodecs.FORMAT_RECORD
+                ? readShort() & 0xffff : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Tells if the record holds the field at <b>index</b>, fields added to the class after the
+     * record was written are missing and keep their default value.
+     */
+    public boolean hasField(int index) {
+        return index < fieldCount;
+    }
+
+    public boolean readBoolean() {
+        return readByte() != 0;
+    }
+
+    public byte readByte() {
+        return buffer[position++];
+    }
+
+    public short readShort() {
+        return (short) ((buffer[position++] & 0xff) | (buffer[position++] << 8));
+    }
+
+    public char readChar() {
+        return (char) readShort();
+    }
+
+    public int readInt() {
+        return (buffer[position++] & 0xff)
+                | (buffer[position++] & 0xff) << 8
+                | (buffer[position++] & 0xff) << 16
+                | buffer[position++] << 24;
+    }
+
+    public long readLong() {
+        return (readInt() & 0xffffffffL) | ((long) readInt() << 32);
+    }
+
+    public float readFloat() {
+        return Float.intBitsToFloat(readInt());
+    }
+
+    public double readDouble() {
+        return Double.longBitsToDouble(readLong());
+    }
+
+    public String readString() {
+        final int length = readInt();
+        if (length == -1) {
+            return null;
+        }
+        final String value = new String(buffer, position, length, BlobWriter.UTF_8);
+        position += length;
+        return value;
+    }
+
+    public byte[] readBytes() {
+        final int length = readInt();
+        if (length == -1) {
+            return null;
+        }
+        final byte[] value = new byte[length];
+        System.arraycopy(buffer, position, value, 0, length);
+        position += length;
+        return value;
+    }
+}
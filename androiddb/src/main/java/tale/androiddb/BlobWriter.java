@@ -0,0 +1,122 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tale.androiddb;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Writes values into the compact blob format read by {@link BlobReader}. Numbers are written in
+ * little-endian order, strings and byte arrays are prefixed with their length, -1 for null.
+ * Used by the field-by-field codecs generated for blob value classes.
+ */
+public final class BlobWriter {
+
+    static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private byte[] buffer;
+    private int position;
+
+    public BlobWriter() {
+        this(32);
+    }
+
+    public BlobWriter(int initialCapacity) {
+        buffer = new byte[Math.max(initialCapacity, 1)];
+        buffer[position++] = BlobCodecs.FORMAT_COMPACT;
+    }
+
+    /**
+     * Start a record of <b>fieldCount</b> fields. The count is written first so that the record
+     * can still be read after fields were added to or removed from the end of its class.
+     *
+     * @see BlobReader#hasField(int)
+     */
+    public BlobWriter(int initialCapacity, int fieldCount) {
+        buffer = new byte[Math.max(initialCapacity, 3)];
+        buffer[position++] = BlobCodecs.FORMAT_RECORD;
+        writeShort((short) fieldCount);
+    }
+
+    public void writeBoolean(boolean value) {
+        writeByte(value ? (byte) 1 : (byte) 0);
+    }
+
+    public void writeByte(byte value) {
+        ensureCapacity(1);
+        buffer[position++] = value;
+    }
+
+    public void writeShort(short value) {
+        ensureCapacity(2);
+        buffer[position++] = (byte) value;
+        buffer[position++] = (byte) (value >> 8);
+    }
+
+    public void writeChar(char value) {
+        writeShort((short) value);
+    }
+
+    public void writeInt(int value) {
+        ensureCapacity(4);
+        buffer[position++] = (byte) value;
+        buffer[position++] = (byte) (value >> 8);
+        buffer[position++] = (byte) (value >> 16);
+        buffer[position++] = (byte) (value >> 24);
+    }
+
+    public void writeLong(long value) {
+        writeInt((int) value);
+        writeInt((int) (value >> 32));
+    }
+
+    public void writeFloat(float value) {
+        writeInt(Float.floatToRawIntBits(value));
+    }
+
+    public void writeDouble(double value) {
+        writeLong(Double.doubleToRawLongBits(value));
+    }
+
+    public void writeString(String value) {
+        writeBytes(value == null ? null : value.getBytes(UTF_8));
+    }
+
+    public void writeBytes(byte[] value) {
+        if (value == null) {
+            writeInt(-1);
+            return;
+        }
+        writeInt(value.length);
+        ensureCapacity(value.length);
+        System.arraycopy(value, 0, buffer, position, value.length);
+        position += value.length;
+    }
+
+    /**
+     * The bytes written so far, including the format header.
+     */
+    public byte[] toByteArray() {
+        return position == buffer.length ? buffer : Arrays.copyOf(buffer, position);
+    }
+
+    private void ensureCapacity(int count) {
+        if (position + count > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + count));
+        }
+    }
+}
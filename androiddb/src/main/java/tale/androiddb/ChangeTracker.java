@@ -0,0 +1,305 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tale.androiddb;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteCursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.LruCache;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Remembers the stored values of the rows of a table in one database, keyed by id, so that an
+ * update only writes the columns that changed. Used by the generated adapters of tables marked
+ * with {@link Table#trackChanges()}.
+ * <p>
+ * Blobs are kept as a digest, not as a copy of their bytes. Only the most recently loaded rows
+ * are remembered, rows whose values were evicted are updated in full. Rows loaded or updated
+ * in a {@link Transaction} are forgotten when it is rolled back, rows loaded or updated in other
+ * transactions are not remembered at all.
+ */
+public final class ChangeTracker {
+
+    /**
+     * The number of rows remembered per table.
+     */
+    public static final int DEFAULT_MAX_ROWS = 256;
+
+    private static final int UNKNOWN = -1;
+
+    private static final Map<SQLiteDatabase, Map<String, ChangeTracker>> TRACKERS
+            = new WeakHashMap<SQLiteDatabase, Map<String, ChangeTracker>>();
+
+    private final String[] columns;
+    private final LruCache<Long, Row> snapshots;
+
+    ChangeTracker(String[] columns, int maxRows) {
+        this.columns = columns;
+        snapshots = new LruCache<Long, Row>(maxRows);
+    }
+
+    /**
+     * The tracker of a table in a database, created the first time it is asked for.
+     *
+     * @param columns The columns of the table, in the order of the column indexes passed to
+     *                {@link #snapshot(TypeAdapter, Cursor, int[], long)}.
+     */
+    public static ChangeTracker get(SQLiteDatabase database, String table, String[] columns) {
+        synchronized (TRACKERS) {
+            Map<String, ChangeTracker> trackers = TRACKERS.get(database);
+            if (trackers == null) {
+                trackers = new HashMap<String, ChangeTracker>();
+                TRACKERS.put(database, trackers);
+            }
+            ChangeTracker tracker = trackers.get(table);
+            if (tracker == null) {
+                tracker = new ChangeTracker(columns, DEFAULT_MAX_ROWS);
+                trackers.put(table, tracker);
+            }
+            return tracker;
+        }
+    }
+
+    /**
+     * Forget every row of a table changed without its objects, does nothing when the table is
+     * not tracked.
+     */
+    public static void clear(SQLiteDatabase database, String table) {
+        final ChangeTracker tracker;
+        synchronized (TRACKERS) {
+            final Map<String, ChangeTracker> trackers = TRACKERS.get(database);
+            tracker = trackers == null ? null : trackers.get(table);
+        }
+        if (tracker != null) {
+            tracker.clear();
+        }
+    }
+
+    /**
+     * Remember the row a target was just mapped from, called by the generated adapters. Nothing
+     * is remembered when the cursor does not come from a database.
+     */
+    public static void snapshot(TypeAdapter<?> adapter, Cursor cursor, int[] columnIndexes,
+                                long id) {
+        if (!(cursor instanceof SQLiteCursor)) {
+            return;
+        }
+        final SQLiteDatabase database = ((SQLiteCursor) cursor).getDatabase();
+        final ChangeTracker tracker = adapter.getChangeTracker(database);
+        if (tracker == null) {
+            return;
+        }
+        if (Transaction.track(database, tracker)) {
+            tracker.snapshot(id, cursor, columnIndexes);
+        } else {
+            tracker.forget(id);
+        }
+    }
+
+    /**
+     * Remember the values written to a row. The row is forgotten instead when the transaction it
+     * was written in can not be followed.
+     */
+    void snapshot(SQLiteDatabase database, long id, ContentValues values) {
+        if (!Transaction.track(database, this)) {
+            forget(id);
+            return;
+        }
+
+        final Row row = new Row(columns.length);
+        for (int i = 0; i < columns.length; i++) {
+            if (values.containsKey(columns[i])) {
+                row.set(i, values.get(columns[i]));
+            }
+        }
+        snapshots.put(id, row);
+    }
+
+    private void snapshot(long id, Cursor cursor, int[] columnIndexes) {
+        final Row row = new Row(columns.length);
+        for (int i = 0; i < columns.length; i++) {
+            final int index = columnIndexes[i];
+            if (index != -1) {
+                row.set(i, cursor, index);
+            }
+        }
+        snapshots.put(id, row);
+    }
+
+    /**
+     * The values that differ from the stored state of the row, all of them when the row is not
+     * remembered.
+     */
+    public ContentValues getChanges(long id, ContentValues values) {
+        final Row row = snapshots.get(id);
+        if (row == null) {
+            return values;
+        }
+
+        final ContentValues changes = new ContentValues(values);
+        for (int i = 0; i < columns.length; i++) {
+            if (values.containsKey(columns[i]) && row.isEqual(i, values.get(columns[i]))) {
+                changes.remove(columns[i]);
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Forget a row, called when it is deleted so that a row reusing its id starts untracked.
+     */
+    public void forget(long id) {
+        snapshots.remove(id);
+    }
+
+    /**
+     * Forget every row, the next update of each of them writes all its columns.
+     */
+    public void clear() {
+        snapshots.evictAll();
+    }
+
+    /**
+     * The storage type and value of each column of a row. Integers, floats and strings are kept
+     * exactly, blobs by their length and SHA-256 digest so that large blobs are not copied.
+     */
+    private static final class Row {
+        final int[] types;
+        // Integers, the bits of floats and the length of blobs
+        final long[] numbers;
+        // Strings and the digests of blobs
+        final Object[] values;
+
+        Row(int size) {
+            types = new int[size];
+            numbers = new long[size];
+            values = new Object[size];
+            for (int i = 0; i < size; i++) {
+                types[i] = UNKNOWN;
+            }
+        }
+
+        void set(int i, Cursor cursor, int index) {
+            final int type = cursor.getType(index);
+            switch (type) {
+                case Cursor.FIELD_TYPE_INTEGER:
+                    set(i, type, cursor.getLong(index), null);
+                    break;
+                case Cursor.FIELD_TYPE_FLOAT:
+                    set(i, type, Double.doubleToLongBits(cursor.getDouble(index)), null);
+                    break;
+                case Cursor.FIELD_TYPE_STRING:
+                    set(i, type, 0, cursor.getString(index));
+                    break;
+                case Cursor.FIELD_TYPE_BLOB:
+                    final byte[] blob = cursor.getBlob(index);
+                    set(i, type, blob.length, digest(blob));
+                    break;
+                default:
+                    set(i, type, 0, null);
+                    break;
+            }
+        }
+
+        void set(int i, Object value) {
+            final int type = typeOf(value);
+            switch (type) {
+                case Cursor.FIELD_TYPE_INTEGER:
+                case Cursor.FIELD_TYPE_FLOAT:
+                    set(i, type, numberOf(value), null);
+                    break;
+                case Cursor.FIELD_TYPE_STRING:
+                    set(i, type, 0, value.toString());
+                    break;
+                case Cursor.FIELD_TYPE_BLOB:
+                    set(i, type, ((byte[]) value).length, digest((byte[]) value));
+                    break;
+                default:
+                    set(i, type, 0, null);
+                    break;
+            }
+        }
+
+        private void set(int i, int type, long number, Object value) {
+            types[i] = type;
+            numbers[i] = number;
+            values[i] = value;
+        }
+
+        boolean isEqual(int i, Object value) {
+            final int type = typeOf(value);
+            if (types[i] == UNKNOWN || types[i] != type) {
+                return false;
+            }
+            switch (type) {
+                case Cursor.FIELD_TYPE_INTEGER:
+                case Cursor.FIELD_TYPE_FLOAT:
+                    return numbers[i] == numberOf(value);
+                case Cursor.FIELD_TYPE_STRING:
+                    return values[i].equals(value.toString());
+                case Cursor.FIELD_TYPE_BLOB:
+                    final byte[] blob = (byte[]) value;
+                    // The digest is only computed when the lengths match
+                    return numbers[i] == blob.length
+                            && Arrays.equals((byte[]) values[i], digest(blob));
+                default:
+                    return true;
+            }
+        }
+
+        /**
+         * The type SQLite stores a value of a ContentValues with
+         */
+        private static int typeOf(Object value) {
+            if (value == null) {
+                return Cursor.FIELD_TYPE_NULL;
+            } else if (value instanceof Float || value instanceof Double) {
+                return Cursor.FIELD_TYPE_FLOAT;
+            } else if (value instanceof Number || value instanceof Boolean) {
+                return Cursor.FIELD_TYPE_INTEGER;
+            } else if (value instanceof byte[]) {
+                return Cursor.FIELD_TYPE_BLOB;
+            }
+            return Cursor.FIELD_TYPE_STRING;
+        }
+
+        private static long numberOf(Object value) {
+            if (value instanceof Float || value instanceof Double) {
+                return Double.doubleToLongBits(((Number) value).doubleValue());
+            } else if (value instanceof Boolean) {
+                return (Boolean) value ? 1 : 0;
+            }
+            return ((Number) value).longValue();
+        }
+
+        private static byte[] digest(byte[] value) {
+            try {
+                return MessageDigest.getInstance("SHA-256").digest(value);
+            } catch (NoSuchAlgorithmException e) {
+                // Every Android release provides SHA-256
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tale.androiddb;
+
+/**
+ * Implemented by enums stored as a code of their choice instead of their ordinal, so that their
+ * constants can be reordered or removed without changing the stored values. Codes must be unique
+ * within the enum.
+ */
+public interface CodedEnum {
+
+    /**
+     * The value stored in the INTEGER column of fields of this enum.
+     */
+    int getCode();
+}
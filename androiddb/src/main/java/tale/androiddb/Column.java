@@ -0,0 +1,145 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tale.androiddb;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * A column of a {@link Table}, generated in the <code>_Columns</code> class of every table to
+ * build typed {@link Query} predicates. Values are bound as they are stored: dates as their time
+ * in milliseconds, booleans as 1 or 0 and fields with a {@link Converter} as their converted
+ * value.
+ *
+ * @param <V> The java type of the field mapped to the column.
+ */
+public final class Column<V> {
+
+    private final String name;
+    private final TypeConverter<V, ?> converter;
+
+    public Column(String name) {
+        this(name, null);
+    }
+
+    /**
+     * A column whose values are converted before being bound, for fields with a {@link Converter}.
+     */
+    public Column(String name, TypeConverter<V, ?> converter) {
+        this.name = name;
+        this.converter = converter;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Predicate eq(V value) {
+        return value == null ? isNull() : compare(" = ?", value);
+    }
+
+    public Predicate notEq(V value) {
+        return value == null ? isNotNull() : compare(" <> ?", value);
+    }
+
+    public Predicate lt(V value) {
+        return compare(" < ?", value);
+    }
+
+    public Predicate le(V value) {
+        return compare(" <= ?", value);
+    }
+
+    public Predicate gt(V value) {
+        return compare(" > ?", value);
+    }
+
+    public Predicate ge(V value) {
+        return compare(" >= ?", value);
+    }
+
+    public Predicate between(V from, V to) {
+        return new Predicate(name + " BETWEEN ? AND ?", new Object[]{toArg(from), toArg(to)});
+    }
+
+    /**
+     * Matches any of the values. Each value is a bind argument, the statement is shared by all
+     * the queries with the same number of values.
+     */
+    public Predicate in(Collection<? extends V> values) {
+        if (values.isEmpty()) {
+            // Nothing can match an empty list
+            return new Predicate("0", new Object[0]);
+        }
+        final StringBuilder sql = new StringBuilder(name).append(" IN (?");
+        for (int i = 1; i < values.size(); i++) {
+            sql.append(", ?");
+        }
+        final Object[] args = new Object[values.size()];
+        int i = 0;
+        for (V value : values) {
+            args[i++] = toArg(value);
+        }
+        return new Predicate(sql.append(')').toString(), args);
+    }
+
+    /**
+     * Matches any of the values, see {@link #in(Collection)}. Calls with values of a generic
+     * type, like those of a converted <code>List</code> field, create a generic array and get an
+     * unchecked warning, use {@link #in(Collection)} for them.
+     */
+    @SuppressWarnings("unchecked")
+    public Predicate in(V... values) {
+        return in(Arrays.asList(values));
+    }
+
+    public Predicate like(String pattern) {
+        return new Predicate(name + " LIKE ?", new Object[]{pattern});
+    }
+
+    public Predicate isNull() {
+        return new Predicate(name + " IS NULL", new Object[0]);
+    }
+
+    public Predicate isNotNull() {
+        return new Predicate(name + " IS NOT NULL", new Object[0]);
+    }
+
+    public Order asc() {
+        return new Order(name, false);
+    }
+
+    public Order desc() {
+        return new Order(name, true);
+    }
+
+    private Predicate compare(String operator, V value) {
+        return new Predicate(name + operator, new Object[]{toArg(value)});
+    }
+
+    /**
+     * The value as it is stored in the column
+     */
+    private Object toArg(V value) {
+        return converter != null && value != null ? converter.toColumn(value) : value;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
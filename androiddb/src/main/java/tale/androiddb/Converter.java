@@ -0,0 +1,38 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tale.androiddb;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.RetentionPolicy.CLASS;
+
+/**
+ * Stores a {@link Field} of any type in a column of the type its {@link TypeConverter} converts
+ * it to:
+ * <pre>
+ * &#64;Field &#64;Converter(MoneyConverter.class) Money price;
+ * </pre>
+ * The converter is resolved while compiling, the column can be compared in queries with values of
+ * the field type.
+ */
+@Retention(CLASS)
+@Target(FIELD)
+public @interface Converter {
+    Class<? extends TypeConverter<?, ?>> value();
+}
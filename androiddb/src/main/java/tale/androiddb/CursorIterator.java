@@ -0,0 +1,116 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tale.androiddb;
+
+import android.database.Cursor;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Maps the rows of a cursor while walking it instead of loading them all in a list. Rows are
+ * mapped {@value #BATCH_SIZE} at a time so that the one to many children of a batch are loaded
+ * together, at most one batch of objects is held. The cursor is closed once the last row was
+ * read, close the iterator when stopping before.
+ * <p/>
+ * An iterator can only be walked once, {@link #iterator()} returns itself.
+ */
+public final class CursorIterator<T> implements Iterator<T>, Iterable<T>, Closeable {
+
+    /**
+     * Number of rows mapped before their relationships are loaded
+     */
+    static final int BATCH_SIZE = 500;
+
+    private final Cursor cursor;
+    private final CursorMapper<T> mapper;
+    private final RowMapper<T> rowMapper;
+    private final List<T> batch = new ArrayList<T>();
+    private final List<T> mapped = new ArrayList<T>();
+    private int position;
+    private boolean exhausted;
+
+    CursorIterator(Cursor cursor, CursorMapper<T> mapper) {
+        this.cursor = cursor;
+        this.mapper = mapper;
+        this.rowMapper = new RowMapper<T>(cursor, mapper);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (position < batch.size()) {
+            return true;
+        }
+        if (exhausted) {
+            return false;
+        }
+        readBatch();
+        return position < batch.size();
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final T item = batch.get(position);
+        // Don't hold the objects already handed out
+        batch.set(position++, null);
+        return item;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("Rows can't be removed from a cursor");
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return this;
+    }
+
+    /**
+     * Close the cursor, the remaining rows are not read.
+     */
+    @Override
+    public void close() {
+        exhausted = true;
+        batch.clear();
+        position = 0;
+        cursor.close();
+    }
+
+    private void readBatch() {
+        batch.clear();
+        position = 0;
+        while (batch.size() < BATCH_SIZE && cursor.moveToNext()) {
+            batch.add(rowMapper.map(mapped));
+        }
+        if (!mapped.isEmpty()) {
+            DatabaseHelper.loadRelations(cursor, mapper, mapped);
+            mapped.clear();
+        }
+        if (batch.size() < BATCH_SIZE) {
+            // The last row was read, the objects of the batch are still to be handed out
+            exhausted = true;
+            cursor.close();
+        }
+    }
+}
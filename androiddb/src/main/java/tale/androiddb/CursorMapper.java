@@ -0,0 +1,47 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tale.androiddb;
+
+import android.database.Cursor;
+
+/**
+ * Maps the rows of a cursor onto objects. Generated for {@link QueryResult} classes, the
+ * {@link TypeAdapter} of a {@link Table} class is a mapper too.
+ */
+public interface CursorMapper<T> {
+
+    /**
+     * The class this mapper creates.
+     */
+    Class<T> getTargetClass();
+
+    T newObject();
+
+    /**
+     * Resolve the position of every mapped column in the cursor. The result only depends on the
+     * cursor's projection, so it can be computed once and reused for every row of the cursor.
+     * Columns missing from the projection are reported as -1.
+     */
+    int[] getColumnIndexes(Cursor cursor);
+
+    /**
+     * Map the current row of the cursor onto the target using column positions previously
+     * resolved by {@link #getColumnIndexes(Cursor)}. Columns missing from the projection are
+     * left untouched.
+     */
+    void map(Cursor cursor, int[] columnIndexes, T target);
+}
@@ -18,24 +18,60 @@ package tale.androiddb;
 
 import android.content.ContentValues;
 import android.database.Cursor;
+import android.database.CursorWrapper;
+import android.database.SQLException;
+import android.database.sqlite.SQLiteCursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
 import android.net.Uri;
 import android.text.TextUtils;
+import android.util.Log;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
-import java.util.Hashtable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public final class DatabaseHelper {
 
-    private static final Map<Class, TypeAdapter> ADAPTER_MAP = new Hashtable<Class, TypeAdapter>();
+    private static final String TAG = "DatabaseHelper";
+
+    /**
+     * Number of parent ids bound to a single IN (...) when loading children, SQLite refuses
+     * statements with more than 999 arguments
+     */
+    private static final int MAX_PARENT_IDS_PER_QUERY = 500;
+
+    /**
+     * Adapters and mappers by class. They are only written when a registry is added, lookups
+     * don't lock.
+     */
+    private static final ConcurrentHashMap<Class<?>, TypeAdapter<?>> ADAPTER_MAP
+            = new ConcurrentHashMap<Class<?>, TypeAdapter<?>>();
+    private static final ConcurrentHashMap<Class<?>, CursorMapper<?>> MAPPER_MAP
+            = new ConcurrentHashMap<Class<?>, CursorMapper<?>>();
     public static final String $$SUFFIX = "_Adapter";
-    private static List<TypeAdapter> mAdapters;
-    private static String mAuthority;
+    public static final String $$MAPPER_SUFFIX = "_Mapper";
+    public static final String $$COLUMNS_SUFFIX = "_Columns";
+    /**
+     * Name of the {@link AdapterRegistry} generated by the processor, unless it was given another
+     * name with the shillelagh.registry processor option.
+     */
+    public static final String $$REGISTRY = "tale.androiddb.ShillelaghAdapterRegistry";
+    private static final TypeAdapter<?>[] NO_ADAPTERS = new TypeAdapter<?>[0];
+
+    /**
+     * Every registered adapter, replaced by a new array when a registry is added so that matching
+     * a uri does not copy the adapters
+     */
+    private static volatile TypeAdapter<?>[] mAdapters = NO_ADAPTERS;
+    private static volatile String mAuthority;
+    private static volatile boolean mDefaultRegistryLoaded;
 
     /**
      * Set authority for ContentProvider. <NOTE>This method need to be called at first of all if
@@ -43,20 +79,85 @@ public final class DatabaseHelper {
      *
      * @param authority authority value.
      */
-    static void setAuthority(String authority) {
+    static synchronized void setAuthority(String authority) {
         mAuthority = authority;
+        if (!TextUtils.isEmpty(authority)) {
+            for (TypeAdapter<?> adapter : ADAPTER_MAP.values()) {
+                adapter.initUriMatcher(authority);
+            }
+        }
     }
 
-    public static void createTable(SQLiteDatabase db, Class clazz) {
-        final TypeAdapter adapter = getAdapter(clazz);
+    /**
+     * Register every adapter of a generated registry. Registering the registry up front, for
+     * example in Application#onCreate, avoids any reflection when looking up adapters:
+     * <pre>
+     * DatabaseHelper.addAdapterRegistry(new ShillelaghAdapterRegistry());
+     * </pre>
+     * Modules compiled separately each generate their own registry, give them distinct names
+     * with the shillelagh.registry processor option and register each of them.
+     *
+     * @param registry The registry generated by the processor.
+     */
+    public static synchronized void addAdapterRegistry(AdapterRegistry registry) {
+        for (TypeAdapter<?> adapter : registry.createAdapters()) {
+            if (!TextUtils.isEmpty(mAuthority)) {
+                adapter.initUriMatcher(mAuthority);
+            }
+            // An adapter already handed out is kept, every lookup sees the same instance
+            ADAPTER_MAP.putIfAbsent(adapter.getTargetClass(), adapter);
+        }
+        for (CursorMapper<?> mapper : registry.createMappers()) {
+            MAPPER_MAP.putIfAbsent(mapper.getTargetClass(), mapper);
+        }
+        mAdapters = ADAPTER_MAP.values().toArray(NO_ADAPTERS);
+        // Set last, lookups that see it don't wait for the default registry
+        if ($$REGISTRY.equals(registry.getClass().getName())) {
+            mDefaultRegistryLoaded = true;
+        }
+    }
+
+    /**
+     * Load the default registry if it was not registered and create every adapter now, instead
+     * of on the first query. Call it once when the application starts, for example from a
+     * background thread in Application#onCreate, after registering the registries of other
+     * modules. Looking up an adapter afterwards never locks or allocates.
+     */
+    public static void warmUp() {
+        loadDefaultRegistry();
+    }
+
+    /**
+     * Execute the sql statements creating the table and its indexes.
+     *
+     * @param db    SQLiteDatabase object which will execute sql.
+     * @param clazz The class map to the table.
+     */
+    public static void createTable(SQLiteDatabase db, Class<?> clazz) {
+        final TypeAdapter<?> adapter = getAdapter(clazz);
         db.execSQL(adapter.getCreateStatement());
+        for (String indexStatement : adapter.getIndexStatements()) {
+            db.execSQL(indexStatement);
+        }
+    }
+
+    /**
+     * Bring the table to the schema of its class without losing its rows, creating it if it does
+     * not exist. New columns are added with ALTER TABLE and new indexes are created. When a column
+     * changed type or was removed, or the id changed, the table is created again and the rows of
+     * the columns it keeps are copied. Call it from
+     * {@link SQLiteOpenHelper#onUpgrade(SQLiteDatabase, int, int)} for every table.
+     *
+     * @param db    SQLiteDatabase object which will execute sql.
+     * @param clazz The class map to the table.
+     */
+    public static void migrateTable(SQLiteDatabase db, Class<?> clazz) {
+        new TableMigration(db, getAdapter(clazz)).migrate();
     }
 
     static UriMatched scanUri(Uri uri) {
-        if (mAdapters == null) {
-            mAdapters = getAdapters();
-        }
-        for (TypeAdapter typeAdapter : getAdapters()) {
+        loadDefaultRegistry();
+        for (TypeAdapter<?> typeAdapter : mAdapters) {
             final UriMatched uriMatched = typeAdapter.checkMatched(uri);
             if (uriMatched != null) {
                 return uriMatched;
@@ -65,54 +166,288 @@ public final class DatabaseHelper {
         return null;
     }
 
-    private static List<TypeAdapter> getAdapters() {
-        if (ADAPTER_MAP == null || ADAPTER_MAP.size() == 0) {
-            return null;
-        }
-        final List<TypeAdapter> adapters = new ArrayList<TypeAdapter>(ADAPTER_MAP.size());
-        for (Class clazz : ADAPTER_MAP.keySet()) {
-            final TypeAdapter typeAdapter = ADAPTER_MAP.get(clazz);
-            adapters.add(typeAdapter);
-        }
-        return adapters;
-    }
-
     /**
      * Execute a sql statement to drop the exists table.
      *
      * @param db    SQLiteDatabase object which will execute sql.
      * @param clazz The class map to the table.
      */
-    public static void dropTable(SQLiteDatabase db, Class clazz) {
-        final TypeAdapter adapter = getAdapter(clazz);
+    public static void dropTable(SQLiteDatabase db, Class<?> clazz) {
+        final TypeAdapter<?> adapter = getAdapter(clazz);
         db.execSQL(String.format("DROP TABLE IF EXISTS %s", adapter.getTableName()));
     }
 
     /**
-     * Insert a object into database.
+     * Insert a object into database, with the children of its one to many relationships.
      *
      * @param helper SQLiteOpenHelper object. Which will be used to open database
      * @param item   The object to be insert.
      * @return The id of the inserted object.
      */
-    public static long insert(SQLiteOpenHelper helper, Object item) {
+    public static long insert(SQLiteOpenHelper helper, final Object item) {
         final SQLiteDatabase database = helper.getWritableDatabase();
-        final TypeAdapter adapter = getAdapter(item.getClass());
-        return database.insert(adapter.getTableName(), null, adapter.asContentValues(item));
+        final TypeAdapter<Object> adapter = getAdapter(item.getClass());
+        // Values are bound straight to the compiled statement, skipping ContentValues. The sql
+        // is constant so the connection's prepared statement cache is hit after the first insert
+        final SQLiteStatement statement = database.compileStatement(adapter.getInsertStatement());
+        try {
+            if (!adapter.hasChildren()) {
+                return insertRow(database, adapter, statement, item);
+            }
+            // The children are inserted with their parent or not at all
+            return Transaction.run(database, new Transaction.Work<Long>() {
+                @Override
+                public Long run(Transaction transaction) {
+                    return insertRow(database, adapter, statement, item);
+                }
+            });
+        } catch (SQLException e) {
+            // Same contract as SQLiteDatabase#insert, failures are logged and reported as -1
+            Log.e(TAG, "Error inserting " + item, e);
+            return -1;
+        } finally {
+            statement.close();
+        }
+    }
+
+    /**
+     * Insert every object of the collection in a single transaction.
+     *
+     * @param helper SQLiteOpenHelper object. Which will be used to open database
+     * @param items  The objects to be insert.
+     * @return The ids of the inserted objects, in the order of the collection.
+     * @see #insertAll(SQLiteOpenHelper, Iterator, int)
+     */
+    public static long[] insertAll(SQLiteOpenHelper helper, Iterable<?> items) {
+        return insertAll(helper, items, 0);
+    }
+
+    /**
+     * Insert every object of the collection, committing a transaction every <b>chunkSize</b>
+     * objects.
+     *
+     * @param helper    SQLiteOpenHelper object. Which will be used to open database
+     * @param items     The objects to be insert.
+     * @param chunkSize The number of objects inserted per transaction, 0 to insert every object
+     *                  in a single transaction.
+     * @return The ids of the inserted objects, in the order of the collection.
+     * @see #insertAll(SQLiteOpenHelper, Iterator, int)
+     */
+    public static long[] insertAll(SQLiteOpenHelper helper, Iterable<?> items, int chunkSize) {
+        final int expectedSize = items instanceof Collection ? ((Collection) items).size() : 0;
+        return insertAll(helper, items.iterator(), chunkSize, expectedSize);
+    }
+
+    /**
+     * Insert every object of the iterator in a single transaction.
+     *
+     * @param helper SQLiteOpenHelper object. Which will be used to open database
+     * @param items  The objects to be insert.
+     * @return The ids of the inserted objects, in the order of the iterator.
+     * @see #insertAll(SQLiteOpenHelper, Iterator, int)
+     */
+    public static long[] insertAll(SQLiteOpenHelper helper, Iterator<?> items) {
+        return insertAll(helper, items, 0);
+    }
+
+    /**
+     * Insert every object of the iterator, committing a transaction every <b>chunkSize</b>
+     * objects. One insert statement is compiled per table and reused for every object of that
+     * table. If an insert fails the exception is thrown and the current chunk is rolled back,
+     * chunks committed before it are kept.
+     *
+     * @param helper    SQLiteOpenHelper object. Which will be used to open database
+     * @param items     The objects to be insert.
+     * @param chunkSize The number of objects inserted per transaction, 0 to insert every object
+     *                  in a single transaction.
+     * @return The ids of the inserted objects, in the order of the iterator.
+     */
+    public static long[] insertAll(SQLiteOpenHelper helper, Iterator<?> items, int chunkSize) {
+        return insertAll(helper, items, chunkSize, 0);
+    }
+
+    private static long[] insertAll(SQLiteOpenHelper helper, Iterator<?> items, int chunkSize,
+                                    int expectedSize) {
+        if (chunkSize < 0) {
+            throw new IllegalArgumentException("chunkSize must not be negative");
+        }
+
+        final SQLiteDatabase database = helper.getWritableDatabase();
+        final Map<Class<?>, SQLiteStatement> statements = new HashMap<Class<?>, SQLiteStatement>();
+        long[] ids = new long[expectedSize > 0 ? expectedSize : 16];
+        int count = 0;
+
+        Class<?> lastClass = null;
+        TypeAdapter<Object> adapter = null;
+        SQLiteStatement statement = null;
+        database.beginTransaction();
+        try {
+            while (items.hasNext()) {
+                final Object item = items.next();
+                if (item.getClass() != lastClass) {
+                    lastClass = item.getClass();
+                    adapter = getAdapter(lastClass);
+                    statement = statements.get(lastClass);
+                    if (statement == null) {
+                        statement = database.compileStatement(adapter.getInsertStatement());
+                        statements.put(lastClass, statement);
+                    }
+                }
+
+                if (count == ids.length) {
+                    ids = Arrays.copyOf(ids, count * 2);
+                }
+                ids[count++] = insertRow(database, adapter, statement, item);
+
+                if (chunkSize > 0 && count % chunkSize == 0 && items.hasNext()) {
+                    database.setTransactionSuccessful();
+                    database.endTransaction();
+                    database.beginTransaction();
+                }
+            }
+            database.setTransactionSuccessful();
+        } finally {
+            database.endTransaction();
+            for (SQLiteStatement compiledStatement : statements.values()) {
+                compiledStatement.close();
+            }
+        }
+        return count == ids.length ? ids : Arrays.copyOf(ids, count);
+    }
+
+    /**
+     * Bind the item to an insert statement of its table, execute it, set the id of the item and
+     * insert the one to many children of the item. Objects inserted later can then refer to it.
+     *
+     * @return The id of the inserted row.
+     */
+    static long insertRow(SQLiteDatabase database, TypeAdapter<Object> adapter,
+                          SQLiteStatement statement, Object item) {
+        adapter.bindInsert(statement, item);
+        final long rowId = statement.executeInsert();
+        // The last inserted rowid is not set by WITHOUT ROWID tables, their ids are given
+        final long id = adapter.isWithoutRowId() && rowId != -1 ? adapter.getId(item) : rowId;
+        if (id != -1) {
+            adapter.setId(item, id);
+        }
+        if (adapter.hasChildren()) {
+            adapter.insertChildren(database, item, id);
+        }
+        return id;
+    }
+
+    /**
+     * Insert the children of a one to many relationship with the id of their parent. Used by the
+     * generated adapters when their objects are inserted.
+     */
+    public static void insertChildren(SQLiteDatabase database, Class<?> childClass,
+                                      String parentColumn, long parentId, List<?> children) {
+        if (children.isEmpty()) {
+            return;
+        }
+
+        final TypeAdapter<Object> adapter = getAdapter(childClass);
+        final SQLiteStatement statement =
+                database.compileStatement(adapter.getInsertStatement(parentColumn));
+        try {
+            for (Object child : children) {
+                adapter.bindInsert(statement, child, parentId);
+                final long rowId = statement.executeInsert();
+                final long id = adapter.isWithoutRowId() ? adapter.getId(child) : rowId;
+                adapter.setId(child, id);
+                if (adapter.hasChildren()) {
+                    adapter.insertChildren(database, child, id);
+                }
+            }
+        } finally {
+            statement.close();
+        }
     }
 
     public static int update(SQLiteOpenHelper helper, Class<?> clazz, ContentValues values, String whereClause, String... whereArgs) {
         final SQLiteDatabase database = helper.getWritableDatabase();
-        final TypeAdapter adapter = getAdapter(clazz);
+        final TypeAdapter<?> adapter = getAdapter(clazz);
+        // The changed rows are unknown, their remembered values can not be trusted anymore
+        ChangeTracker.clear(database, adapter.getTableName());
         return database.update(adapter.getTableName(), values, whereClause, whereArgs);
     }
 
+    /**
+     * Update the row of an object, found by its id. When its table tracks changes and the object
+     * was loaded from the database only the columns changed since are written, otherwise every
+     * column is.
+     *
+     * @param helper SQLiteOpenHelper object. Which will be used to open database
+     * @param item   The object to be updated.
+     * @return The number of rows updated, 0 when nothing changed.
+     * @see Table#trackChanges()
+     */
+    public static int update(SQLiteOpenHelper helper, Object item) {
+        return update(helper.getWritableDatabase(), getAdapter(item.getClass()), item);
+    }
+
+    static int update(SQLiteDatabase database, TypeAdapter<Object> adapter, Object item) {
+        final ContentValues values = adapter.asContentValues(item);
+        final long id = adapter.getId(item);
+        final ChangeTracker tracker = adapter.getChangeTracker(database);
+        final ContentValues changes = tracker == null ? values : tracker.getChanges(id, values);
+        if (changes.size() == 0) {
+            return 0;
+        }
+
+        final int rows = database.update(adapter.getTableName(), changes,
+                adapter.getIdColumnName() + " = ?", new String[]{String.valueOf(id)});
+        if (rows > 0 && tracker != null) {
+            tracker.snapshot(database, id, values);
+        }
+        return rows;
+    }
+
     public static int delete(SQLiteOpenHelper helper, Class<?> clazz, String whereClause, String... whereArgs) {
         final SQLiteDatabase database = helper.getWritableDatabase();
-        final TypeAdapter adapter = getAdapter(clazz);
+        final TypeAdapter<?> adapter = getAdapter(clazz);
+        // A row inserted later may reuse the id of a deleted one
+        ChangeTracker.clear(database, adapter.getTableName());
         return database.delete(adapter.getTableName(), whereClause, whereArgs);
     }
 
+    /**
+     * Delete the row of an item by its id, with a statement compiled from
+     * {@link #getDeleteStatement(TypeAdapter)}.
+     *
+     * @return The number of rows deleted.
+     */
+    static int deleteRow(SQLiteDatabase database, TypeAdapter<Object> adapter,
+                         SQLiteStatement statement, Object item) {
+        final long id = adapter.getId(item);
+        statement.bindLong(1, id);
+        final int rows = statement.executeUpdateDelete();
+        final ChangeTracker tracker = adapter.getChangeTracker(database);
+        if (tracker != null) {
+            tracker.forget(id);
+        }
+        return rows;
+    }
+
+    static String getDeleteStatement(TypeAdapter<?> adapter) {
+        return String.format("DELETE FROM %s WHERE %s = ?", adapter.getTableName(),
+                adapter.getIdColumnName());
+    }
+
+    /**
+     * Run the work in a transaction, committed when it returns and rolled back when it throws.
+     * When a transaction is already running on the database the work is nested in it with a
+     * savepoint, so that rolling it back keeps the work of the outer transaction.
+     *
+     * @param helper SQLiteOpenHelper object. Which will be used to open database
+     * @param work   The work to run.
+     * @return The result of the work.
+     * @see Transaction
+     */
+    public static <T> T runInTransaction(SQLiteOpenHelper helper, Transaction.Work<T> work) {
+        return Transaction.run(helper.getWritableDatabase(), work);
+    }
+
     public static Cursor rawQuery(SQLiteOpenHelper helper, String sql, String[] selectionArgs) {
         final SQLiteDatabase database = helper.getReadableDatabase();
         return database.rawQuery(sql, selectionArgs);
@@ -131,9 +466,60 @@ public final class DatabaseHelper {
         return null;
     }
 
+    /**
+     * Query the objects of class <b>T</b> matching the selection. Objects referenced by one to
+     * one fields are loaded in the same query with a LEFT JOIN.
+     *
+     * @param helper        SQLiteOpenHelper object. Which will be used to open database
+     * @param clazz         The target class for objects.
+     * @param selection     A SQL WHERE clause without the WHERE keyword, null or empty to query
+     *                      every object. Its columns are those of the table of <b>T</b>.
+     * @param selectionArgs The values of the ? in the selection.
+     * @return A List Object of class <b>T</b>, null if nothing matched.
+     */
+    public static <T> List<T> query(SQLiteOpenHelper helper, Class<? extends T> clazz,
+                                    String selection, String... selectionArgs) {
+        final TypeAdapter<?> adapter = getAdapter(clazz);
+        final String sql = adapter.getSelectStatement(
+                TextUtils.isEmpty(selection) ? null : selection);
+        return rawQuery(helper, clazz, sql, selectionArgs);
+    }
+
+    /**
+     * Iterate over the objects of class <b>T</b> matching the selection, mapping them while the
+     * cursor is walked instead of loading them all in a list.
+     *
+     * @param helper        SQLiteOpenHelper object. Which will be used to open database
+     * @param clazz         The target class for objects.
+     * @param selection     A SQL WHERE clause without the WHERE keyword, null or empty to iterate
+     *                      over every object. Its columns are those of the table of <b>T</b>.
+     * @param selectionArgs The values of the ? in the selection.
+     * @return An iterator to close when it is not walked to its end.
+     * @see CursorIterator
+     */
+    public static <T> CursorIterator<T> iterate(SQLiteOpenHelper helper, Class<? extends T> clazz,
+                                                String selection, String... selectionArgs) {
+        final TypeAdapter<?> adapter = getAdapter(clazz);
+        final String sql = adapter.getSelectStatement(
+                TextUtils.isEmpty(selection) ? null : selection);
+        return iterate(helper.getReadableDatabase().rawQuery(sql, selectionArgs), clazz);
+    }
+
+    /**
+     * Iterate over the rows of the cursor, mapping each one to an object of class <b>T</b> when
+     * it is reached. The cursor is closed with the iterator.
+     *
+     * @param cursor The cursor to read data, positioned before its first row.
+     * @param clazz  The target class for object, a {@link Table} or {@link QueryResult} class.
+     * @return An iterator to close when it is not walked to its end.
+     * @see CursorIterator
+     */
+    public static <T> CursorIterator<T> iterate(Cursor cursor, Class<? extends T> clazz) {
+        return new CursorIterator<T>(cursor, DatabaseHelper.<T>getMapper(clazz));
+    }
+
     public static String getTableName(Class<?> clazz) {
-        final TypeAdapter adapter = getAdapter(clazz);
-        return adapter.getTableName();
+        return getAdapter(clazz).getTableName();
     }
 
     public static Uri getContentUri(Class<?> clazz) {
@@ -148,77 +534,186 @@ public final class DatabaseHelper {
      * @return a ContentValues object.
      */
     public static ContentValues toContentValues(Object item) {
-        final TypeAdapter adapter = getAdapter(item.getClass());
-        return adapter.asContentValues(item);
+        return getAdapter(item.getClass()).asContentValues(item);
     }
 
     /**
      * Create a object of class <b>T</b> and map data from cursor to it.
      *
      * @param cursor The cursor to read data.
-     * @param clazz  The target class for object.
-     * @return An object of class <b>T</b>
+     * @param clazz  The target class for object, a {@link Table} or {@link QueryResult} class.
+     * @return An object of class <b>T</b>, the one of the current {@link Session} if it already
+     * mapped the row.
      */
     public static <T> T getItem(Cursor cursor, Class<? extends T> clazz) {
-        final TypeAdapter adapter = getAdapter(clazz);
-        Object newInstance = adapter.newObject();
-        adapter.map(cursor, newInstance);
-        return (T) newInstance;
+        final CursorMapper<T> mapper = getMapper(clazz);
+        final List<T> mapped = new ArrayList<T>(1);
+        final T item = new RowMapper<T>(cursor, mapper).map(mapped);
+        loadRelations(cursor, mapper, mapped);
+        return item;
     }
 
     /**
      * Create a List Object of class <b>T</b> and map data from cursor to it.
      *
      * @param cursor The cursor to read data.
-     * @param clazz  The target class for object.
+     * @param clazz  The target class for object, a {@link Table} or {@link QueryResult} class.
      * @return A List Object of class <b>T</b>
      */
     public static <T> List<T> getList(Cursor cursor, Class<? extends T> clazz) {
         if (cursor.moveToFirst()) {
             final List<T> result = new ArrayList<T>(cursor.getCount());
-            final TypeAdapter adapter = getAdapter(clazz);
+            final List<T> mapped = new ArrayList<T>(cursor.getCount());
+            final CursorMapper<T> mapper = getMapper(clazz);
+            final RowMapper<T> rowMapper = new RowMapper<T>(cursor, mapper);
             do {
-                final T newObject = (T) adapter.newObject();
-                adapter.map(cursor, newObject);
-                result.add(newObject);
+                result.add(rowMapper.map(mapped));
             } while (cursor.moveToNext());
+            // Objects found in the session already have their relationships
+            loadRelations(cursor, mapper, mapped);
             return result;
         }
         return null;
     }
 
-    private static TypeAdapter getAdapter(Class clazz) {
-        if (!ADAPTER_MAP.containsKey(clazz)) {
-            final TypeAdapter adapter = reflectConstructor(String.format("%s%s", clazz.getName(), $$SUFFIX));
-            if (adapter == null) {
-                throw new IllegalArgumentException(String.format("Class %s is not supported. Please make sure you have added @Table annotation for that class.", clazz.getName()));
+    /**
+     * Query the children of a one to many relationship for every given parent at once. Called by
+     * the generated adapters, the ids are bound in chunks so only one query is run per
+     * {@value #MAX_PARENT_IDS_PER_QUERY} parents.
+     *
+     * @param database     The database to query.
+     * @param childClass   The class of the children.
+     * @param parentColumn The column of the child table holding the id of the parent.
+     * @param parentIds    The ids of the parents.
+     * @return The children grouped by the id of their parent, parents without children are not
+     * in the map.
+     */
+    public static <C> Map<Long, List<C>> getChildren(SQLiteDatabase database,
+                                                     Class<C> childClass, String parentColumn,
+                                                     long[] parentIds) {
+        final Map<Long, List<C>> children = new HashMap<Long, List<C>>();
+        if (parentIds.length == 0) {
+            return children;
+        }
+
+        final TypeAdapter<Object> adapter = getAdapter(childClass);
+        final List<Object> mappedChildren = new ArrayList<Object>();
+        for (int start = 0; start < parentIds.length; start += MAX_PARENT_IDS_PER_QUERY) {
+            final int count = Math.min(MAX_PARENT_IDS_PER_QUERY, parentIds.length - start);
+            final StringBuilder selection = new StringBuilder(parentColumn).append(" IN (");
+            final String[] selectionArgs = new String[count];
+            for (int i = 0; i < count; i++) {
+                selection.append(i == 0 ? "?" : ", ?");
+                selectionArgs[i] = String.valueOf(parentIds[start + i]);
             }
-            if (!TextUtils.isEmpty(mAuthority)) {
-                adapter.initUriMatcher(mAuthority);
+            selection.append(')');
+
+            // Children are listed in the order of their ids, which is the order they were
+            // inserted in unless the ids were given
+            final Cursor cursor = database.rawQuery(adapter.getSelectStatement(
+                    selection.toString()) + " ORDER BY t." + adapter.getIdColumnName(),
+                    selectionArgs);
+            try {
+                final RowMapper<Object> rowMapper = new RowMapper<Object>(cursor, adapter);
+                final int parentIndex = cursor.getColumnIndexOrThrow(parentColumn);
+                while (cursor.moveToNext()) {
+                    final C child = childClass.cast(rowMapper.map(mappedChildren));
+                    final Long parentId = cursor.getLong(parentIndex);
+                    List<C> siblings = children.get(parentId);
+                    if (siblings == null) {
+                        siblings = new ArrayList<C>();
+                        children.put(parentId, siblings);
+                    }
+                    siblings.add(child);
+                }
+            } finally {
+                cursor.close();
             }
-            ADAPTER_MAP.put(clazz, adapter);
-            return adapter;
-        } else {
-            return ADAPTER_MAP.get(clazz);
         }
+
+        if (!mappedChildren.isEmpty()) {
+            adapter.loadRelations(database, mappedChildren);
+        }
+        return children;
     }
 
-    private static <T> T reflectConstructor(String className) {
-        try {
-            final Class<?> clazz = Class.forName(className);
-            final Constructor<?> constructor = clazz.getDeclaredConstructor();
-            return (T) constructor.newInstance();
-        } catch (ClassNotFoundException e) {
-            e.printStackTrace();
-        } catch (NoSuchMethodException e) {
-            e.printStackTrace();
-        } catch (InvocationTargetException e) {
-            e.printStackTrace();
-        } catch (InstantiationException e) {
-            e.printStackTrace();
-        } catch (IllegalAccessException e) {
-            e.printStackTrace();
+    /**
+     * Load the relationships of objects mapped from the cursor, using the database the cursor
+     * was queried from. Cursors not backed by a SQLiteDatabase, for example those returned by a
+     * ContentResolver, are mapped without their relationships.
+     */
+    static <T> void loadRelations(Cursor cursor, CursorMapper<T> mapper, List<T> targets) {
+        if (!(mapper instanceof TypeAdapter)) {
+            return;
+        }
+        while (cursor instanceof CursorWrapper) {
+            cursor = ((CursorWrapper) cursor).getWrappedCursor();
+        }
+        if (cursor instanceof SQLiteCursor) {
+            ((TypeAdapter<T>) mapper).loadRelations(((SQLiteCursor) cursor).getDatabase(), targets);
+        }
+    }
+
+    /**
+     * Get the adapter of a {@link Table} class. Its type is not checked, it is only given objects
+     * of the class.
+     */
+    @SuppressWarnings("unchecked")
+    static TypeAdapter<Object> getAdapter(Class<?> clazz) {
+        TypeAdapter<?> adapter = ADAPTER_MAP.get(clazz);
+        if (adapter == null && loadDefaultRegistry()) {
+            adapter = ADAPTER_MAP.get(clazz);
+        }
+        if (adapter == null) {
+            throw new IllegalArgumentException(String.format("Class %s is not supported. Please make sure you have added @Table annotation for that class.", clazz.getName()));
+        }
+        return (TypeAdapter<Object>) adapter;
+    }
+
+    /**
+     * Get the mapper of a {@link Table} or {@link QueryResult} class, the objects it creates are
+     * of the class.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> CursorMapper<T> getMapper(Class<? extends T> clazz) {
+        CursorMapper<?> mapper = MAPPER_MAP.get(clazz);
+        if (mapper == null && loadDefaultRegistry()) {
+            mapper = MAPPER_MAP.get(clazz);
+        }
+        // Adapters throw if the class is neither a table nor a query result
+        return (CursorMapper<T>) (mapper != null ? mapper : getAdapter(clazz));
+    }
+
+    /**
+     * Register the registry generated under the default name when the application did not
+     * register it itself. This is the only reflective call made to find adapters, keep
+     * {@link #$$REGISTRY} when shrinking code or register the registry explicitly.
+     *
+     * @return true if the default registry was registered by this call.
+     */
+    private static boolean loadDefaultRegistry() {
+        // Only the first calls lock, the flag is published once the registry is added
+        if (mDefaultRegistryLoaded) {
+            return false;
+        }
+        synchronized (DatabaseHelper.class) {
+            if (mDefaultRegistryLoaded) {
+                return false;
+            }
+            try {
+                final Class<?> registryClass = Class.forName($$REGISTRY);
+                addAdapterRegistry((AdapterRegistry) registryClass.newInstance());
+                return true;
+            } catch (ClassNotFoundException e) {
+                // Nothing was generated under the default name
+                return false;
+            } catch (InstantiationException e) {
+                throw new IllegalStateException("Unable to create " + $$REGISTRY, e);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Unable to create " + $$REGISTRY, e);
+            } finally {
+                mDefaultRegistryLoaded = true;
+            }
         }
-        return null;
     }
 }
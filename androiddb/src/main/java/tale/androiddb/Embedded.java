@@ -0,0 +1,39 @@
+/*
+ * Copyright 2014 Andrew Reitz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tale.androiddb;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.RetentionPolicy.CLASS;
+
+/**
+ * Stores the fields of a value object in columns of the table holding it instead of serializing
+ * it to a blob. The fields of the value object must be marked with {@link Field}, each gets a
+ * column named after it with a prefix, which can be used in queries and indexes like any other
+ * column. The value object needs an empty constructor, it is read back as null when all of its
+ * columns are null.
+ */
+@Retention(CLASS)
+@Target(FIELD)
+public @interface Embedded {
+    /**
+     * Prefix of the column names, the name of the field followed by an underscore when empty
+     */
+    String prefix() default "";
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tale.androiddb;
+
+import android.util.SparseArray;
+
+/**
+ * Finds the constant of a {@link CodedEnum} by its code without allocating. Created once per
+ * field by the generated adapters.
+ */
+public final class EnumCodes<E extends Enum<E> & CodedEnum> {
+
+    private final Class<E> enumClass;
+    private final SparseArray<E> constants = new SparseArray<E>();
+
+    public EnumCodes(Class<E> enumClass) {
+        this.enumClass = enumClass;
+        for (E constant : enumClass.getEnumConstants()) {
+            if (constants.get(constant.getCode()) != null) {
+                throw new IllegalArgumentException(String.format("%s and %s of %s have the same "
+                        + "code %d", constants.get(constant.getCode()), constant,
+                        enumClass.getName(), constant.getCode()));
+            }
+            constants.put(constant.getCode(), constant);
+        }
+    }
+
+    /**
+     * The constant with the code.
+     *
+     * @throws IllegalArgumentException if no constant has the code.
+     */
+    public E get(int code) {
+        final E constant = constants.get(code);
+        if (constant == null) {
+            throw new IllegalArgumentException(String.format("No constant of %s has the code %d",
+                    enumClass.getName(), code));
+        }
+        return constant;
+    }
+}
@@ -20,16 +20,30 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
 
 import static java.lang.annotation.ElementType.FIELD;
-import static java.lang.annotation.RetentionPolicy.SOURCE;
+import static java.lang.annotation.RetentionPolicy.CLASS;
 
 /**
  * All Database fields must be marked with this annotation.
  */
-@Retention(SOURCE)
+@Retention(CLASS)
 @Target(FIELD)
 public @interface Field {
     /**
      * Tells if the field should be converted to a byte array and stored as a blob
      */
     boolean isBlob() default false;
+
+    /**
+     * Codec converting a blob field to and from bytes. When not set arrays are packed, value
+     * classes with accessible fields and an empty constructor get a generated field-by-field
+     * codec, and any other type falls back to Java serialization.
+     */
+    @SuppressWarnings("rawtypes")
+    Class<? extends BlobCodec> codec() default BlobCodec.class;
+
+    /**
+     * Number of decimals kept by BigDecimal fields, which are stored as an INTEGER holding the
+     * value multiplied by ten to this power
+     */
+    int scale() default 2;
 }
@@ -20,12 +20,37 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
 
 import static java.lang.annotation.ElementType.FIELD;
-import static java.lang.annotation.RetentionPolicy.SOURCE;
+import static java.lang.annotation.RetentionPolicy.CLASS;
 
 /**
  * Declare a field to be the database ID column. This MUST be placed on a long.
  */
-@Retention(SOURCE)
+@Retention(CLASS)
 @Target(FIELD)
 public @interface Id {
+
+    /**
+     * How the rows of the table are keyed.
+     */
+    Strategy strategy() default Strategy.AUTOINCREMENT;
+
+    enum Strategy {
+        /**
+         * INTEGER PRIMARY KEY AUTOINCREMENT, ids of deleted rows are never reused. Every insert
+         * also reads and writes the sqlite_sequence table.
+         */
+        AUTOINCREMENT,
+
+        /**
+         * INTEGER PRIMARY KEY, the id is an alias of the rowid. The ids of the last rows may be
+         * reused once they are deleted.
+         */
+        ROWID,
+
+        /**
+         * A WITHOUT ROWID table keyed by the id, which is set by the caller before inserting
+         * instead of being assigned. Requires SQLite 3.8.2, available from Android 5.0 (API 21).
+         */
+        WITHOUT_ROWID
+    }
 }
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tale.androiddb;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.CLASS;
+
+/**
+ * Create an index with the table. On a {@link Field} the index is on that column. On a
+ * {@link Table} class list the columns in {@link #value()} to create a composite index, add the
+ * columns a query reads after those it filters on to make the index covering. Use
+ * {@link Indexes} to put several indexes on a class.
+ */
+@Retention(CLASS)
+@Target({FIELD, TYPE})
+public @interface Index {
+    /**
+     * Columns of an index placed on a class, in order. A column may be followed by ASC or DESC.
+     * Must be empty on a field.
+     */
+    String[] value() default {};
+
+    /**
+     * Name of the index, defaults to the columns. The name of the table is always put in front of
+     * it since index names are shared by every table of the database.
+     */
+    String name() default "";
+
+    /**
+     * Tells if two rows can't have the same values in the columns of the index
+     */
+    boolean unique() default false;
+
+    /**
+     * Makes the index partial, only rows matching this SQL expression are indexed. Partial
+     * indexes need SQLite 3.8.0, available from Android 5.0.
+     */
+    String where() default "";
+}
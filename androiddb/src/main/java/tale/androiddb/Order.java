@@ -0,0 +1,44 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tale.androiddb;
+
+/**
+ * A sort order of a {@link Query}, created with {@link Column#asc()} or {@link Column#desc()}.
+ */
+public final class Order {
+
+    private final String columnName;
+    private final boolean descending;
+
+    Order(String columnName, boolean descending) {
+        this.columnName = columnName;
+        this.descending = descending;
+    }
+
+    String getColumnName() {
+        return columnName;
+    }
+
+    boolean isDescending() {
+        return descending;
+    }
+
+    @Override
+    public String toString() {
+        return columnName + (descending ? " DESC" : " ASC");
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tale.androiddb;
+
+/**
+ * A condition of a {@link Query}, created from a {@link Column}. The SQL only holds column names
+ * and bind arguments, values are kept aside and bound with their type.
+ */
+public final class Predicate {
+
+    private final String sql;
+    private final Object[] args;
+
+    Predicate(String sql, Object[] args) {
+        this.sql = sql;
+        this.args = args;
+    }
+
+    public Predicate and(Predicate other) {
+        return combine(" AND ", other);
+    }
+
+    public Predicate or(Predicate other) {
+        return combine(" OR ", other);
+    }
+
+    public Predicate not() {
+        return new Predicate("NOT (" + sql + ")", args);
+    }
+
+    String getSql() {
+        return sql;
+    }
+
+    Object[] getArgs() {
+        return args;
+    }
+
+    private Predicate combine(String operator, Predicate other) {
+        final Object[] combinedArgs = new Object[args.length + other.args.length];
+        System.arraycopy(args, 0, combinedArgs, 0, args.length);
+        System.arraycopy(other.args, 0, combinedArgs, args.length, other.args.length);
+        return new Predicate("(" + sql + operator + other.sql + ")", combinedArgs);
+    }
+
+    @Override
+    public String toString() {
+        return sql;
+    }
+}
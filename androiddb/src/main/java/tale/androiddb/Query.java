@@ -0,0 +1,198 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tale.androiddb;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Builds a query on a {@link Table} from the typed columns generated in its
+ * <code>_Columns</code> class:
+ * <pre>
+ * List&lt;Book&gt; books = Query.from(Book.class)
+ *         .where(Book_Columns.title.eq(title), Book_Columns.published.gt(date))
+ *         .orderBy(Book_Columns.published.desc())
+ *         .limit(20)
+ *         .list(helper);
+ * </pre>
+ * Values are never written into the SQL, every query of the same shape produces the same SQL and
+ * reuses the statement SQLite already compiled for it. Values are bound with their type.
+ *
+ * @param <T> The table class.
+ */
+public final class Query<T> {
+
+    private final Class<T> clazz;
+    private final List<Predicate> predicates = new ArrayList<Predicate>();
+    private final List<Order> orders = new ArrayList<Order>();
+    private long limit = -1;
+    private long offset = -1;
+
+    private Query(Class<T> clazz) {
+        this.clazz = clazz;
+    }
+
+    public static <T> Query<T> from(Class<T> clazz) {
+        return new Query<T>(clazz);
+    }
+
+    /**
+     * Only select the rows matching every predicate.
+     */
+    public Query<T> where(Predicate... predicates) {
+        Collections.addAll(this.predicates, predicates);
+        return this;
+    }
+
+    public Query<T> orderBy(Order... orders) {
+        Collections.addAll(this.orders, orders);
+        return this;
+    }
+
+    public Query<T> limit(long limit) {
+        this.limit = limit;
+        return this;
+    }
+
+    public Query<T> offset(long offset) {
+        this.offset = offset;
+        return this;
+    }
+
+    /**
+     * Run the query, objects referenced by one to one fields are joined and one to many children
+     * are loaded like {@link DatabaseHelper#getList(Cursor, Class)} does.
+     *
+     * @return The matching objects, an empty list if nothing matched.
+     */
+    public List<T> list(SQLiteOpenHelper helper) {
+        final Cursor cursor = rawQuery(helper.getReadableDatabase());
+        try {
+            final List<T> result = DatabaseHelper.getList(cursor, clazz);
+            return result != null ? result : new ArrayList<T>(0);
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Run the query, mapping the matching objects one batch at a time while they are iterated.
+     *
+     * @return An iterator to close when it is not walked to its end.
+     * @see CursorIterator
+     */
+    public CursorIterator<T> iterate(SQLiteOpenHelper helper) {
+        return DatabaseHelper.iterate(rawQuery(helper.getReadableDatabase()), clazz);
+    }
+
+    /**
+     * Run the query for its first row only.
+     *
+     * @return The first matching object, null if nothing matched.
+     */
+    public T first(SQLiteOpenHelper helper) {
+        final long previousLimit = limit;
+        limit = 1;
+        try {
+            final List<T> result = list(helper);
+            return result.isEmpty() ? null : result.get(0);
+        } finally {
+            limit = previousLimit;
+        }
+    }
+
+    /**
+     * Count the matching rows, ignoring the order, limit and offset.
+     */
+    public long count(SQLiteOpenHelper helper) {
+        final String selection = getSelection();
+        final String sql = "SELECT COUNT(*) FROM " + DatabaseHelper.getTableName(clazz)
+                + (selection == null ? "" : " WHERE " + selection);
+        final SQLiteStatement statement = helper.getReadableDatabase().compileStatement(sql);
+        try {
+            TypedCursorFactory.bindArgs(statement, getSelectionArgs());
+            return statement.simpleQueryForLong();
+        } finally {
+            statement.close();
+        }
+    }
+
+    Cursor rawQuery(SQLiteDatabase database) {
+        final List<Object> args = new ArrayList<Object>();
+        Collections.addAll(args, getSelectionArgs());
+        final String sql = getSql(args);
+        return database.rawQueryWithFactory(new TypedCursorFactory(args.toArray()), sql, null,
+                null);
+    }
+
+    /**
+     * Build the SQL of the query, adding the values of its bind arguments to <b>args</b> after
+     * those of the selection.
+     */
+    String getSql(List<Object> args) {
+        final StringBuilder sql = new StringBuilder(
+                DatabaseHelper.getAdapter(clazz).getSelectStatement(getSelection()));
+        for (int i = 0; i < orders.size(); i++) {
+            final Order order = orders.get(i);
+            sql.append(i == 0 ? " ORDER BY t." : ", t.").append(order.getColumnName())
+                    .append(order.isDescending() ? " DESC" : " ASC");
+        }
+        if (limit >= 0 || offset >= 0) {
+            // SQLite only takes an offset after a limit, a negative limit means no limit
+            sql.append(" LIMIT ?");
+            args.add(limit);
+            if (offset >= 0) {
+                sql.append(" OFFSET ?");
+                args.add(offset);
+            }
+        }
+        return sql.toString();
+    }
+
+    private String getSelection() {
+        if (predicates.isEmpty()) {
+            return null;
+        }
+        final StringBuilder selection = new StringBuilder();
+        for (Predicate predicate : predicates) {
+            if (selection.length() > 0) {
+                selection.append(" AND ");
+            }
+            selection.append(predicate.getSql());
+        }
+        return selection.toString();
+    }
+
+    private Object[] getSelectionArgs() {
+        final List<Object> args = new ArrayList<Object>();
+        for (Predicate predicate : predicates) {
+            Collections.addAll(args, predicate.getArgs());
+        }
+        return args.toArray();
+    }
+
+    @Override
+    public String toString() {
+        return getSql(new ArrayList<Object>());
+    }
+}
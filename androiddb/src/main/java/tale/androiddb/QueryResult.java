@@ -0,0 +1,36 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tale.androiddb;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.CLASS;
+
+/**
+ * To be placed on a class holding the rows of an arbitrary query, for example a join or a
+ * projection of a few columns. It is not a table, every field marked with {@link Field} or
+ * {@link Id} is read from the cursor column of the same name and columns missing from the query
+ * are left untouched. Map rows with
+ * {@link DatabaseHelper#rawQuery(android.database.sqlite.SQLiteOpenHelper, Class, String,
+ * String...)} or {@link DatabaseHelper#getList(android.database.Cursor, Class)}.
+ */
+@Retention(CLASS)
+@Target(TYPE)
+public @interface QueryResult {
+}
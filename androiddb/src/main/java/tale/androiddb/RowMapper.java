@@ -0,0 +1,67 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tale.androiddb;
+
+import android.database.Cursor;
+
+import java.util.List;
+
+/**
+ * Maps the rows of a cursor one at a time, going through the {@link Session} open when it was
+ * created. Rows already mapped in the session are not mapped again.
+ */
+final class RowMapper<T> {
+
+    private final Cursor cursor;
+    private final CursorMapper<T> mapper;
+    private final int[] columnIndexes;
+    private final Session session;
+    private final int idIndex;
+
+    RowMapper(Cursor cursor, CursorMapper<T> mapper) {
+        this.cursor = cursor;
+        this.mapper = mapper;
+        // Resolve the column positions once, they are the same for every row of the cursor
+        this.columnIndexes = mapper.getColumnIndexes(cursor);
+        // Only the rows of tables have an id to be found by
+        this.session = mapper instanceof TypeAdapter ? Session.current() : null;
+        this.idIndex = session != null
+                ? cursor.getColumnIndex(((TypeAdapter) mapper).getIdColumnName()) : -1;
+    }
+
+    /**
+     * Map the current row of the cursor. Objects that were not in the session are added to
+     * <b>mapped</b>, their relationships still have to be loaded.
+     */
+    T map(List<T> mapped) {
+        final long id = idIndex != -1 ? cursor.getLong(idIndex) : 0;
+        if (idIndex != -1) {
+            final T known = session.get(mapper.getTargetClass(), id);
+            if (known != null) {
+                return known;
+            }
+        }
+
+        final T target = mapper.newObject();
+        mapper.map(cursor, columnIndexes, target);
+        if (idIndex != -1) {
+            session.put(mapper.getTargetClass(), id, target);
+        }
+        mapped.add(target);
+        return target;
+    }
+}
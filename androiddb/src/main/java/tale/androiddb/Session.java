@@ -0,0 +1,125 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tale.androiddb;
+
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Identity map of the objects loaded on a thread. While a session is open every row of a
+ * {@link Table} is mapped once, reading it again returns the same object without mapping it, or
+ * loading its relationships, again:
+ * <pre>
+ * Session session = Session.open();
+ * try {
+ *     ...
+ * } finally {
+ *     session.close();
+ * }
+ * </pre>
+ * Objects are not refreshed, changes made to the database during the session are not seen by rows
+ * mapped before them. Sessions can be nested, closing one makes the previous one current again.
+ */
+public final class Session implements Closeable {
+
+    private static final ThreadLocal<Session> CURRENT = new ThreadLocal<Session>();
+
+    private final Map<Class<?>, Map<Long, Object>> objects =
+            new HashMap<Class<?>, Map<Long, Object>>();
+    private final Session previous;
+
+    private Session(Session previous) {
+        this.previous = previous;
+    }
+
+    /**
+     * Open a session on the current thread, it is used until it is closed.
+     */
+    public static Session open() {
+        final Session session = new Session(CURRENT.get());
+        CURRENT.set(session);
+        return session;
+    }
+
+    /**
+     * The session open on the current thread, null if there is none.
+     */
+    public static Session current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * The object of class <b>T</b> with the id mapped by the current session, null if there is no
+     * session or the row was not mapped yet. Used by the generated adapters.
+     */
+    public static <T> T find(Class<T> clazz, long id) {
+        final Session session = CURRENT.get();
+        return session != null ? session.get(clazz, id) : null;
+    }
+
+    /**
+     * Add an object to the current session, does nothing if there is none. Used by the generated
+     * adapters.
+     */
+    public static void remember(Class<?> clazz, long id, Object object) {
+        final Session session = CURRENT.get();
+        if (session != null) {
+            session.put(clazz, id, object);
+        }
+    }
+
+    /**
+     * The object of class <b>T</b> with the id mapped in this session, null if the row was not
+     * mapped yet.
+     */
+    public <T> T get(Class<T> clazz, long id) {
+        final Map<Long, Object> objectsById = objects.get(clazz);
+        return objectsById != null ? clazz.cast(objectsById.get(id)) : null;
+    }
+
+    void put(Class<?> clazz, long id, Object object) {
+        Map<Long, Object> objectsById = objects.get(clazz);
+        if (objectsById == null) {
+            objectsById = new HashMap<Long, Object>();
+            objects.put(clazz, objectsById);
+        }
+        objectsById.put(id, object);
+    }
+
+    /**
+     * Forget every object of the class, their rows are mapped again when read.
+     */
+    public void evict(Class<?> clazz) {
+        objects.remove(clazz);
+    }
+
+    /**
+     * Forget every object and stop using this session on the current thread.
+     */
+    @Override
+    public void close() {
+        objects.clear();
+        if (CURRENT.get() == this) {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
@@ -31,4 +31,11 @@ import static java.lang.annotation.RetentionPolicy.CLASS;
 @Retention(CLASS)
 @Target(TYPE)
 public @interface Table {
+
+    /**
+     * Remember the values of loaded rows so that {@link DatabaseHelper#update(
+     * android.database.sqlite.SQLiteOpenHelper, Object)} only writes the columns that changed.
+     * Rows are compared when they are updated, each loaded row costs a copy of its values.
+     */
+    boolean trackChanges() default false;
 }
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tale.androiddb;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.text.TextUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Brings an existing table to the schema of its adapter in place. The columns of the table are
+ * read with PRAGMA table_info and compared to those of the adapter: missing columns are added
+ * with ALTER TABLE, any other difference rebuilds the table and copies the rows of the columns it
+ * keeps.
+ */
+final class TableMigration {
+
+    /**
+     * Suffix of the name of a table while it is rebuilt
+     */
+    private static final String OLD_TABLE_SUFFIX = "__old";
+
+    private final SQLiteDatabase db;
+    private final TypeAdapter<?> adapter;
+    private final String tableName;
+
+    TableMigration(SQLiteDatabase db, TypeAdapter<?> adapter) {
+        this.db = db;
+        this.adapter = adapter;
+        this.tableName = adapter.getTableName();
+    }
+
+    void migrate() {
+        final String existingSql = getExistingSql();
+        if (existingSql == null) {
+            DatabaseHelper.createTable(db, adapter.getTargetClass());
+            return;
+        }
+
+        final Map<String, String> existingColumns = getExistingColumns();
+        final List<String> addedColumns = new ArrayList<String>();
+        boolean rebuild = !hasSameKey(existingSql, existingColumns);
+        existingColumns.remove(adapter.getIdColumnName());
+        final String[] definitions = adapter.getColumnDefinitions();
+        // The first definition is the id, checked with the key
+        for (int i = 1; i < definitions.length && !rebuild; i++) {
+            final String type = existingColumns.remove(getName(definitions[i]));
+            if (type == null) {
+                addedColumns.add(definitions[i]);
+            } else if (!type.equalsIgnoreCase(getType(definitions[i]))) {
+                rebuild = true;
+            }
+        }
+        // Columns can't be dropped before SQLite 3.35, the table is rebuilt without them
+        rebuild |= !existingColumns.isEmpty();
+
+        db.beginTransaction();
+        try {
+            if (rebuild) {
+                rebuild();
+            } else {
+                for (String definition : addedColumns) {
+                    db.execSQL(String.format("ALTER TABLE %s ADD COLUMN %s", tableName,
+                            definition));
+                }
+                for (String indexStatement : adapter.getIndexStatements()) {
+                    db.execSQL(indexStatement);
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Create the table again with the columns of the adapter, keeping the values of the columns
+     * that are in both
+     */
+    private void rebuild() {
+        final List<String> keptColumns = new ArrayList<String>();
+        final Map<String, String> existingColumns = getExistingColumns();
+        for (String definition : adapter.getColumnDefinitions()) {
+            final String name = getName(definition);
+            if (existingColumns.containsKey(name)) {
+                keptColumns.add(name);
+            }
+        }
+
+        final String oldTableName = tableName + OLD_TABLE_SUFFIX;
+        db.execSQL(String.format("ALTER TABLE %s RENAME TO %s", tableName, oldTableName));
+        db.execSQL(adapter.getCreateStatement());
+        if (!keptColumns.isEmpty()) {
+            final String columns = TextUtils.join(", ", keptColumns);
+            db.execSQL(String.format("INSERT INTO %s (%s) SELECT %s FROM %s", tableName,
+                    columns, columns, oldTableName));
+        }
+        // Indexes are dropped with the old table, their names are free to be created again
+        db.execSQL(String.format("DROP TABLE %s", oldTableName));
+        for (String indexStatement : adapter.getIndexStatements()) {
+            db.execSQL(indexStatement);
+        }
+    }
+
+    /**
+     * Whether the table has the same id column and key strategy as the adapter
+     */
+    private boolean hasSameKey(String existingSql, Map<String, String> existingColumns) {
+        final String createSql = adapter.getCreateStatement().toUpperCase(Locale.US);
+        final String sql = existingSql.toUpperCase(Locale.US);
+        return existingColumns.containsKey(adapter.getIdColumnName())
+                && sql.contains("AUTOINCREMENT") == createSql.contains("AUTOINCREMENT")
+                && sql.contains("WITHOUT ROWID") == createSql.contains("WITHOUT ROWID");
+    }
+
+    /**
+     * The SQL the table was created with, null if it does not exist
+     */
+    private String getExistingSql() {
+        final Cursor cursor = db.rawQuery(
+                "SELECT sql FROM sqlite_master WHERE type = 'table' AND name = ?",
+                new String[]{tableName});
+        try {
+            return cursor.moveToFirst() ? cursor.getString(0) : null;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * The declared type of every column of the table, by name
+     */
+    private Map<String, String> getExistingColumns() {
+        final Map<String, String> columns = new LinkedHashMap<String, String>();
+        final Cursor cursor = db.rawQuery(String.format("PRAGMA table_info(%s)", tableName),
+                null);
+        try {
+            final int nameIndex = cursor.getColumnIndexOrThrow("name");
+            final int typeIndex = cursor.getColumnIndexOrThrow("type");
+            while (cursor.moveToNext()) {
+                columns.put(cursor.getString(nameIndex), cursor.getString(typeIndex));
+            }
+        } finally {
+            cursor.close();
+        }
+        return columns;
+    }
+
+    private static String getName(String definition) {
+        final int space = definition.indexOf(' ');
+        return space == -1 ? definition : definition.substring(0, space);
+    }
+
+    private static String getType(String definition) {
+        final int space = definition.indexOf(' ');
+        return space == -1 ? "" : definition.substring(space + 1);
+    }
+}
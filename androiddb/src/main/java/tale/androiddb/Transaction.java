@@ -0,0 +1,180 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tale.androiddb;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A transaction started with {@link DatabaseHelper#runInTransaction}.
+ * The work is committed when it returns and rolled back when it throws. Transactions started
+ * while another one is running on the thread are nested in it with a savepoint, rolling one back
+ * only undoes its own work:
+ * <pre>
+ * DatabaseHelper.runInTransaction(helper, new Transaction.Work&lt;Void&gt;() {
+ *     &#64;Override public Void run(Transaction transaction) {
+ *         DatabaseHelper.insert(helper, author);
+ *         DatabaseHelper.insert(helper, book);
+ *         return null;
+ *     }
+ * });
+ * </pre>
+ * Work done in a nested transaction should not fail inside the transactions of
+ * {@link SQLiteDatabase#beginTransaction()}, like those of
+ * {@link DatabaseHelper#insertAll(android.database.sqlite.SQLiteOpenHelper, Iterable)}, Android
+ * then rolls back the outermost transaction as well.
+ * <p>
+ * Rolling back a transaction forgets the rows remembered by the {@link ChangeTracker}s written
+ * to in it.
+ */
+public final class Transaction {
+
+    /**
+     * Work done in a transaction.
+     */
+    public interface Work<T> {
+        T run(Transaction transaction);
+    }
+
+    private static final ThreadLocal<Transaction> CURRENT = new ThreadLocal<Transaction>();
+
+    private static final String SAVEPOINT_PREFIX = "shillelagh_";
+
+    /**
+     * Android ends the whole transaction when it runs a statement starting with ROLLBACK, the
+     * comment keeps it from taking the rollback to a savepoint for one
+     */
+    private static final String ROLLBACK_TO_SAVEPOINT = "/* savepoint */ ROLLBACK TO %s";
+
+    private final SQLiteDatabase database;
+    private final Transaction parent;
+    private final String savepoint;
+    private final int depth;
+    // Written to by the thread of the transaction only
+    private final Set<ChangeTracker> trackers = new HashSet<ChangeTracker>();
+
+    private Transaction(SQLiteDatabase database, Transaction parent, int depth) {
+        this.database = database;
+        this.parent = parent;
+        this.depth = depth;
+        this.savepoint = depth > 0 ? SAVEPOINT_PREFIX + depth : null;
+    }
+
+    static <T> T run(SQLiteDatabase database, Work<T> work) {
+        final Transaction previous = CURRENT.get();
+        final Transaction transaction;
+        if (database.inTransaction()) {
+            // Transactions begun without this class are nested in too
+            final Transaction parent = previous != null && previous.database == database
+                    ? previous : null;
+            transaction = new Transaction(database, parent, parent != null ? parent.depth + 1 : 1);
+            database.execSQL("SAVEPOINT " + transaction.savepoint);
+        } else {
+            transaction = new Transaction(database, null, 0);
+            database.beginTransaction();
+        }
+
+        CURRENT.set(transaction);
+        boolean successful = false;
+        try {
+            final T result = work.run(transaction);
+            successful = true;
+            return result;
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+            transaction.end(successful);
+        }
+    }
+
+    /**
+     * Tells if the rows a tracker remembers from the database are committed, or will be forgotten
+     * if they are rolled back. Rows written in transactions not begun by this class are neither.
+     */
+    static boolean track(SQLiteDatabase database, ChangeTracker tracker) {
+        if (!database.inTransaction()) {
+            return true;
+        }
+
+        final Transaction current = CURRENT.get();
+        if (current == null || current.database != database) {
+            return false;
+        }
+        Transaction outermost = current;
+        while (outermost.parent != null) {
+            outermost = outermost.parent;
+        }
+        if (outermost.savepoint != null) {
+            return false;
+        }
+        current.trackers.add(tracker);
+        return true;
+    }
+
+    private void end(boolean successful) {
+        if (!successful) {
+            for (ChangeTracker tracker : trackers) {
+                tracker.clear();
+            }
+        } else if (parent != null) {
+            // Still rolled back with the parent
+            parent.trackers.addAll(trackers);
+        }
+
+        if (savepoint == null) {
+            if (successful) {
+                database.setTransactionSuccessful();
+            }
+            database.endTransaction();
+        } else {
+            if (!successful) {
+                database.execSQL(String.format(ROLLBACK_TO_SAVEPOINT, savepoint));
+            }
+            database.execSQL("RELEASE " + savepoint);
+        }
+    }
+
+    /**
+     * The database the transaction runs on.
+     */
+    public SQLiteDatabase getDatabase() {
+        return database;
+    }
+
+    /**
+     * Tells if the transaction is nested in another one.
+     */
+    public boolean isNested() {
+        return savepoint != null;
+    }
+
+    /**
+     * Commit the work done so far and begin a new transaction if another thread is waiting for
+     * the database, so that long jobs don't block it. Nested transactions, and transactions with
+     * a nested transaction running, never yield since committing would release their savepoints.
+     *
+     * @return true if the transaction was committed.
+     */
+    public boolean yieldIfContended() {
+        return savepoint == null && CURRENT.get() == this && database.yieldIfContendedSafely();
+    }
+}
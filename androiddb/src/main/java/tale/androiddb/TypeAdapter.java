@@ -2,23 +2,126 @@ package tale.androiddb;
 
 import android.content.ContentValues;
 import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
 import android.net.Uri;
 
+import java.util.List;
+
 /**
  * Created by TALE on 10/20/2014.
  */
-public interface TypeAdapter<T> {
+public interface TypeAdapter<T> extends CursorMapper<T> {
 
     String getCreateStatement();
 
+    /**
+     * SQL creating every index of the table, run after {@link #getCreateStatement()}.
+     */
+    String[] getIndexStatements();
+
     String getTableName();
 
+    /**
+     * Definition of every column of the table as written in {@link #getCreateStatement()}, the id
+     * column first. Used to migrate existing tables.
+     */
+    String[] getColumnDefinitions();
+
+    /**
+     * Map the current row of the cursor onto the target. Column positions are looked up on every
+     * call, prefer {@link #map(Cursor, int[], Object)} when mapping more than one row.
+     */
     void map(Cursor cursor, T target);
 
-    T newObject();
+    /**
+     * Map only the columns of this table, leaving relationships untouched. Column positions are
+     * read from <b>columnIndexes</b> starting at <b>offset</b>, in the order of
+     * {@link #getColumnIndexes(Cursor)}. Used to map a row joined into the cursor of another
+     * table.
+     */
+    void map(Cursor cursor, int[] columnIndexes, int offset, T target);
+
+    /**
+     * SQL selecting the rows of the table matching the selection, every row referenced by a one
+     * to one column is joined so that it is mapped from the same cursor row. The rows of the table
+     * are aliased as t, qualify columns with it when ordering.
+     *
+     * @param selection A SQL WHERE clause without the WHERE keyword, null to select every row.
+     */
+    String getSelectStatement(String selection);
+
+    /**
+     * The value of the id column of the target.
+     */
+    long getId(T target);
+
+    /**
+     * Set the id of the target, called once its row is inserted.
+     */
+    void setId(T target, long id);
+
+    /**
+     * Load the one to many children of every target. Children of all the targets are fetched
+     * together, the number of queries does not depend on the number of targets.
+     */
+    void loadRelations(SQLiteDatabase database, List<T> targets);
 
     ContentValues asContentValues(T target);
 
+    String getIdColumnName();
+
+    /**
+     * The tracker remembering the stored values of the rows of the table in a database, null
+     * unless the table tracks changes.
+     *
+     * @see Table#trackChanges()
+     */
+    ChangeTracker getChangeTracker(SQLiteDatabase database);
+
+    /**
+     * SQL inserting a single row into the table, every column written by
+     * {@link #bindInsert(SQLiteStatement, Object)} is a bind argument.
+     */
+    String getInsertStatement();
+
+    /**
+     * Bind the values of the target to a statement compiled from {@link #getInsertStatement()}.
+     */
+    void bindInsert(SQLiteStatement statement, T target);
+
+    /**
+     * SQL inserting a single row that is the one to many child of another row, the id of the
+     * parent is written to <b>parentColumn</b> as the last bind argument.
+     */
+    String getInsertStatement(String parentColumn);
+
+    /**
+     * Bind the values of the target and the id of its parent to a statement compiled from
+     * {@link #getInsertStatement(String)}.
+     */
+    void bindInsert(SQLiteStatement statement, T target, long parentId);
+
+    /**
+     * Whether the table has one to many relationships, whose children are inserted with
+     * {@link #insertChildren(SQLiteDatabase, Object, long)}.
+     */
+    boolean hasChildren();
+
+    /**
+     * Insert the one to many children of a target inserted with the id <b>id</b>, pointing them
+     * back to it.
+     */
+    void insertChildren(SQLiteDatabase database, T target, long id);
+
+    /**
+     * Whether the table is created WITHOUT ROWID. Its ids are set by the caller, they are not
+     * assigned when inserting.
+     *
+     * @see Id.Strategy#WITHOUT_ROWID
+     */
+    boolean isWithoutRowId();
+
     void initUriMatcher(String authority);
 
     UriMatched checkMatched(Uri uri);
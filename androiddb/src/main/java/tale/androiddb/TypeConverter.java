@@ -0,0 +1,40 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tale.androiddb;
+
+/**
+ * Converts the value of a field to a type stored in a column: Integer, Long, Short, Double, Float,
+ * String or byte[]. Set it on a field with {@link Converter}, the converter must have a public
+ * empty constructor. Generated adapters call it directly, nothing is looked up per row.
+ *
+ * @param <T> The type of the field.
+ * @param <S> The type stored in the column.
+ */
+public interface TypeConverter<T, S> {
+
+    /**
+     * Convert a value to the value stored in the database. Never called with null, must not return
+     * null.
+     */
+    S toColumn(T value);
+
+    /**
+     * Convert a value read from the database back to the value of the field. Never called with
+     * null.
+     */
+    T fromColumn(S value);
+}
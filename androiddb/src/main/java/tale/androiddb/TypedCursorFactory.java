@@ -0,0 +1,77 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tale.androiddb;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteCursor;
+import android.database.sqlite.SQLiteCursorDriver;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteProgram;
+import android.database.sqlite.SQLiteQuery;
+
+import java.util.Date;
+
+/**
+ * Binds the arguments of a query with their type instead of as strings, so numbers are compared
+ * as numbers and nothing is formatted. Used for a single query.
+ */
+final class TypedCursorFactory implements SQLiteDatabase.CursorFactory {
+
+    private final Object[] args;
+
+    TypedCursorFactory(Object[] args) {
+        this.args = args;
+    }
+
+    @Override
+    public Cursor newCursor(SQLiteDatabase db, SQLiteCursorDriver masterQuery, String editTable,
+                            SQLiteQuery query) {
+        bindArgs(query, args);
+        return new SQLiteCursor(masterQuery, editTable, query);
+    }
+
+    /**
+     * Bind every argument to the program, dates are bound as their time in milliseconds, booleans
+     * as 1 or 0 and enums as their code or ordinal, like the generated adapters store them.
+     */
+    static void bindArgs(SQLiteProgram program, Object[] args) {
+        for (int i = 0; i < args.length; i++) {
+            final int index = i + 1;
+            final Object arg = args[i];
+            if (arg == null) {
+                program.bindNull(index);
+            } else if (arg instanceof Long || arg instanceof Integer || arg instanceof Short
+                    || arg instanceof Byte) {
+                program.bindLong(index, ((Number) arg).longValue());
+            } else if (arg instanceof Double || arg instanceof Float) {
+                program.bindDouble(index, ((Number) arg).doubleValue());
+            } else if (arg instanceof Boolean) {
+                program.bindLong(index, (Boolean) arg ? 1 : 0);
+            } else if (arg instanceof Date) {
+                program.bindLong(index, ((Date) arg).getTime());
+            } else if (arg instanceof byte[]) {
+                program.bindBlob(index, (byte[]) arg);
+            } else if (arg instanceof CodedEnum) {
+                program.bindLong(index, ((CodedEnum) arg).getCode());
+            } else if (arg instanceof Enum) {
+                program.bindLong(index, ((Enum) arg).ordinal());
+            } else {
+                program.bindString(index, arg.toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tale.androiddb;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects inserts, updates and deletes of objects of any table and writes them in a single
+ * transaction:
+ * <pre>
+ * long[] ids = new UnitOfWork()
+ *     .insert(author)
+ *     .insert(book)
+ *     .delete(draft)
+ *     .flush(helper);
+ * </pre>
+ * Operations run in the order they were added. Inserted objects get the id of their row, so an
+ * object inserted later can refer to them, like the book to its author above. Each table compiles
+ * its insert and delete statements once and binds them for every object. When the flush fails
+ * nothing is written and the operations are kept, a successful flush clears them.
+ */
+public final class UnitOfWork {
+
+    private static final int INSERT = 0;
+    private static final int UPDATE = 1;
+    private static final int DELETE = 2;
+
+    private final List<Operation> operations = new ArrayList<Operation>();
+    private int insertCount;
+
+    /**
+     * Insert the object when flushed, its id is set once it is inserted.
+     */
+    public UnitOfWork insert(Object item) {
+        operations.add(new Operation(INSERT, item));
+        insertCount++;
+        return this;
+    }
+
+    /**
+     * Update the row of the object, found by its id, when flushed.
+     *
+     * @see DatabaseHelper#update(SQLiteOpenHelper, Object)
+     */
+    public UnitOfWork update(Object item) {
+        operations.add(new Operation(UPDATE, item));
+        return this;
+    }
+
+    /**
+     * Delete the row of the object, found by its id, when flushed.
+     */
+    public UnitOfWork delete(Object item) {
+        operations.add(new Operation(DELETE, item));
+        return this;
+    }
+
+    /**
+     * Write every operation in a single transaction, nested in the transaction running on the
+     * database if there is one.
+     *
+     * @param helper SQLiteOpenHelper object. Which will be used to open database
+     * @return The ids of the inserted objects, in the order they were added.
+     */
+    public long[] flush(SQLiteOpenHelper helper) {
+        final long[] ids = DatabaseHelper.runInTransaction(helper, new Transaction.Work<long[]>() {
+            @Override
+            public long[] run(Transaction transaction) {
+                return write(transaction.getDatabase());
+            }
+        });
+        operations.clear();
+        insertCount = 0;
+        return ids;
+    }
+
+    private long[] write(SQLiteDatabase database) {
+        final long[] ids = new long[insertCount];
+        final Map<Class<?>, SQLiteStatement> inserts = new HashMap<Class<?>, SQLiteStatement>();
+        final Map<Class<?>, SQLiteStatement> deletes = new HashMap<Class<?>, SQLiteStatement>();
+        int insertIndex = 0;
+        try {
+            for (Operation operation : operations) {
+                final Class<?> clazz = operation.item.getClass();
+                final TypeAdapter<Object> adapter = DatabaseHelper.getAdapter(clazz);
+                switch (operation.type) {
+                    case INSERT:
+                        SQLiteStatement insert = inserts.get(clazz);
+                        if (insert == null) {
+                            insert = database.compileStatement(adapter.getInsertStatement());
+                            inserts.put(clazz, insert);
+                        }
+                        ids[insertIndex++] = DatabaseHelper.insertRow(database, adapter, insert,
+                                operation.item);
+                        break;
+                    case UPDATE:
+                        DatabaseHelper.update(database, adapter, operation.item);
+                        break;
+                    default:
+                        SQLiteStatement delete = deletes.get(clazz);
+                        if (delete == null) {
+                            delete = database.compileStatement(
+                                    DatabaseHelper.getDeleteStatement(adapter));
+                            deletes.put(clazz, delete);
+                        }
+                        DatabaseHelper.deleteRow(database, adapter, delete, operation.item);
+                        break;
+                }
+            }
+        } finally {
+            for (SQLiteStatement statement : inserts.values()) {
+                statement.close();
+            }
+            for (SQLiteStatement statement : deletes.values()) {
+                statement.close();
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * The number of operations waiting to be flushed.
+     */
+    public int size() {
+        return operations.size();
+    }
+
+    private static final class Operation {
+        final int type;
+        final Object item;
+
+        Operation(int type, Object item) {
+            this.type = type;
+            this.item = item;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tale.androiddb;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.UUID;
+
+/**
+ * Converters the generated adapters use for common value types without a {@link Converter} set:
+ * UUIDs are stored as 16 bytes, decimals as an INTEGER scaled by {@link Field#scale()} and the
+ * java.sql date types as their time in milliseconds like {@link java.util.Date}.
+ */
+public final class ValueConverters {
+
+    public static final class UuidConverter implements TypeConverter<UUID, byte[]> {
+        @Override
+        public byte[] toColumn(UUID value) {
+            return ByteBuffer.allocate(16)
+                    .putLong(value.getMostSignificantBits())
+                    .putLong(value.getLeastSignificantBits())
+                    .array();
+        }
+
+        @Override
+        public UUID fromColumn(byte[] value) {
+            final ByteBuffer buffer = ByteBuffer.wrap(value);
+            return new UUID(buffer.getLong(), buffer.getLong());
+        }
+    }
+
+    /**
+     * Stores a decimal as its unscaled value at a fixed scale, so that columns compare and sort
+     * as integers. Values with more decimals than the scale, or too large for a long, throw an
+     * ArithmeticException instead of being rounded.
+     */
+    public static final class BigDecimalConverter implements TypeConverter<BigDecimal, Long> {
+        private static final int LONG_BITS = 63;
+
+        private final int scale;
+
+        public BigDecimalConverter(int scale) {
+            this.scale = scale;
+        }
+
+        @Override
+        public Long toColumn(BigDecimal value) {
+            final BigInteger unscaled = value.setScale(scale).unscaledValue();
+            if (unscaled.bitLength() > LONG_BITS) {
+                throw new ArithmeticException(value + " does not fit in a long at scale " + scale);
+            }
+            return unscaled.longValue();
+        }
+
+        @Override
+        public BigDecimal fromColumn(Long value) {
+            return BigDecimal.valueOf(value, scale);
+        }
+    }
+
+    public static final class SqlDateConverter implements TypeConverter<java.sql.Date, Long> {
+        @Override
+        public Long toColumn(java.sql.Date value) {
+            return value.getTime();
+        }
+
+        @Override
+        public java.sql.Date fromColumn(Long value) {
+            return new java.sql.Date(value);
+        }
+    }
+
+    public static final class TimeConverter implements TypeConverter<Time, Long> {
+        @Override
+        public Long toColumn(Time value) {
+            return value.getTime();
+        }
+
+        @Override
+        public Time fromColumn(Long value) {
+            return new Time(value);
+        }
+    }
+
+    /**
+     * Timestamps are stored to the millisecond, like dates
+     */
+    public static final class TimestampConverter implements TypeConverter<Timestamp, Long> {
+        @Override
+        public Long toColumn(Timestamp value) {
+            return value.getTime();
+        }
+
+        @Override
+        public Timestamp fromColumn(Long value) {
+            return new Timestamp(value);
+        }
+    }
+
+    private ValueConverters() {
+        throw new UnsupportedOperationException();
+    }
+}
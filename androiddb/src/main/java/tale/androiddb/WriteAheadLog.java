@@ -0,0 +1,202 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package tale.androiddb;
+
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.Build;
+import android.util.Log;
+
+import java.io.Closeable;
+import java.io.File;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a database in write-ahead logging mode. Android then keeps a pool of connections for the
+ * database: queries, like those of {@link DatabaseHelper#rawQuery} and {@link Query}, are read
+ * from a secondary connection while the primary one writes, instead of waiting for the write
+ * transaction to end. Enable it when the database is opened:
+ * <pre>
+ * &#64;Override public void onOpen(SQLiteDatabase db) {
+ *     writeAheadLog = WriteAheadLog.enable(db);
+ * }
+ * </pre>
+ * SQLite checkpoints the log on the commit that makes it grow past its limit, in the thread that
+ * committed. This turns that off and checkpoints in the background instead: every interval the
+ * log is checkpointed if it was written since the last check, or if the last checkpoint left
+ * frames behind. Android runs a checkpoint on the primary connection, writers would wait for it,
+ * so from Android 4.1 on checkpoints run on a connection of their own and writers go on while
+ * the log is copied. Reads done in a transaction still use the primary connection.
+ */
+public final class WriteAheadLog implements Closeable {
+
+    /**
+     * The default size the log is truncated back to after a checkpoint, in pages. The same as
+     * the size of SQLite's automatic checkpoints.
+     */
+    public static final int DEFAULT_CHECKPOINT_PAGES = 1000;
+
+    /**
+     * The default time between two checks of the log, in milliseconds.
+     */
+    public static final long DEFAULT_CHECK_INTERVAL_MILLIS = 1000;
+
+    private static final String TAG = "WriteAheadLog";
+
+    private final SQLiteDatabase database;
+    // Runs the checkpoints, the database itself when it can't be opened a second time
+    private final SQLiteDatabase checkpointDatabase;
+    private final File logFile;
+    private final ScheduledExecutorService executor;
+
+    // Only read and written by the executor thread
+    private long lastModified;
+    private boolean framesLeft;
+
+    private WriteAheadLog(SQLiteDatabase database, int checkpointPages, long checkIntervalMillis) {
+        this.database = database;
+        this.logFile = new File(database.getPath() + "-wal");
+        final long limitBytes = (long) checkpointPages * database.getPageSize();
+        // Android sets the limit again if it reopens the primary connection, which then goes
+        // back to checkpointing on commit as well
+        DatabaseUtils.longForQuery(database, "PRAGMA wal_autocheckpoint = 0", null);
+        // A log grown by a burst of writes is truncated back once it is checkpointed
+        DatabaseUtils.longForQuery(database, "PRAGMA journal_size_limit = " + limitBytes, null);
+        checkpointDatabase = openCheckpointDatabase(database);
+
+        executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                final Thread thread = new Thread(runnable, TAG);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        executor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                checkpointIfNeeded();
+            }
+        }, checkIntervalMillis, checkIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private static SQLiteDatabase openCheckpointDatabase(SQLiteDatabase database) {
+        // Opening the file without the flag would switch it back to a rollback journal
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN) {
+            return database;
+        }
+        try {
+            return SQLiteDatabase.openDatabase(database.getPath(), null,
+                    SQLiteDatabase.OPEN_READWRITE | SQLiteDatabase.ENABLE_WRITE_AHEAD_LOGGING);
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Checkpointing on the primary connection of " + database.getPath(), e);
+            return database;
+        }
+    }
+
+    /**
+     * Enable write-ahead logging with the default checkpoints.
+     *
+     * @return The log of the database, null if it can't be enabled, like for in memory databases.
+     * @see #enable(SQLiteDatabase, int, long, TimeUnit)
+     */
+    public static WriteAheadLog enable(SQLiteDatabase database) {
+        return enable(database, DEFAULT_CHECKPOINT_PAGES, DEFAULT_CHECK_INTERVAL_MILLIS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Enable write-ahead logging on the database and checkpoint the log in the background. Must
+     * not be called in a transaction.
+     *
+     * @param database        The database, usually given to SQLiteOpenHelper#onOpen.
+     * @param checkpointPages The size the log file is truncated back to after a checkpoint, in
+     *                        pages.
+     * @param checkInterval   The time between two checks of the log.
+     * @param unit            The unit of <b>checkInterval</b>.
+     * @return The log of the database, null if it can't be enabled, like for in memory databases.
+     */
+    public static WriteAheadLog enable(SQLiteDatabase database, int checkpointPages,
+                                       long checkInterval, TimeUnit unit) {
+        if (checkpointPages < 1) {
+            throw new IllegalArgumentException("checkpointPages must be at least 1");
+        }
+        if (checkInterval <= 0) {
+            throw new IllegalArgumentException("checkInterval must be positive");
+        }
+        if (!database.enableWriteAheadLogging()) {
+            return null;
+        }
+        return new WriteAheadLog(database, checkpointPages, unit.toMillis(checkInterval));
+    }
+
+    /**
+     * Copy the log into the database without waiting for readers or writers, on the calling
+     * thread. Writers are not blocked by it unless it runs on the primary connection, before
+     * Android 4.1.
+     *
+     * @return true if the whole log was copied, false if readers or writers kept part of it from
+     * being copied.
+     */
+    public boolean checkpoint() {
+        final Cursor cursor = checkpointDatabase.rawQuery("PRAGMA wal_checkpoint(PASSIVE)", null);
+        try {
+            // The columns are: busy, the frames in the log and the frames checkpointed
+            return cursor.moveToFirst() && cursor.getInt(0) == 0
+                    && cursor.getInt(1) == cursor.getInt(2);
+        } finally {
+            cursor.close();
+        }
+    }
+
+    private void checkpointIfNeeded() {
+        if (!database.isOpen()) {
+            close();
+            return;
+        }
+
+        // The length of the file says nothing, it is reused after each checkpoint. Writes are
+        // told by its time, the frames left behind by the result of the last checkpoint
+        final long modified = logFile.lastModified();
+        if (modified == lastModified && !framesLeft) {
+            return;
+        }
+        try {
+            lastModified = modified;
+            framesLeft = !checkpoint();
+        } catch (RuntimeException e) {
+            // The database may have been closed since it was checked, the next check stops
+            Log.e(TAG, "Error checkpointing " + database.getPath(), e);
+        }
+    }
+
+    /**
+     * Stop checkpointing the log in the background. The database stays in write-ahead logging
+     * mode.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        if (checkpointDatabase != database) {
+            checkpointDatabase.close();
+        }
+    }
+}
@@ -43,10 +43,9 @@ public class ExampleSqliteHelper extends SQLiteOpenHelper {
 
     @Override
     public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        // Simplistic solution, you will lose your data though, good for debug builds bad for prod
-        DatabaseHelper.dropTable(db, Author.class);
-        DatabaseHelper.dropTable(db, Book.class);
-        DatabaseHelper.dropTable(db, Chapter.class);
-        onCreate(db);
+        // Tables are altered in place, their rows are kept
+        DatabaseHelper.migrateTable(db, Author.class);
+        DatabaseHelper.migrateTable(db, Book.class);
+        DatabaseHelper.migrateTable(db, Chapter.class);
     }
 }
@@ -23,6 +23,9 @@ import android.database.sqlite.SQLiteOpenHelper;
 import android.os.Build;
 import android.os.StrictMode;
 
+import tale.androiddb.DatabaseHelper;
+import tale.androiddb.ShillelaghAdapterRegistry;
+
 @TargetApi(Build.VERSION_CODES.HONEYCOMB)
 public class ShillelaghApp extends Application {
 
@@ -46,6 +49,9 @@ public class ShillelaghApp extends Application {
                     .build());
         }
 
+        // Registering the generated registry up front means adapters are never looked up by
+        // reflection
+        DatabaseHelper.addAdapterRegistry(new ShillelaghAdapterRegistry());
         sqliteOpenHelper = new ExampleSqliteHelper(this);
     }
 
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package shillelagh.crud;
+
+import android.test.AndroidTestCase;
+
+import com.example.shillelagh.model.TestPrimitiveTable;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import tale.androiddb.DatabaseHelper;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class AdapterRegistryTest extends AndroidTestCase {
+
+    private static final int THREADS = 16;
+    private static final int LOOKUPS = 1000;
+
+    public void testWarmUpIsIdempotent() {
+        // Act
+        DatabaseHelper.warmUp();
+        DatabaseHelper.warmUp();
+
+        // Assert
+        assertThat(DatabaseHelper.getTableName(TestPrimitiveTable.class))
+                .isEqualTo("com_example_shillelagh_model_TestPrimitiveTable");
+    }
+
+    public void testConcurrentLookups() throws InterruptedException {
+        // Arrange
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(THREADS);
+        final AtomicInteger failures = new AtomicInteger();
+        for (int i = 0; i < THREADS; i++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int j = 0; j < LOOKUPS; j++) {
+                            DatabaseHelper.getTableName(TestPrimitiveTable.class);
+                        }
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+
+        // Act
+        start.countDown();
+        done.await();
+
+        // Assert
+        assertThat(failures.get()).isZero();
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package shillelagh.crud;
+
+
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteConstraintException;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.test.AndroidTestCase;
+
+import com.example.shillelagh.TestSQLiteOpenHelper;
+import com.example.shillelagh.model.TestIndexedTable;
+import com.example.shillelagh.model.TestPrimitiveTable;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import tale.androiddb.AsyncWriter;
+import tale.androiddb.DatabaseHelper;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static tale.androiddb.DatabaseHelper.getTableName;
+
+public class AsyncWriterTest extends AndroidTestCase {
+
+    private static final int THREADS = 8;
+    private static final int INSERTS = 100;
+
+    private SQLiteOpenHelper sqliteOpenHelper;
+    private AsyncWriter writer;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        sqliteOpenHelper = new TestSQLiteOpenHelper(getContext());
+        writer = new AsyncWriter(sqliteOpenHelper, 5, TimeUnit.MILLISECONDS, 100);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        writer.close();
+        getContext().deleteDatabase(TestSQLiteOpenHelper.DATABASE_NAME);
+        super.tearDown();
+    }
+
+    public void testInsertFromManyThreads() throws Exception {
+        // Arrange
+        final List<Future<Long>> futures = new ArrayList<Future<Long>>();
+        final CountDownLatch done = new CountDownLatch(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < INSERTS; j++) {
+                        final Future<Long> future = writer.insert(new TestPrimitiveTable());
+                        synchronized (futures) {
+                            futures.add(future);
+                        }
+                    }
+                    done.countDown();
+                }
+            }).start();
+        }
+
+        // Act
+        done.await();
+        final Set<Long> ids = new HashSet<Long>();
+        for (Future<Long> future : futures) {
+            ids.add(future.get());
+        }
+
+        // Assert
+        assertThat(ids).hasSize(THREADS * INSERTS);
+        assertThat(count(TestPrimitiveTable.class)).isEqualTo(THREADS * INSERTS);
+    }
+
+    public void testFailedOperationOnlyFailsItsFuture() throws Exception {
+        // Arrange
+        final Future<Long> first = writer.insert(new TestIndexedTable("a", "x", 1));
+        final Future<Long> duplicate = writer.insert(new TestIndexedTable("a", "x", 2));
+        final Future<Long> other = writer.insert(new TestIndexedTable("b", "x", 3));
+
+        // Act
+        assertThat(first.get()).isEqualTo(1L);
+        assertThat(other.get()).isNotNull();
+        try {
+            duplicate.get();
+        } catch (ExecutionException e) {
+            // Assert
+            assertThat(e.getCause()).isInstanceOf(SQLiteConstraintException.class);
+            assertThat(count(TestIndexedTable.class)).isEqualTo(2);
+            return;
+        }
+
+        throw new AssertionError("Expected Exception Not Thrown");
+    }
+
+    public void testOtherErrorFailsTheBatch() throws Exception {
+        // Arrange
+        final AsyncWriter batchWriter = new AsyncWriter(sqliteOpenHelper, 1, TimeUnit.SECONDS, 100);
+        final Future<Long> valid = batchWriter.insert(new TestPrimitiveTable());
+        // Not a table, writing it fails with something else than a constraint
+        final Future<Long> invalid = batchWriter.insert(new Object());
+        batchWriter.close();
+
+        // Act
+        try {
+            valid.get();
+        } catch (ExecutionException e) {
+            // Assert
+            assertThat(invalid.isDone()).isTrue();
+            assertThat(count(TestPrimitiveTable.class)).isEqualTo(0);
+            return;
+        }
+
+        throw new AssertionError("Expected Exception Not Thrown");
+    }
+
+    public void testUpdateAndDelete() throws Exception {
+        // Arrange
+        final long id = writer.insert(new TestIndexedTable("a", "x", 1)).get();
+        final TestIndexedTable row = DatabaseHelper.query(sqliteOpenHelper,
+                TestIndexedTable.class, "id = ?", String.valueOf(id)).get(0);
+        writer.insert(new TestIndexedTable("b", "x", 2));
+
+        // Act
+        final Future<Integer> updated = writer.update(row);
+        final Future<Integer> deleted = writer.delete(row);
+
+        // Assert
+        assertThat(updated.get()).isEqualTo(1);
+        assertThat(deleted.get()).isEqualTo(1);
+        assertThat(count(TestIndexedTable.class)).isEqualTo(1);
+    }
+
+    public void testCloseWritesQueuedOperations() throws Exception {
+        // Arrange
+        final Future<Long> queued = writer.insert(new TestPrimitiveTable());
+
+        // Act
+        writer.close();
+
+        // Assert
+        assertThat(queued.get()).isEqualTo(1L);
+        try {
+            writer.insert(new TestPrimitiveTable());
+        } catch (IllegalStateException e) {
+            return;
+        }
+
+        throw new AssertionError("Expected Exception Not Thrown");
+    }
+
+    private int count(Class<?> clazz) {
+        return (int) DatabaseUtils.longForQuery(sqliteOpenHelper.getReadableDatabase(),
+                "SELECT COUNT(*) FROM " + getTableName(clazz), null);
+    }
+}
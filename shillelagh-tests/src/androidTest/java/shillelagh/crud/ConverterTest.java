@@ -0,0 +1,114 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package shillelagh.crud;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.test.AndroidTestCase;
+
+import com.example.shillelagh.TestSQLiteOpenHelper;
+import com.example.shillelagh.model.TestConvertedTable;
+import com.example.shillelagh.model.TestConvertedTable.Money;
+import com.example.shillelagh.model.TestConvertedTable_Columns;
+
+import java.net.URI;
+import java.util.List;
+
+import tale.androiddb.DatabaseHelper;
+import tale.androiddb.Query;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static tale.androiddb.DatabaseHelper.getTableName;
+
+public class ConverterTest extends AndroidTestCase {
+
+    private SQLiteOpenHelper sqliteOpenHelper;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        sqliteOpenHelper = new TestSQLiteOpenHelper(getContext());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        getContext().deleteDatabase(TestSQLiteOpenHelper.DATABASE_NAME);
+        super.tearDown();
+    }
+
+    public void testStoresConvertedValues() {
+        // Arrange
+        TestConvertedTable row = new TestConvertedTable(new Money(1250),
+                URI.create("http://example.com/a"));
+
+        // Act
+        long id = DatabaseHelper.insert(sqliteOpenHelper, row);
+
+        // Assert
+        Cursor cursor = sqliteOpenHelper.getReadableDatabase().rawQuery(
+                "SELECT typeof(price), price, link FROM "
+                        + getTableName(TestConvertedTable.class) + " WHERE id = " + id, null);
+        assertThat(cursor.moveToFirst()).isTrue();
+        assertThat(cursor.getString(0)).isEqualTo("integer");
+        assertThat(cursor.getLong(1)).isEqualTo(1250);
+        assertThat(cursor.getString(2)).isEqualTo("http://example.com/a");
+        cursor.close();
+    }
+
+    public void testRoundTrip() {
+        // Arrange
+        DatabaseHelper.insert(sqliteOpenHelper, new TestConvertedTable(new Money(99),
+                URI.create("http://example.com/b")));
+
+        // Act
+        List<TestConvertedTable> rows = DatabaseHelper.query(sqliteOpenHelper,
+                TestConvertedTable.class, null);
+
+        // Assert
+        assertThat(rows.get(0).getPrice().getCents()).isEqualTo(99);
+        assertThat(rows.get(0).getLink()).isEqualTo(URI.create("http://example.com/b"));
+    }
+
+    public void testNullValues() {
+        // Arrange
+        DatabaseHelper.insert(sqliteOpenHelper, new TestConvertedTable(null, null));
+
+        // Act
+        List<TestConvertedTable> rows = DatabaseHelper.query(sqliteOpenHelper,
+                TestConvertedTable.class, null);
+
+        // Assert
+        assertThat(rows.get(0).getPrice()).isNull();
+        assertThat(rows.get(0).getLink()).isNull();
+    }
+
+    public void testQueryComparesConvertedValues() {
+        // Arrange
+        DatabaseHelper.insert(sqliteOpenHelper, new TestConvertedTable(new Money(100), null));
+        DatabaseHelper.insert(sqliteOpenHelper, new TestConvertedTable(new Money(500), null));
+
+        // Act
+        List<TestConvertedTable> rows = Query.from(TestConvertedTable.class)
+                .where(TestConvertedTable_Columns.price.gt(new Money(200)))
+                .list(sqliteOpenHelper);
+
+        // Assert
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0).getPrice().getCents()).isEqualTo(500);
+    }
+}
@@ -231,7 +231,7 @@ public class CreateTableTest extends AndroidTestCase {
                 getTableName(TestBlobs.class)), null);
 
         // Assert
-        assertThat(cursor.getCount()).isEqualTo(4);
+        assertThat(cursor.getCount()).isEqualTo(5);
 
         assertThat(cursor.moveToNext()).isTrue();
         assertThat(cursor.getString(TABLE_INFO_NAME_COLUMN)).isEqualTo("id");
@@ -257,6 +257,12 @@ public class CreateTableTest extends AndroidTestCase {
         assertThat(cursor.getString(TABLE_INFO_NULLABLE_COLUMN)).isEqualTo("0");
         assertThat(cursor.getString(TABLE_INFO_PRIMARAY_KEY_COLUMN)).isEqualTo("0");
 
+        assertThat(cursor.moveToNext()).isTrue();
+        assertThat(cursor.getString(TABLE_INFO_NAME_COLUMN)).isEqualTo("implicitByteArray");
+        assertThat(cursor.getString(TABLE_INFO_TYPE_COLUMN)).isEqualTo(SQL_BLOB);
+        assertThat(cursor.getString(TABLE_INFO_NULLABLE_COLUMN)).isEqualTo("0");
+        assertThat(cursor.getString(TABLE_INFO_PRIMARAY_KEY_COLUMN)).isEqualTo("0");
+
         assertThat(cursor.moveToNext()).isFalse();
         cursor.close();
     }
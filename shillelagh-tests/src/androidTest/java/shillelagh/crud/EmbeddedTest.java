@@ -0,0 +1,136 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package shillelagh.crud;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.test.AndroidTestCase;
+
+import com.example.shillelagh.TestSQLiteOpenHelper;
+import com.example.shillelagh.model.TestAddress;
+import com.example.shillelagh.model.TestEmbeddedTable;
+import com.example.shillelagh.model.TestEmbeddedTable_Columns;
+
+import java.util.List;
+
+import tale.androiddb.DatabaseHelper;
+import tale.androiddb.Query;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static tale.androiddb.DatabaseHelper.getTableName;
+
+public class EmbeddedTest extends AndroidTestCase {
+
+    private SQLiteOpenHelper sqliteOpenHelper;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        sqliteOpenHelper = new TestSQLiteOpenHelper(getContext());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        getContext().deleteDatabase(TestSQLiteOpenHelper.DATABASE_NAME);
+        super.tearDown();
+    }
+
+    public void testFieldsStoredInPrefixedColumns() {
+        // Arrange
+        TestEmbeddedTable row = new TestEmbeddedTable("Ada",
+                new TestAddress("Main Street", 12, "Oslo"), new TestAddress("Quay", 3, "Bergen"));
+
+        // Act
+        long id = DatabaseHelper.insert(sqliteOpenHelper, row);
+
+        // Assert
+        Cursor cursor = sqliteOpenHelper.getReadableDatabase().rawQuery(
+                "SELECT home_street, home_number, home_city, office_city FROM "
+                        + getTableName(TestEmbeddedTable.class) + " WHERE id = " + id, null);
+        assertThat(cursor.moveToFirst()).isTrue();
+        assertThat(cursor.getString(0)).isEqualTo("Main Street");
+        assertThat(cursor.getInt(1)).isEqualTo(12);
+        assertThat(cursor.getString(2)).isEqualTo("Oslo");
+        assertThat(cursor.getString(3)).isEqualTo("Bergen");
+        cursor.close();
+    }
+
+    public void testRoundTrip() {
+        // Arrange
+        DatabaseHelper.insert(sqliteOpenHelper, new TestEmbeddedTable("Ada",
+                new TestAddress("Main Street", 12, "Oslo"), null));
+
+        // Act
+        List<TestEmbeddedTable> rows = DatabaseHelper.query(sqliteOpenHelper,
+                TestEmbeddedTable.class, null);
+
+        // Assert
+        TestEmbeddedTable result = rows.get(0);
+        assertThat(result.getName()).isEqualTo("Ada");
+        assertThat(result.getHome().getStreet()).isEqualTo("Main Street");
+        assertThat(result.getHome().getNumber()).isEqualTo(12);
+        assertThat(result.getHome().getCity()).isEqualTo("Oslo");
+        assertThat(result.getWork()).isNull();
+    }
+
+    public void testQueryByEmbeddedColumn() {
+        // Arrange
+        DatabaseHelper.insert(sqliteOpenHelper, new TestEmbeddedTable("Ada",
+                new TestAddress("Main Street", 12, "Oslo"), null));
+        DatabaseHelper.insert(sqliteOpenHelper, new TestEmbeddedTable("Grace",
+                new TestAddress("Harbour Road", 1, "Bergen"), null));
+
+        // Act
+        List<TestEmbeddedTable> rows = Query.from(TestEmbeddedTable.class)
+                .where(TestEmbeddedTable_Columns.home_city.eq("Bergen"))
+                .list(sqliteOpenHelper);
+
+        // Assert
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0).getName()).isEqualTo("Grace");
+    }
+
+    public void testUpdateToNull() {
+        // Arrange
+        TestEmbeddedTable row = new TestEmbeddedTable("Ada",
+                new TestAddress("Main Street", 12, "Oslo"), null);
+        DatabaseHelper.insert(sqliteOpenHelper, row);
+        row = DatabaseHelper.query(sqliteOpenHelper, TestEmbeddedTable.class, null).get(0);
+
+        // Act
+        row.setHome(null);
+        DatabaseHelper.update(sqliteOpenHelper, row);
+
+        // Assert
+        List<TestEmbeddedTable> rows = DatabaseHelper.query(sqliteOpenHelper,
+                TestEmbeddedTable.class, null);
+        assertThat(rows.get(0).getHome()).isNull();
+    }
+
+    public void testEmbeddedColumnIndexed() {
+        // Act
+        Cursor cursor = sqliteOpenHelper.getReadableDatabase().rawQuery(
+                "SELECT name FROM sqlite_master WHERE type = 'index' AND tbl_name = ?",
+                new String[]{getTableName(TestEmbeddedTable.class)});
+
+        // Assert
+        assertThat(cursor.moveToFirst()).isTrue();
+        assertThat(cursor.getString(0)).endsWith("_home_city");
+        cursor.close();
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package shillelagh.crud;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.test.AndroidTestCase;
+
+import com.example.shillelagh.TestSQLiteOpenHelper;
+import com.example.shillelagh.model.TestEnumTable;
+import com.example.shillelagh.model.TestEnumTable.Color;
+import com.example.shillelagh.model.TestEnumTable.Priority;
+import com.example.shillelagh.model.TestEnumTable_Columns;
+
+import java.util.List;
+
+import tale.androiddb.DatabaseHelper;
+import tale.androiddb.Query;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static tale.androiddb.DatabaseHelper.getTableName;
+
+public class EnumTest extends AndroidTestCase {
+
+    private SQLiteOpenHelper sqliteOpenHelper;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        sqliteOpenHelper = new TestSQLiteOpenHelper(getContext());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        getContext().deleteDatabase(TestSQLiteOpenHelper.DATABASE_NAME);
+        super.tearDown();
+    }
+
+    public void testEnumColumnsAreIntegers() {
+        // Act
+        String sql = getCreateStatement(TestEnumTable.class);
+
+        // Assert
+        assertThat(sql).contains("color INTEGER").contains("priority INTEGER");
+    }
+
+    public void testStoresOrdinalsAndCodes() {
+        // Arrange
+        TestEnumTable row = new TestEnumTable(Color.BLUE, Priority.HIGH);
+
+        // Act
+        long id = DatabaseHelper.insert(sqliteOpenHelper, row);
+
+        // Assert
+        Cursor cursor = sqliteOpenHelper.getReadableDatabase().rawQuery(
+                "SELECT color, priority FROM " + getTableName(TestEnumTable.class)
+                        + " WHERE id = " + id, null);
+        assertThat(cursor.moveToFirst()).isTrue();
+        assertThat(cursor.getInt(0)).isEqualTo(Color.BLUE.ordinal());
+        assertThat(cursor.getInt(1)).isEqualTo(Priority.HIGH.getCode());
+        cursor.close();
+    }
+
+    public void testRoundTrip() {
+        // Arrange
+        DatabaseHelper.insert(sqliteOpenHelper, new TestEnumTable(Color.GREEN, Priority.LOW));
+
+        // Act
+        List<TestEnumTable> rows = DatabaseHelper.query(sqliteOpenHelper, TestEnumTable.class,
+                null);
+
+        // Assert
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0).getColor()).isEqualTo(Color.GREEN);
+        assertThat(rows.get(0).getPriority()).isEqualTo(Priority.LOW);
+    }
+
+    public void testNullEnums() {
+        // Arrange
+        DatabaseHelper.insert(sqliteOpenHelper, new TestEnumTable(null, null));
+
+        // Act
+        List<TestEnumTable> rows = DatabaseHelper.query(sqliteOpenHelper, TestEnumTable.class,
+                null);
+
+        // Assert
+        assertThat(rows.get(0).getColor()).isNull();
+        assertThat(rows.get(0).getPriority()).isNull();
+    }
+
+    public void testQueryByEnum() {
+        // Arrange
+        DatabaseHelper.insert(sqliteOpenHelper, new TestEnumTable(Color.RED, Priority.LOW));
+        DatabaseHelper.insert(sqliteOpenHelper, new TestEnumTable(Color.BLUE, Priority.HIGH));
+
+        // Act
+        List<TestEnumTable> rows = Query.from(TestEnumTable.class)
+                .where(TestEnumTable_Columns.priority.eq(Priority.HIGH))
+                .list(sqliteOpenHelper);
+
+        // Assert
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0).getColor()).isEqualTo(Color.BLUE);
+    }
+
+    private String getCreateStatement(Class<?> clazz) {
+        Cursor cursor = sqliteOpenHelper.getReadableDatabase().rawQuery(
+                "SELECT sql FROM sqlite_master WHERE type = 'table' AND name = ?",
+                new String[]{getTableName(clazz)});
+        try {
+            assertThat(cursor.moveToFirst()).isTrue();
+            return cursor.getString(0);
+        } finally {
+            cursor.close();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package shillelagh.crud;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.os.Build;
+import android.test.AndroidTestCase;
+
+import com.example.shillelagh.TestSQLiteOpenHelper;
+import com.example.shillelagh.model.TestPrimitiveTable;
+import com.example.shillelagh.model.TestRowIdTable;
+import com.example.shillelagh.model.TestWithoutRowIdTable;
+
+import java.util.Arrays;
+import java.util.List;
+
+import tale.androiddb.DatabaseHelper;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static tale.androiddb.DatabaseHelper.getTableName;
+
+public class IdStrategyTest extends AndroidTestCase {
+
+    /**
+     * WITHOUT ROWID tables need SQLite 3.8.2, shipped with Android 5.0
+     */
+    private static final int WITHOUT_ROWID_MIN_SDK = 21;
+
+    private SQLiteOpenHelper sqliteOpenHelper;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        sqliteOpenHelper = new TestSQLiteOpenHelper(getContext());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        getContext().deleteDatabase(TestSQLiteOpenHelper.DATABASE_NAME);
+        super.tearDown();
+    }
+
+    public void testAutoincrementIsTheDefault() {
+        // Act
+        String sql = getCreateStatement(TestPrimitiveTable.class);
+
+        // Assert
+        assertThat(sql).contains("id INTEGER PRIMARY KEY AUTOINCREMENT");
+    }
+
+    public void testRowIdTable() {
+        // Arrange
+        String sql = getCreateStatement(TestRowIdTable.class);
+
+        // Act
+        long first = DatabaseHelper.insert(sqliteOpenHelper, new TestRowIdTable("first"));
+        long second = DatabaseHelper.insert(sqliteOpenHelper, new TestRowIdTable("second"));
+
+        // Assert
+        assertThat(sql).contains("id INTEGER PRIMARY KEY").doesNotContain("AUTOINCREMENT");
+        assertThat(first).isEqualTo(1);
+        assertThat(second).isEqualTo(2);
+    }
+
+    public void testWithoutRowIdInsert() {
+        if (Build.VERSION.SDK_INT < WITHOUT_ROWID_MIN_SDK) {
+            return;
+        }
+
+        // Arrange
+        DatabaseHelper.createTable(sqliteOpenHelper.getWritableDatabase(),
+                TestWithoutRowIdTable.class);
+
+        // Act
+        long id = DatabaseHelper.insert(sqliteOpenHelper, new TestWithoutRowIdTable(42, "answer"));
+
+        // Assert
+        assertThat(id).isEqualTo(42);
+        assertThat(getCreateStatement(TestWithoutRowIdTable.class)).endsWith("WITHOUT ROWID");
+        List<TestWithoutRowIdTable> result = DatabaseHelper.query(sqliteOpenHelper,
+                TestWithoutRowIdTable.class, "code = ?", "42");
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getName()).isEqualTo("answer");
+    }
+
+    public void testWithoutRowIdInsertAll() {
+        if (Build.VERSION.SDK_INT < WITHOUT_ROWID_MIN_SDK) {
+            return;
+        }
+
+        // Arrange
+        DatabaseHelper.createTable(sqliteOpenHelper.getWritableDatabase(),
+                TestWithoutRowIdTable.class);
+
+        // Act
+        long[] ids = DatabaseHelper.insertAll(sqliteOpenHelper, Arrays.asList(
+                new TestWithoutRowIdTable(7, "seven"), new TestWithoutRowIdTable(3, "three")));
+
+        // Assert
+        assertThat(ids).isEqualTo(new long[]{7, 3});
+    }
+
+    private String getCreateStatement(Class<?> clazz) {
+        Cursor cursor = sqliteOpenHelper.getReadableDatabase().rawQuery(
+                "SELECT sql FROM sqlite_master WHERE type = 'table' AND name = ?",
+                new String[]{getTableName(clazz)});
+        try {
+            assertThat(cursor.moveToFirst()).isTrue();
+            return cursor.getString(0);
+        } finally {
+            cursor.close();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package shillelagh.crud;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.test.AndroidTestCase;
+
+import com.example.shillelagh.TestSQLiteOpenHelper;
+import com.example.shillelagh.model.TestIndexedTable;
+import com.example.shillelagh.model.TestOneToMany;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import tale.androiddb.DatabaseHelper;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static tale.androiddb.DatabaseHelper.getTableName;
+
+public class IndexTest extends AndroidTestCase {
+
+    private SQLiteOpenHelper sqliteOpenHelper;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        sqliteOpenHelper = new TestSQLiteOpenHelper(getContext());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        getContext().deleteDatabase(TestSQLiteOpenHelper.DATABASE_NAME);
+        super.tearDown();
+    }
+
+    public void testIndexesCreated() {
+        // Act
+        final String tableName = getTableName(TestIndexedTable.class);
+        List<String> indexes = getIndexNames(tableName);
+
+        // Assert
+        assertThat(indexes).contains(tableName + "_code", tableName + "_category",
+                tableName + "_category_rank");
+    }
+
+    public void testOneToManyParentColumnIndexed() {
+        // Act
+        final String tableName = getTableName(TestOneToMany.Child.class);
+        List<String> indexes = getIndexNames(tableName);
+
+        // Assert
+        assertThat(indexes).contains(
+                tableName + "_" + getTableName(TestOneToMany.class).toLowerCase());
+    }
+
+    public void testUniqueRejectsDuplicates() {
+        // Arrange
+        DatabaseHelper.insert(sqliteOpenHelper, new TestIndexedTable("a", "x", 1));
+
+        // Act
+        long id = DatabaseHelper.insert(sqliteOpenHelper, new TestIndexedTable("a", "y", 2));
+
+        // Assert
+        assertThat(id).isEqualTo(-1);
+    }
+
+    private List<String> getIndexNames(String tableName) {
+        final List<String> names = new ArrayList<String>();
+        final Cursor cursor = sqliteOpenHelper.getReadableDatabase().rawQuery(
+                "SELECT name FROM sqlite_master WHERE type = 'index' AND tbl_name = ?",
+                new String[]{tableName});
+        while (cursor.moveToNext()) {
+            names.add(cursor.getString(0));
+        }
+        cursor.close();
+        return names;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package shillelagh.crud;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.test.AndroidTestCase;
+
+import com.example.shillelagh.TestSQLiteOpenHelper;
+import com.example.shillelagh.model.TestJavaObjectsTable;
+import com.example.shillelagh.model.TestPrimitiveTable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import tale.androiddb.DatabaseHelper;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static tale.androiddb.DatabaseHelper.getTableName;
+
+public class InsertAllTest extends AndroidTestCase {
+
+    private SQLiteOpenHelper sqliteOpenHelper;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        sqliteOpenHelper = new TestSQLiteOpenHelper(getContext());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        getContext().deleteDatabase(TestSQLiteOpenHelper.DATABASE_NAME);
+        super.tearDown();
+    }
+
+    public void testInsertAll() {
+        // Arrange
+        final List<TestPrimitiveTable> rows = new ArrayList<TestPrimitiveTable>();
+        for (int i = 0; i < 100; i++) {
+            TestPrimitiveTable row = new TestPrimitiveTable();
+            row.setAnInt(i);
+            rows.add(row);
+        }
+
+        // Act
+        long[] ids = DatabaseHelper.insertAll(sqliteOpenHelper, rows);
+
+        // Assert
+        assertThat(ids.length).isEqualTo(rows.size());
+        Cursor cursor = sqliteOpenHelper.getReadableDatabase().rawQuery(
+                "SELECT id, anInt FROM " + getTableName(TestPrimitiveTable.class) + " ORDER BY id",
+                null);
+
+        assertThat(cursor.getCount()).isEqualTo(rows.size());
+        for (int i = 0; i < ids.length; i++) {
+            assertThat(cursor.moveToNext()).isTrue();
+            assertThat(cursor.getLong(0)).isEqualTo(ids[i]);
+            assertThat(cursor.getInt(1)).isEqualTo(i);
+        }
+        cursor.close();
+    }
+
+    public void testInsertAllInChunks() {
+        // Arrange
+        final List<TestPrimitiveTable> rows = new ArrayList<TestPrimitiveTable>();
+        for (int i = 0; i < 25; i++) {
+            rows.add(new TestPrimitiveTable());
+        }
+
+        // Act
+        long[] ids = DatabaseHelper.insertAll(sqliteOpenHelper, rows.iterator(), 10);
+
+        // Assert
+        assertThat(ids.length).isEqualTo(rows.size());
+        Cursor cursor = sqliteOpenHelper.getReadableDatabase().rawQuery(
+                "SELECT * FROM " + getTableName(TestPrimitiveTable.class), null);
+        assertThat(cursor.getCount()).isEqualTo(rows.size());
+        cursor.close();
+    }
+
+    public void testInsertAllMixedTables() {
+        // Arrange
+        final TestJavaObjectsTable javaObjects = new TestJavaObjectsTable();
+        javaObjects.setaString("test");
+        final TestPrimitiveTable primitives = new TestPrimitiveTable();
+
+        // Act
+        long[] ids = DatabaseHelper.insertAll(sqliteOpenHelper,
+                Arrays.<Object>asList(javaObjects, primitives, javaObjects));
+
+        // Assert
+        assertThat(ids).isEqualTo(new long[]{1, 1, 2});
+    }
+}
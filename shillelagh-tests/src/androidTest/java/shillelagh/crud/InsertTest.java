@@ -29,12 +29,11 @@ import com.example.shillelagh.model.TestOneToMany;
 import com.example.shillelagh.model.TestOneToOne;
 import com.example.shillelagh.model.TestPrimitiveTable;
 
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
-import java.io.ObjectInputStream;
 import java.util.Arrays;
 import java.util.Date;
 
+import tale.androiddb.BlobCodecs;
+import tale.androiddb.BlobReader;
 import tale.androiddb.Shillelagh;
 
 import static org.fest.assertions.api.Assertions.assertThat;
@@ -161,7 +160,7 @@ public class InsertTest extends AndroidTestCase {
         cursor.close();
     }
 
-    public void testInsertBlobs() throws IOException, ClassNotFoundException {
+    public void testInsertBlobs() {
         // Arrange
         final Byte[] expectedByteArray = new Byte[5];
         for (byte i = 0; i < expectedByteArray.length; i++) {
@@ -177,6 +176,7 @@ public class InsertTest extends AndroidTestCase {
         row.setaByteArray(expectedByteArray);
         row.setAnotherByteArray(expectedOtherByteArray);
         row.setaTestBlobObject(expectedBlobObject);
+        row.setImplicitByteArray(expectedOtherByteArray);
 
         // Act
         shillelagh.insert(row);
@@ -188,10 +188,14 @@ public class InsertTest extends AndroidTestCase {
         assertThat(cursor.getCount()).isEqualTo(1);
         assertThat(cursor.moveToFirst()).isTrue();
         assertThat(cursor.getLong(0)).isEqualTo(1);
-        assertThat(this.<Byte[]>deserialize(cursor.getBlob(1))).isEqualTo(expectedByteArray);
+        assertThat(BlobCodecs.isSerialized(cursor.getBlob(1))).isFalse();
+        assertThat(BlobCodecs.decodeBoxedByteArray(cursor.getBlob(1)))
+                .isEqualTo(expectedByteArray);
         assertThat(cursor.getBlob(2)).isEqualTo(expectedOtherByteArray);
-        TestBlobs.TestBlobObject resultBlob = deserialize(cursor.getBlob(3));
-        assertThat(resultBlob).isEqualsToByComparingFields(expectedBlobObject);
+        BlobReader reader = new BlobReader(cursor.getBlob(3));
+        assertThat(reader.readString()).isEqualTo(expectedBlobObject.testString);
+        // byte[] fields are stored as is without isBlob as well
+        assertThat(cursor.getBlob(4)).isEqualTo(expectedOtherByteArray);
 
         assertThat(cursor.moveToNext()).isFalse();
         cursor.close();
@@ -298,12 +302,5 @@ public class InsertTest extends AndroidTestCase {
         throw new AssertionError("Expected Exception Not Thrown");
     }
 
-    @SuppressWarnings("unchecked")
-    private <K> K deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
-        ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(bytes);
-        ObjectInputStream objectInputStream = new ObjectInputStream(byteArrayInputStream);
-        return (K) objectInputStream.readObject();
-    }
-
     // TODO Tests for null values
 }
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package shillelagh.crud;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.test.AndroidTestCase;
+
+import com.example.shillelagh.TestSQLiteOpenHelper;
+import com.example.shillelagh.model.TestOneToMany;
+import com.example.shillelagh.model.TestPrimitiveTable;
+import com.example.shillelagh.model.TestPrimitiveTable_Columns;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import tale.androiddb.CursorIterator;
+import tale.androiddb.DatabaseHelper;
+import tale.androiddb.Query;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static tale.androiddb.DatabaseHelper.getTableName;
+
+public class IterateTest extends AndroidTestCase {
+
+    private SQLiteOpenHelper sqliteOpenHelper;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        sqliteOpenHelper = new TestSQLiteOpenHelper(getContext());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        getContext().deleteDatabase(TestSQLiteOpenHelper.DATABASE_NAME);
+        super.tearDown();
+    }
+
+    public void testIterateEveryRow() {
+        // Arrange
+        insertPrimitives(1200);
+        final Cursor cursor = sqliteOpenHelper.getReadableDatabase().rawQuery(
+                "SELECT * FROM " + getTableName(TestPrimitiveTable.class) + " ORDER BY id", null);
+
+        // Act
+        int count = 0;
+        for (TestPrimitiveTable row : DatabaseHelper.iterate(cursor, TestPrimitiveTable.class)) {
+            assertThat(row.getAnInt()).isEqualTo(count++);
+        }
+
+        // Assert
+        assertThat(count).isEqualTo(1200);
+        assertThat(cursor.isClosed()).isTrue();
+    }
+
+    public void testIterateNothing() {
+        // Act
+        CursorIterator<TestPrimitiveTable> iterator = DatabaseHelper.iterate(sqliteOpenHelper,
+                TestPrimitiveTable.class, null);
+
+        // Assert
+        assertThat(iterator.hasNext()).isFalse();
+    }
+
+    public void testCloseBeforeTheEnd() {
+        // Arrange
+        insertPrimitives(10);
+        final Cursor cursor = sqliteOpenHelper.getReadableDatabase().rawQuery(
+                "SELECT * FROM " + getTableName(TestPrimitiveTable.class), null);
+        final CursorIterator<TestPrimitiveTable> iterator =
+                DatabaseHelper.iterate(cursor, TestPrimitiveTable.class);
+        iterator.next();
+
+        // Act
+        iterator.close();
+
+        // Assert
+        assertThat(cursor.isClosed()).isTrue();
+        assertThat(iterator.hasNext()).isFalse();
+    }
+
+    public void testIterateQuery() {
+        // Arrange
+        insertPrimitives(10);
+
+        // Act
+        List<TestPrimitiveTable> result = new ArrayList<TestPrimitiveTable>();
+        for (TestPrimitiveTable row : Query.from(TestPrimitiveTable.class)
+                .where(TestPrimitiveTable_Columns.anInt.ge(5))
+                .iterate(sqliteOpenHelper)) {
+            result.add(row);
+        }
+
+        // Assert
+        assertThat(result).hasSize(5);
+    }
+
+    public void testIterateLoadsChildren() {
+        // Arrange
+        final int parentCount = 600;
+        for (int i = 0; i < parentCount; i++) {
+            final long parentId = DatabaseHelper.insert(sqliteOpenHelper,
+                    new TestOneToMany(String.valueOf(i), null));
+            final long childId = DatabaseHelper.insert(sqliteOpenHelper,
+                    new TestOneToMany.Child(String.valueOf(i), 0));
+            final ContentValues values = new ContentValues();
+            values.put(getTableName(TestOneToMany.class).toLowerCase(), parentId);
+            DatabaseHelper.update(sqliteOpenHelper, TestOneToMany.Child.class, values, "id = ?",
+                    String.valueOf(childId));
+        }
+
+        // Act
+        int count = 0;
+        for (TestOneToMany parent : DatabaseHelper.iterate(sqliteOpenHelper,
+                TestOneToMany.class, null)) {
+            // Assert
+            assertThat(parent.getChildren()).hasSize(1);
+            assertThat(parent.getChildren().get(0).getTestString())
+                    .isEqualTo(parent.getSomeValue());
+            count++;
+        }
+        assertThat(count).isEqualTo(parentCount);
+    }
+
+    private void insertPrimitives(int count) {
+        final List<TestPrimitiveTable> rows = new ArrayList<TestPrimitiveTable>();
+        for (int i = 0; i < count; i++) {
+            TestPrimitiveTable row = new TestPrimitiveTable();
+            row.setAnInt(i);
+            rows.add(row);
+        }
+        DatabaseHelper.insertAll(sqliteOpenHelper, rows);
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package shillelagh.crud;
+
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.test.AndroidTestCase;
+
+import com.example.shillelagh.TestSQLiteOpenHelper;
+import com.example.shillelagh.model.TestOneToMany;
+import com.example.shillelagh.model.TestOneToOne;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import tale.androiddb.DatabaseHelper;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static tale.androiddb.DatabaseHelper.getTableName;
+
+public class LoadRelationsTest extends AndroidTestCase {
+
+    private SQLiteOpenHelper sqliteOpenHelper;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        sqliteOpenHelper = new TestSQLiteOpenHelper(getContext());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        getContext().deleteDatabase(TestSQLiteOpenHelper.DATABASE_NAME);
+        super.tearDown();
+    }
+
+    public void testLoadOneToMany() {
+        // Arrange
+        DatabaseHelper.insert(sqliteOpenHelper, new TestOneToMany("first",
+                Arrays.asList(new TestOneToMany.Child("a", 0), new TestOneToMany.Child("c", 0))));
+        DatabaseHelper.insert(sqliteOpenHelper, new TestOneToMany("second",
+                Collections.singletonList(new TestOneToMany.Child("b", 0))));
+
+        // Act
+        List<TestOneToMany> result = DatabaseHelper.rawQuery(sqliteOpenHelper,
+                TestOneToMany.class,
+                "SELECT * FROM " + getTableName(TestOneToMany.class) + " ORDER BY id");
+
+        // Assert
+        assertThat(result).hasSize(2);
+        List<TestOneToMany.Child> firstChildren = result.get(0).getChildren();
+        assertThat(firstChildren).hasSize(2);
+        assertThat(firstChildren.get(0).getTestString()).isEqualTo("a");
+        assertThat(firstChildren.get(1).getTestString()).isEqualTo("c");
+        List<TestOneToMany.Child> secondChildren = result.get(1).getChildren();
+        assertThat(secondChildren).hasSize(1);
+        assertThat(secondChildren.get(0).getTestString()).isEqualTo("b");
+    }
+
+    public void testInsertAllWritesChildren() {
+        // Arrange
+        final List<TestOneToMany> parents = new ArrayList<TestOneToMany>();
+        for (int i = 0; i < 3; i++) {
+            parents.add(new TestOneToMany(String.valueOf(i),
+                    Arrays.asList(new TestOneToMany.Child("x" + i, 1),
+                            new TestOneToMany.Child("y" + i, 2))));
+        }
+
+        // Act
+        final long[] ids = DatabaseHelper.insertAll(sqliteOpenHelper, parents);
+
+        // Assert
+        final long childCount = DatabaseUtils.longForQuery(
+                sqliteOpenHelper.getReadableDatabase(),
+                "SELECT COUNT(*) FROM " + getTableName(TestOneToMany.Child.class) + " WHERE "
+                        + getTableName(TestOneToMany.class).toLowerCase() + " = ?",
+                new String[]{String.valueOf(ids[1])});
+        assertThat(childCount).isEqualTo(2);
+        List<TestOneToMany> result = DatabaseHelper.rawQuery(sqliteOpenHelper,
+                TestOneToMany.class,
+                "SELECT * FROM " + getTableName(TestOneToMany.class) + " ORDER BY id");
+        assertThat(result.get(2).getChildren().get(1).getTestString()).isEqualTo("y2");
+    }
+
+    public void testLoadOneToManyWithoutChildren() {
+        // Arrange
+        DatabaseHelper.insert(sqliteOpenHelper, new TestOneToMany("lonely", null));
+
+        // Act
+        List<TestOneToMany> result = DatabaseHelper.rawQuery(sqliteOpenHelper,
+                TestOneToMany.class, "SELECT * FROM " + getTableName(TestOneToMany.class));
+
+        // Assert
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getChildren()).isEmpty();
+    }
+
+    public void testLoadOneToManyMoreParentsThanQueryArguments() {
+        // Arrange
+        final int parentCount = 1200;
+        for (int i = 0; i < parentCount; i++) {
+            DatabaseHelper.insert(sqliteOpenHelper, new TestOneToMany(String.valueOf(i),
+                    Collections.singletonList(new TestOneToMany.Child(String.valueOf(i), 0))));
+        }
+
+        // Act
+        List<TestOneToMany> result = DatabaseHelper.rawQuery(sqliteOpenHelper,
+                TestOneToMany.class, "SELECT * FROM " + getTableName(TestOneToMany.class));
+
+        // Assert
+        assertThat(result).hasSize(parentCount);
+        for (TestOneToMany parent : result) {
+            assertThat(parent.getChildren()).hasSize(1);
+        }
+    }
+
+    public void testLoadOneToOne() {
+        // Arrange
+        final TestOneToOne.Child child = new TestOneToOne.Child("child");
+        child.setId(DatabaseHelper.insert(sqliteOpenHelper, child));
+        DatabaseHelper.insert(sqliteOpenHelper, new TestOneToOne(child));
+        DatabaseHelper.insert(sqliteOpenHelper, new TestOneToOne(null));
+
+        // Act
+        List<TestOneToOne> result = DatabaseHelper.query(sqliteOpenHelper, TestOneToOne.class,
+                "id > ?", "0");
+
+        // Assert
+        assertThat(result).hasSize(2);
+        TestOneToOne.Child resultChild = result.get(0).getChild();
+        assertThat(resultChild.getId()).isEqualTo(child.getId());
+        assertThat(resultChild.getChildName()).isEqualTo("child");
+        assertThat(result.get(1).getChild()).isNull();
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package shillelagh.crud;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.test.AndroidTestCase;
+
+import com.example.shillelagh.TestSQLiteOpenHelper;
+import com.example.shillelagh.model.TestIndexedTable;
+import com.example.shillelagh.model.TestTrackedTable;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import tale.androiddb.DatabaseHelper;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static tale.androiddb.DatabaseHelper.getTableName;
+
+public class MigrateTableTest extends AndroidTestCase {
+
+    private SQLiteOpenHelper sqliteOpenHelper;
+    private SQLiteDatabase db;
+    private String tableName;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        sqliteOpenHelper = new TestSQLiteOpenHelper(getContext());
+        db = sqliteOpenHelper.getWritableDatabase();
+        tableName = getTableName(TestTrackedTable.class);
+        DatabaseHelper.dropTable(db, TestTrackedTable.class);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        getContext().deleteDatabase(TestSQLiteOpenHelper.DATABASE_NAME);
+        super.tearDown();
+    }
+
+    public void testCreateMissingTable() {
+        // Act
+        DatabaseHelper.migrateTable(db, TestTrackedTable.class);
+
+        // Assert
+        assertThat(getColumnTypes(tableName)).hasSize(4);
+    }
+
+    public void testAddColumns() {
+        // Arrange
+        db.execSQL("CREATE TABLE " + tableName
+                + " (id INTEGER PRIMARY KEY AUTOINCREMENT, title TEXT)");
+        db.execSQL("INSERT INTO " + tableName + " (title) VALUES ('kept')");
+
+        // Act
+        DatabaseHelper.migrateTable(db, TestTrackedTable.class);
+
+        // Assert
+        Map<String, String> columnTypes = getColumnTypes(tableName);
+        assertThat(columnTypes.get("rank")).isEqualTo("INTEGER");
+        assertThat(columnTypes.get("image")).isEqualTo("BLOB");
+        List<TestTrackedTable> result = DatabaseHelper.query(sqliteOpenHelper,
+                TestTrackedTable.class, null);
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getTitle()).isEqualTo("kept");
+    }
+
+    public void testRebuildChangedTable() {
+        // Arrange
+        db.execSQL("CREATE TABLE " + tableName + " (id INTEGER PRIMARY KEY AUTOINCREMENT, "
+                + "title TEXT, rank TEXT, obsolete TEXT)");
+        db.execSQL("INSERT INTO " + tableName
+                + " (title, rank, obsolete) VALUES ('kept', '3', 'x')");
+
+        // Act
+        DatabaseHelper.migrateTable(db, TestTrackedTable.class);
+
+        // Assert
+        Map<String, String> columnTypes = getColumnTypes(tableName);
+        assertThat(columnTypes).hasSize(4);
+        assertThat(columnTypes.get("rank")).isEqualTo("INTEGER");
+        assertThat(columnTypes.containsKey("obsolete")).isFalse();
+        List<TestTrackedTable> result = DatabaseHelper.query(sqliteOpenHelper,
+                TestTrackedTable.class, null);
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getTitle()).isEqualTo("kept");
+        assertThat(result.get(0).getRank()).isEqualTo(3);
+    }
+
+    public void testCreateMissingIndexes() {
+        // Arrange
+        final String indexedTableName = getTableName(TestIndexedTable.class);
+        DatabaseHelper.dropTable(db, TestIndexedTable.class);
+        db.execSQL("CREATE TABLE " + indexedTableName + " (id INTEGER PRIMARY KEY AUTOINCREMENT, "
+                + "code TEXT, category TEXT, rank INTEGER)");
+
+        // Act
+        DatabaseHelper.migrateTable(db, TestIndexedTable.class);
+
+        // Assert
+        Cursor cursor = db.rawQuery(
+                "SELECT name FROM sqlite_master WHERE type = 'index' AND tbl_name = ?",
+                new String[]{indexedTableName});
+        assertThat(cursor.getCount()).isEqualTo(3);
+        cursor.close();
+    }
+
+    private Map<String, String> getColumnTypes(String table) {
+        final Map<String, String> columnTypes = new HashMap<String, String>();
+        Cursor cursor = db.rawQuery("PRAGMA table_info(" + table + ")", null);
+        while (cursor.moveToNext()) {
+            columnTypes.put(cursor.getString(cursor.getColumnIndex("name")),
+                    cursor.getString(cursor.getColumnIndex("type")));
+        }
+        cursor.close();
+        return columnTypes;
+    }
+}
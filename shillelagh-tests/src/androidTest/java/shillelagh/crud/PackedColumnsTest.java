@@ -0,0 +1,111 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package shillelagh.crud;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.test.AndroidTestCase;
+
+import com.example.shillelagh.TestSQLiteOpenHelper;
+import com.example.shillelagh.model.TestPackedTable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import tale.androiddb.DatabaseHelper;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static tale.androiddb.DatabaseHelper.getTableName;
+
+public class PackedColumnsTest extends AndroidTestCase {
+
+    private SQLiteOpenHelper sqliteOpenHelper;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        sqliteOpenHelper = new TestSQLiteOpenHelper(getContext());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        getContext().deleteDatabase(TestSQLiteOpenHelper.DATABASE_NAME);
+        super.tearDown();
+    }
+
+    public void testRoundTrip() {
+        // Arrange
+        TestPackedTable row = new TestPackedTable(new int[]{1, -2, 3}, new long[]{Long.MAX_VALUE},
+                new float[]{0.5f, 1.5f}, new double[]{Math.PI}, new Byte[]{1, 2},
+                Arrays.asList(7, 8, 9), Arrays.asList(10L, 11L), Arrays.asList(0.25, 0.75));
+
+        // Act
+        DatabaseHelper.insert(sqliteOpenHelper, row);
+        List<TestPackedTable> rows = DatabaseHelper.query(sqliteOpenHelper,
+                TestPackedTable.class, null);
+
+        // Assert
+        TestPackedTable result = rows.get(0);
+        assertThat(result.getInts()).isEqualTo(new int[]{1, -2, 3});
+        assertThat(result.getLongs()).isEqualTo(new long[]{Long.MAX_VALUE});
+        assertThat(result.getFloats()).isEqualTo(new float[]{0.5f, 1.5f});
+        assertThat(result.getDoubles()).isEqualTo(new double[]{Math.PI});
+        assertThat(result.getBoxedBytes()).isEqualTo(new Byte[]{1, 2});
+        assertThat(result.getIntegerList()).containsExactly(7, 8, 9);
+        assertThat(result.getLongList()).containsExactly(10L, 11L);
+        assertThat(result.getDoubleList()).containsExactly(0.25, 0.75);
+    }
+
+    public void testStoredLittleEndianBehindHeader() {
+        // Arrange
+        TestPackedTable row = new TestPackedTable(new int[]{1, 256}, null, null, null, null,
+                Arrays.asList(1, 256), null, null);
+
+        // Act
+        long id = DatabaseHelper.insert(sqliteOpenHelper, row);
+
+        // Assert
+        Cursor cursor = sqliteOpenHelper.getReadableDatabase().rawQuery(
+                "SELECT ints, integerList FROM " + getTableName(TestPackedTable.class)
+                        + " WHERE id = " + id, null);
+        assertThat(cursor.moveToFirst()).isTrue();
+        byte[] expected = {1, 1, 0, 0, 0, 0, 1, 0, 0};
+        assertThat(cursor.getBlob(0)).isEqualTo(expected);
+        assertThat(cursor.getBlob(1)).isEqualTo(expected);
+        cursor.close();
+    }
+
+    public void testNullAndEmptyValues() {
+        // Arrange
+        TestPackedTable row = new TestPackedTable(new int[0], null, null, null, null,
+                new ArrayList<Integer>(), null, null);
+
+        // Act
+        DatabaseHelper.insert(sqliteOpenHelper, row);
+        List<TestPackedTable> rows = DatabaseHelper.query(sqliteOpenHelper,
+                TestPackedTable.class, null);
+
+        // Assert
+        TestPackedTable result = rows.get(0);
+        assertThat(result.getInts()).isEmpty();
+        assertThat(result.getIntegerList()).isEmpty();
+        assertThat(result.getLongs()).isNull();
+        assertThat(result.getLongList()).isNull();
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package shillelagh.crud;
+
+import android.database.sqlite.SQLiteOpenHelper;
+import android.test.AndroidTestCase;
+
+import com.example.shillelagh.TestSQLiteOpenHelper;
+import com.example.shillelagh.model.TestJavaObjectsTable;
+import com.example.shillelagh.model.TestStringCount;
+
+import java.util.List;
+
+import tale.androiddb.DatabaseHelper;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static tale.androiddb.DatabaseHelper.getTableName;
+
+public class QueryResultTest extends AndroidTestCase {
+
+    private SQLiteOpenHelper sqliteOpenHelper;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        sqliteOpenHelper = new TestSQLiteOpenHelper(getContext());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        getContext().deleteDatabase(TestSQLiteOpenHelper.DATABASE_NAME);
+        super.tearDown();
+    }
+
+    public void testMapQueryResult() {
+        // Arrange
+        insert("a");
+        insert("b");
+        insert("a");
+
+        // Act
+        List<TestStringCount> result = DatabaseHelper.rawQuery(sqliteOpenHelper,
+                TestStringCount.class, "SELECT aString, COUNT(*) AS count FROM "
+                        + getTableName(TestJavaObjectsTable.class)
+                        + " GROUP BY aString ORDER BY aString");
+
+        // Assert
+        assertThat(result).hasSize(2);
+        assertThat(result.get(0).getaString()).isEqualTo("a");
+        assertThat(result.get(0).getCount()).isEqualTo(2);
+        assertThat(result.get(1).getaString()).isEqualTo("b");
+        assertThat(result.get(1).getCount()).isEqualTo(1);
+    }
+
+    public void testMapQueryResultMissingColumns() {
+        // Arrange
+        insert("a");
+
+        // Act
+        List<TestStringCount> result = DatabaseHelper.rawQuery(sqliteOpenHelper,
+                TestStringCount.class,
+                "SELECT aString FROM " + getTableName(TestJavaObjectsTable.class));
+
+        // Assert
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getaString()).isEqualTo("a");
+        assertThat(result.get(0).getCount()).isEqualTo(0);
+    }
+
+    private void insert(String aString) {
+        final TestJavaObjectsTable row = new TestJavaObjectsTable();
+        row.setaString(aString);
+        DatabaseHelper.insert(sqliteOpenHelper, row);
+    }
+}
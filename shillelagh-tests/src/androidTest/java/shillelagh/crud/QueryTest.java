@@ -0,0 +1,193 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package shillelagh.crud;
+
+import android.database.sqlite.SQLiteOpenHelper;
+import android.test.AndroidTestCase;
+
+import com.example.shillelagh.TestSQLiteOpenHelper;
+import com.example.shillelagh.model.TestJavaObjectsTable;
+import com.example.shillelagh.model.TestJavaObjectsTable_Columns;
+import com.example.shillelagh.model.TestPrimitiveTable;
+import com.example.shillelagh.model.TestPrimitiveTable_Columns;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import tale.androiddb.DatabaseHelper;
+import tale.androiddb.Query;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+
+public class QueryTest extends AndroidTestCase {
+
+    private SQLiteOpenHelper sqliteOpenHelper;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        sqliteOpenHelper = new TestSQLiteOpenHelper(getContext());
+        for (int i = 0; i < 10; i++) {
+            final TestPrimitiveTable row = new TestPrimitiveTable();
+            row.setAnInt(i);
+            row.setaBoolean(i % 2 == 0);
+            DatabaseHelper.insert(sqliteOpenHelper, row);
+        }
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        getContext().deleteDatabase(TestSQLiteOpenHelper.DATABASE_NAME);
+        super.tearDown();
+    }
+
+    public void testWhereOrderByLimit() {
+        // Act
+        List<TestPrimitiveTable> result = Query.from(TestPrimitiveTable.class)
+                .where(TestPrimitiveTable_Columns.anInt.between(2, 8),
+                        TestPrimitiveTable_Columns.aBoolean.eq(true))
+                .orderBy(TestPrimitiveTable_Columns.anInt.desc())
+                .limit(2)
+                .offset(1)
+                .list(sqliteOpenHelper);
+
+        // Assert
+        assertThat(result).hasSize(2);
+        assertThat(result.get(0).getAnInt()).isEqualTo(6);
+        assertThat(result.get(1).getAnInt()).isEqualTo(4);
+    }
+
+    public void testIn() {
+        // Act
+        List<TestPrimitiveTable> result = Query.from(TestPrimitiveTable.class)
+                .where(TestPrimitiveTable_Columns.anInt.in(1, 3, 42))
+                .orderBy(TestPrimitiveTable_Columns.anInt.asc())
+                .list(sqliteOpenHelper);
+
+        // Assert
+        assertThat(result).hasSize(2);
+        assertThat(result.get(0).getAnInt()).isEqualTo(1);
+        assertThat(result.get(1).getAnInt()).isEqualTo(3);
+    }
+
+    public void testInCollection() {
+        // Act
+        List<TestPrimitiveTable> result = Query.from(TestPrimitiveTable.class)
+                .where(TestPrimitiveTable_Columns.anInt.in(Arrays.asList(3, 42)))
+                .list(sqliteOpenHelper);
+
+        // Assert
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getAnInt()).isEqualTo(3);
+    }
+
+    public void testInEmptyCollection() {
+        // Act
+        List<TestPrimitiveTable> result = Query.from(TestPrimitiveTable.class)
+                .where(TestPrimitiveTable_Columns.anInt.in(Collections.<Integer>emptyList()))
+                .list(sqliteOpenHelper);
+
+        // Assert
+        assertThat(result).isEmpty();
+    }
+
+    public void testOrAndCount() {
+        // Act
+        long count = Query.from(TestPrimitiveTable.class)
+                .where(TestPrimitiveTable_Columns.anInt.lt(2)
+                        .or(TestPrimitiveTable_Columns.anInt.ge(8)))
+                .count(sqliteOpenHelper);
+
+        // Assert
+        assertThat(count).isEqualTo(4);
+    }
+
+    public void testNoMatch() {
+        // Act
+        List<TestPrimitiveTable> result = Query.from(TestPrimitiveTable.class)
+                .where(TestPrimitiveTable_Columns.anInt.gt(100))
+                .list(sqliteOpenHelper);
+        TestPrimitiveTable first = Query.from(TestPrimitiveTable.class)
+                .where(TestPrimitiveTable_Columns.anInt.gt(100))
+                .first(sqliteOpenHelper);
+
+        // Assert
+        assertThat(result).isEmpty();
+        assertThat(first).isNull();
+    }
+
+    public void testDateBoundAsTime() {
+        // Arrange
+        final TestJavaObjectsTable row = new TestJavaObjectsTable();
+        row.setaString("dated");
+        row.setaDate(new Date(1000));
+        DatabaseHelper.insert(sqliteOpenHelper, row);
+
+        // Act
+        TestJavaObjectsTable result = Query.from(TestJavaObjectsTable.class)
+                .where(TestJavaObjectsTable_Columns.aDate.lt(new Date(2000)))
+                .first(sqliteOpenHelper);
+
+        // Assert
+        assertThat(result.getaString()).isEqualTo("dated");
+    }
+
+    public void testNullDate() {
+        // Arrange
+        final TestJavaObjectsTable row = new TestJavaObjectsTable();
+        row.setaString("undated");
+        final long id = DatabaseHelper.insert(sqliteOpenHelper, row);
+
+        // Act
+        TestJavaObjectsTable result = DatabaseHelper.query(sqliteOpenHelper,
+                TestJavaObjectsTable.class, "id = ?", String.valueOf(id)).get(0);
+
+        // Assert
+        assertThat(result.getaDate()).isNull();
+    }
+
+    public void testUpdateNullDate() {
+        // Arrange
+        final TestJavaObjectsTable row = new TestJavaObjectsTable();
+        row.setaString("dated");
+        row.setaDate(new Date(1000));
+        final long id = DatabaseHelper.insert(sqliteOpenHelper, row);
+        row.setaDate(null);
+
+        // Act
+        int updated = DatabaseHelper.update(sqliteOpenHelper, row);
+
+        // Assert
+        assertThat(updated).isEqualTo(1);
+        assertThat(DatabaseHelper.query(sqliteOpenHelper, TestJavaObjectsTable.class, "id = ?",
+                String.valueOf(id)).get(0).getaDate()).isNull();
+    }
+
+    public void testSameShapeSameSql() {
+        // Act
+        String first = Query.from(TestPrimitiveTable.class)
+                .where(TestPrimitiveTable_Columns.anInt.eq(1)).toString();
+        String second = Query.from(TestPrimitiveTable.class)
+                .where(TestPrimitiveTable_Columns.anInt.eq(2)).toString();
+
+        // Assert
+        assertThat(first).isEqualTo(second);
+    }
+}
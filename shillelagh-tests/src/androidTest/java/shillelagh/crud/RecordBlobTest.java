@@ -0,0 +1,114 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package shillelagh.crud;
+
+
+import android.content.ContentValues;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.test.AndroidTestCase;
+
+import com.example.shillelagh.TestSQLiteOpenHelper;
+import com.example.shillelagh.model.TestRecordTable;
+
+import java.util.List;
+
+import tale.androiddb.BlobWriter;
+import tale.androiddb.DatabaseHelper;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static tale.androiddb.DatabaseHelper.getTableName;
+
+public class RecordBlobTest extends AndroidTestCase {
+
+    private SQLiteOpenHelper sqliteOpenHelper;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        sqliteOpenHelper = new TestSQLiteOpenHelper(getContext());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        getContext().deleteDatabase(TestSQLiteOpenHelper.DATABASE_NAME);
+        super.tearDown();
+    }
+
+    public void testRoundTrip() {
+        // Arrange
+        final TestRecordTable row = new TestRecordTable(new TestRecordTable.Point(3, 4, "here"));
+
+        // Act
+        DatabaseHelper.insert(sqliteOpenHelper, row);
+        final List<TestRecordTable> rows = selectAll();
+
+        // Assert
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0).getPoint()).isEqualsToByComparingFields(row.getPoint());
+    }
+
+    public void testDecodeRecordWrittenBeforeFieldsWereAdded() {
+        // Arrange
+        // A Point written when it only had x and y
+        final BlobWriter writer = new BlobWriter(16, 2);
+        writer.writeInt(3);
+        writer.writeInt(4);
+        insertPoint(writer.toByteArray());
+
+        // Act
+        final List<TestRecordTable> rows = selectAll();
+
+        // Assert
+        final TestRecordTable.Point point = rows.get(0).getPoint();
+        assertThat(point.x).isEqualTo(3);
+        assertThat(point.y).isEqualTo(4);
+        assertThat(point.label).isNull();
+    }
+
+    public void testDecodeRecordWrittenBeforeFieldsWereRemoved() {
+        // Arrange
+        // A Point written when it had a fourth field after label
+        final BlobWriter writer = new BlobWriter(32, 4);
+        writer.writeInt(3);
+        writer.writeInt(4);
+        writer.writeString("here");
+        writer.writeLong(42L);
+        insertPoint(writer.toByteArray());
+
+        // Act
+        final List<TestRecordTable> rows = selectAll();
+
+        // Assert
+        final TestRecordTable.Point point = rows.get(0).getPoint();
+        assertThat(point.x).isEqualTo(3);
+        assertThat(point.y).isEqualTo(4);
+        assertThat(point.label).isEqualTo("here");
+    }
+
+    private void insertPoint(byte[] point) {
+        final ContentValues values = new ContentValues();
+        values.put("point", point);
+        sqliteOpenHelper.getWritableDatabase().insert(getTableName(TestRecordTable.class), null,
+                values);
+    }
+
+    private List<TestRecordTable> selectAll() {
+        return DatabaseHelper.rawQuery(sqliteOpenHelper, TestRecordTable.class,
+                "SELECT * FROM " + getTableName(TestRecordTable.class));
+    }
+}
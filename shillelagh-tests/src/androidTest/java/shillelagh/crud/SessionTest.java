@@ -0,0 +1,137 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package shillelagh.crud;
+
+import android.database.sqlite.SQLiteOpenHelper;
+import android.test.AndroidTestCase;
+
+import com.example.shillelagh.TestSQLiteOpenHelper;
+import com.example.shillelagh.model.TestOneToOne;
+import com.example.shillelagh.model.TestPrimitiveTable;
+
+import java.util.List;
+
+import tale.androiddb.DatabaseHelper;
+import tale.androiddb.Session;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static tale.androiddb.DatabaseHelper.getTableName;
+
+public class SessionTest extends AndroidTestCase {
+
+    private SQLiteOpenHelper sqliteOpenHelper;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        sqliteOpenHelper = new TestSQLiteOpenHelper(getContext());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        getContext().deleteDatabase(TestSQLiteOpenHelper.DATABASE_NAME);
+        super.tearDown();
+    }
+
+    public void testSameObjectInSession() {
+        // Arrange
+        insertPrimitive(1);
+        final Session session = Session.open();
+
+        try {
+            // Act
+            TestPrimitiveTable first = DatabaseHelper.query(sqliteOpenHelper,
+                    TestPrimitiveTable.class, null).get(0);
+            TestPrimitiveTable second = DatabaseHelper.query(sqliteOpenHelper,
+                    TestPrimitiveTable.class, "anInt = ?", "1").get(0);
+
+            // Assert
+            assertThat(second).isSameAs(first);
+        } finally {
+            session.close();
+        }
+    }
+
+    public void testRowsAreNotMappedAgain() {
+        // Arrange
+        insertPrimitive(1);
+        final Session session = Session.open();
+
+        try {
+            TestPrimitiveTable first = DatabaseHelper.query(sqliteOpenHelper,
+                    TestPrimitiveTable.class, null).get(0);
+            sqliteOpenHelper.getWritableDatabase().execSQL(
+                    "UPDATE " + getTableName(TestPrimitiveTable.class) + " SET anInt = 2");
+
+            // Act
+            TestPrimitiveTable second = DatabaseHelper.query(sqliteOpenHelper,
+                    TestPrimitiveTable.class, null).get(0);
+
+            // Assert
+            assertThat(second.getAnInt()).isEqualTo(1);
+        } finally {
+            session.close();
+        }
+    }
+
+    public void testJoinedObjectsAreShared() {
+        // Arrange
+        final TestOneToOne.Child child = new TestOneToOne.Child("child");
+        child.setId(DatabaseHelper.insert(sqliteOpenHelper, child));
+        DatabaseHelper.insert(sqliteOpenHelper, new TestOneToOne(child));
+        DatabaseHelper.insert(sqliteOpenHelper, new TestOneToOne(child));
+        final Session session = Session.open();
+
+        try {
+            // Act
+            List<TestOneToOne> result = DatabaseHelper.query(sqliteOpenHelper,
+                    TestOneToOne.class, null);
+            TestOneToOne.Child loadedChild = DatabaseHelper.query(sqliteOpenHelper,
+                    TestOneToOne.Child.class, null).get(0);
+
+            // Assert
+            assertThat(result).hasSize(2);
+            assertThat(result.get(1).getChild()).isSameAs(result.get(0).getChild());
+            assertThat(loadedChild).isSameAs(result.get(0).getChild());
+        } finally {
+            session.close();
+        }
+    }
+
+    public void testNewObjectsWithoutSession() {
+        // Arrange
+        insertPrimitive(1);
+        Session.open().close();
+
+        // Act
+        TestPrimitiveTable first = DatabaseHelper.query(sqliteOpenHelper,
+                TestPrimitiveTable.class, null).get(0);
+        TestPrimitiveTable second = DatabaseHelper.query(sqliteOpenHelper,
+                TestPrimitiveTable.class, null).get(0);
+
+        // Assert
+        assertThat(Session.current()).isNull();
+        assertThat(second).isNotSameAs(first);
+    }
+
+    private void insertPrimitive(int anInt) {
+        final TestPrimitiveTable row = new TestPrimitiveTable();
+        row.setAnInt(anInt);
+        DatabaseHelper.insert(sqliteOpenHelper, row);
+    }
+}
@@ -0,0 +1,286 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package shillelagh.crud;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.test.AndroidTestCase;
+
+import com.example.shillelagh.TestSQLiteOpenHelper;
+import com.example.shillelagh.model.TestPrimitiveTable;
+import com.example.shillelagh.model.TestTrackedTable;
+
+import tale.androiddb.ChangeTracker;
+import tale.androiddb.DatabaseHelper;
+import tale.androiddb.Transaction;
+import tale.androiddb.UnitOfWork;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static tale.androiddb.DatabaseHelper.getTableName;
+
+public class TrackChangesTest extends AndroidTestCase {
+
+    private SQLiteOpenHelper sqliteOpenHelper;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        sqliteOpenHelper = new TestSQLiteOpenHelper(getContext());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        getContext().deleteDatabase(TestSQLiteOpenHelper.DATABASE_NAME);
+        super.tearDown();
+    }
+
+    public void testUpdateOnlyWritesChangedColumns() {
+        // Arrange
+        DatabaseHelper.insert(sqliteOpenHelper, new TestTrackedTable("title", 1, new byte[]{1, 2}));
+        final TestTrackedTable row = DatabaseHelper.query(sqliteOpenHelper,
+                TestTrackedTable.class, null).get(0);
+        // Changed behind the back of the loaded object, an update of every column would undo it
+        sqliteOpenHelper.getWritableDatabase().execSQL(
+                "UPDATE " + getTableName(TestTrackedTable.class) + " SET rank = 5");
+        row.setTitle("changed");
+
+        // Act
+        int updated = DatabaseHelper.update(sqliteOpenHelper, row);
+
+        // Assert
+        assertThat(updated).isEqualTo(1);
+        Cursor cursor = sqliteOpenHelper.getReadableDatabase().rawQuery(
+                "SELECT title, rank, image FROM " + getTableName(TestTrackedTable.class), null);
+        assertThat(cursor.moveToFirst()).isTrue();
+        assertThat(cursor.getString(0)).isEqualTo("changed");
+        assertThat(cursor.getInt(1)).isEqualTo(5);
+        assertThat(cursor.getBlob(2)).isEqualTo(new byte[]{1, 2});
+        cursor.close();
+    }
+
+    public void testUpdateWithoutChanges() {
+        // Arrange
+        DatabaseHelper.insert(sqliteOpenHelper, new TestTrackedTable("title", 1, null));
+        final TestTrackedTable row = DatabaseHelper.query(sqliteOpenHelper,
+                TestTrackedTable.class, null).get(0);
+
+        // Act
+        int updated = DatabaseHelper.update(sqliteOpenHelper, row);
+
+        // Assert
+        assertThat(updated).isEqualTo(0);
+    }
+
+    public void testUpdateTwice() {
+        // Arrange
+        DatabaseHelper.insert(sqliteOpenHelper, new TestTrackedTable("title", 1, null));
+        final TestTrackedTable row = DatabaseHelper.query(sqliteOpenHelper,
+                TestTrackedTable.class, null).get(0);
+        row.setTitle("changed");
+        DatabaseHelper.update(sqliteOpenHelper, row);
+
+        // Act
+        int updated = DatabaseHelper.update(sqliteOpenHelper, row);
+
+        // Assert
+        assertThat(updated).isEqualTo(0);
+    }
+
+    public void testUpdateBetweenCollidingStrings() {
+        // Arrange
+        // "Aa" and "BB" have the same String.hashCode
+        DatabaseHelper.insert(sqliteOpenHelper, new TestTrackedTable("Aa", 1, null));
+        final TestTrackedTable row = DatabaseHelper.query(sqliteOpenHelper,
+                TestTrackedTable.class, null).get(0);
+        row.setTitle("BB");
+
+        // Act
+        int updated = DatabaseHelper.update(sqliteOpenHelper, row);
+
+        // Assert
+        assertThat(updated).isEqualTo(1);
+        assertThat(DatabaseHelper.query(sqliteOpenHelper, TestTrackedTable.class, null).get(0)
+                .getTitle()).isEqualTo("BB");
+    }
+
+    public void testUpdateAfterContentValuesUpdate() {
+        // Arrange
+        final long id = DatabaseHelper.insert(sqliteOpenHelper,
+                new TestTrackedTable("title", 1, null));
+        final TestTrackedTable row = DatabaseHelper.query(sqliteOpenHelper,
+                TestTrackedTable.class, "id = ?", String.valueOf(id)).get(0);
+        // Rows changed through ContentValues are no longer remembered
+        DatabaseHelper.update(sqliteOpenHelper, TestTrackedTable.class,
+                DatabaseHelper.toContentValues(row), "id = ?", String.valueOf(id));
+
+        // Act
+        int updated = DatabaseHelper.update(sqliteOpenHelper, row);
+
+        // Assert
+        assertThat(updated).isEqualTo(1);
+    }
+
+    public void testUpdateAfterDeleteById() {
+        // Arrange
+        final long id = DatabaseHelper.insert(sqliteOpenHelper,
+                new TestTrackedTable("title", 1, null));
+        final TestTrackedTable row = DatabaseHelper.query(sqliteOpenHelper,
+                TestTrackedTable.class, "id = ?", String.valueOf(id)).get(0);
+        new UnitOfWork().delete(row).flush(sqliteOpenHelper);
+        // A new row reusing the id of the deleted one
+        sqliteOpenHelper.getWritableDatabase().execSQL("INSERT INTO "
+                + getTableName(TestTrackedTable.class)
+                + " (id, title, rank) VALUES (?, 'other', 5)", new Object[]{id});
+        row.setTitle("changed");
+
+        // Act
+        int updated = DatabaseHelper.update(sqliteOpenHelper, row);
+
+        // Assert
+        assertThat(updated).isEqualTo(1);
+        assertRank(1);
+    }
+
+    public void testUpdateAfterDelete() {
+        // Arrange
+        final long id = DatabaseHelper.insert(sqliteOpenHelper,
+                new TestTrackedTable("title", 1, null));
+        final TestTrackedTable row = DatabaseHelper.query(sqliteOpenHelper,
+                TestTrackedTable.class, "id = ?", String.valueOf(id)).get(0);
+        DatabaseHelper.delete(sqliteOpenHelper, TestTrackedTable.class, null);
+        sqliteOpenHelper.getWritableDatabase().execSQL("INSERT INTO "
+                + getTableName(TestTrackedTable.class)
+                + " (id, title, rank) VALUES (?, 'other', 5)", new Object[]{id});
+        row.setTitle("changed");
+
+        // Act
+        int updated = DatabaseHelper.update(sqliteOpenHelper, row);
+
+        // Assert
+        assertThat(updated).isEqualTo(1);
+        assertRank(1);
+    }
+
+    public void testUpdateAfterRollback() {
+        // Arrange
+        DatabaseHelper.insert(sqliteOpenHelper, new TestTrackedTable("title", 1, null));
+        final TestTrackedTable row = DatabaseHelper.query(sqliteOpenHelper,
+                TestTrackedTable.class, null).get(0);
+        row.setTitle("changed");
+        try {
+            DatabaseHelper.runInTransaction(sqliteOpenHelper, new Transaction.Work<Void>() {
+                @Override
+                public Void run(Transaction transaction) {
+                    DatabaseHelper.update(sqliteOpenHelper, row);
+                    throw new IllegalStateException();
+                }
+            });
+        } catch (IllegalStateException e) {
+            // Rolled back
+        }
+
+        // Act
+        int updated = DatabaseHelper.update(sqliteOpenHelper, row);
+
+        // Assert
+        assertThat(updated).isEqualTo(1);
+        assertThat(DatabaseHelper.query(sqliteOpenHelper, TestTrackedTable.class, null).get(0)
+                .getTitle()).isEqualTo("changed");
+    }
+
+    public void testUpdateAfterNestedRollback() {
+        // Arrange
+        DatabaseHelper.insert(sqliteOpenHelper, new TestTrackedTable("title", 1, null));
+        final TestTrackedTable row = DatabaseHelper.query(sqliteOpenHelper,
+                TestTrackedTable.class, null).get(0);
+        row.setTitle("changed");
+        DatabaseHelper.runInTransaction(sqliteOpenHelper, new Transaction.Work<Void>() {
+            @Override
+            public Void run(Transaction transaction) {
+                try {
+                    DatabaseHelper.runInTransaction(sqliteOpenHelper,
+                            new Transaction.Work<Void>() {
+                                @Override
+                                public Void run(Transaction transaction) {
+                                    DatabaseHelper.update(sqliteOpenHelper, row);
+                                    throw new IllegalStateException();
+                                }
+                            });
+                } catch (IllegalStateException e) {
+                    // Rolled back to the savepoint
+                }
+                return null;
+            }
+        });
+
+        // Act
+        int updated = DatabaseHelper.update(sqliteOpenHelper, row);
+
+        // Assert
+        assertThat(updated).isEqualTo(1);
+        assertThat(DatabaseHelper.query(sqliteOpenHelper, TestTrackedTable.class, null).get(0)
+                .getTitle()).isEqualTo("changed");
+    }
+
+    public void testTrackersArePerDatabase() {
+        // Arrange
+        final SQLiteDatabase database = sqliteOpenHelper.getWritableDatabase();
+        final SQLiteDatabase other = SQLiteDatabase.create(null);
+        final String table = getTableName(TestTrackedTable.class);
+        final String[] columns = {"id", "title", "rank", "image"};
+
+        try {
+            // Act
+            ChangeTracker tracker = ChangeTracker.get(database, table, columns);
+
+            // Assert
+            assertThat(ChangeTracker.get(database, table, columns)).isSameAs(tracker);
+            assertThat(ChangeTracker.get(other, table, columns)).isNotSameAs(tracker);
+        } finally {
+            other.close();
+        }
+    }
+
+    public void testUpdateUntrackedTable() {
+        // Arrange
+        final TestPrimitiveTable row = new TestPrimitiveTable();
+        row.setAnInt(1);
+        row.setId(DatabaseHelper.insert(sqliteOpenHelper, row));
+        row.setAnInt(2);
+
+        // Act
+        int updated = DatabaseHelper.update(sqliteOpenHelper, row);
+
+        // Assert
+        assertThat(updated).isEqualTo(1);
+        Cursor cursor = sqliteOpenHelper.getReadableDatabase().rawQuery(
+                "SELECT anInt FROM " + getTableName(TestPrimitiveTable.class), null);
+        assertThat(cursor.moveToFirst()).isTrue();
+        assertThat(cursor.getInt(0)).isEqualTo(2);
+        cursor.close();
+    }
+
+    private void assertRank(int rank) {
+        Cursor cursor = sqliteOpenHelper.getReadableDatabase().rawQuery(
+                "SELECT rank FROM " + getTableName(TestTrackedTable.class), null);
+        assertThat(cursor.moveToFirst()).isTrue();
+        assertThat(cursor.getInt(0)).isEqualTo(rank);
+        cursor.close();
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package shillelagh.crud;
+
+
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.test.AndroidTestCase;
+
+import com.example.shillelagh.TestSQLiteOpenHelper;
+import com.example.shillelagh.model.TestIndexedTable;
+import com.example.shillelagh.model.TestOneToOne;
+import com.example.shillelagh.model.TestPrimitiveTable;
+import com.example.shillelagh.model.TestTrackedTable;
+
+import tale.androiddb.DatabaseHelper;
+import tale.androiddb.Transaction;
+import tale.androiddb.UnitOfWork;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static tale.androiddb.DatabaseHelper.getTableName;
+
+public class TransactionTest extends AndroidTestCase {
+
+    private SQLiteOpenHelper sqliteOpenHelper;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        sqliteOpenHelper = new TestSQLiteOpenHelper(getContext());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        getContext().deleteDatabase(TestSQLiteOpenHelper.DATABASE_NAME);
+        super.tearDown();
+    }
+
+    public void testCommit() {
+        // Act
+        final Long id = DatabaseHelper.runInTransaction(sqliteOpenHelper,
+                new Transaction.Work<Long>() {
+                    @Override
+                    public Long run(Transaction transaction) {
+                        assertThat(transaction.isNested()).isFalse();
+                        DatabaseHelper.insert(sqliteOpenHelper, new TestPrimitiveTable());
+                        return DatabaseHelper.insert(sqliteOpenHelper, new TestPrimitiveTable());
+                    }
+                });
+
+        // Assert
+        assertThat(id).isEqualTo(2L);
+        assertThat(count(TestPrimitiveTable.class)).isEqualTo(2);
+        assertThat(sqliteOpenHelper.getWritableDatabase().inTransaction()).isFalse();
+    }
+
+    public void testRollbackOnException() {
+        // Act
+        try {
+            DatabaseHelper.runInTransaction(sqliteOpenHelper, new Transaction.Work<Void>() {
+                @Override
+                public Void run(Transaction transaction) {
+                    DatabaseHelper.insert(sqliteOpenHelper, new TestPrimitiveTable());
+                    throw new IllegalStateException();
+                }
+            });
+        } catch (IllegalStateException e) {
+            // Assert
+            assertThat(count(TestPrimitiveTable.class)).isZero();
+            assertThat(sqliteOpenHelper.getWritableDatabase().inTransaction()).isFalse();
+            return;
+        }
+
+        throw new AssertionError("Expected Exception Not Thrown");
+    }
+
+    public void testNestedRollbackKeepsOuterWork() {
+        // Act
+        DatabaseHelper.runInTransaction(sqliteOpenHelper, new Transaction.Work<Void>() {
+            @Override
+            public Void run(Transaction transaction) {
+                DatabaseHelper.insert(sqliteOpenHelper, new TestIndexedTable("a", "x", 1));
+                try {
+                    DatabaseHelper.runInTransaction(sqliteOpenHelper,
+                            new Transaction.Work<Void>() {
+                                @Override
+                                public Void run(Transaction nested) {
+                                    assertThat(nested.isNested()).isTrue();
+                                    assertThat(nested.yieldIfContended()).isFalse();
+                                    DatabaseHelper.insert(sqliteOpenHelper,
+                                            new TestIndexedTable("b", "x", 2));
+                                    throw new IllegalStateException();
+                                }
+                            });
+                } catch (IllegalStateException e) {
+                    // Only the nested work is rolled back
+                }
+                DatabaseHelper.insert(sqliteOpenHelper, new TestIndexedTable("c", "x", 3));
+                return null;
+            }
+        });
+
+        // Assert
+        assertThat(count(TestIndexedTable.class)).isEqualTo(2);
+        assertThat(count(TestIndexedTable.class, "code = 'b'")).isZero();
+        assertThat(count(TestIndexedTable.class, "code IN ('a', 'c')")).isEqualTo(2);
+    }
+
+    public void testYieldIfContended() {
+        // Act
+        final Boolean yielded = DatabaseHelper.runInTransaction(sqliteOpenHelper,
+                new Transaction.Work<Boolean>() {
+                    @Override
+                    public Boolean run(Transaction transaction) {
+                        DatabaseHelper.insert(sqliteOpenHelper, new TestPrimitiveTable());
+                        // No other thread waits for the database
+                        return transaction.yieldIfContended();
+                    }
+                });
+
+        // Assert
+        assertThat(yielded).isFalse();
+        assertThat(count(TestPrimitiveTable.class)).isEqualTo(1);
+    }
+
+    public void testUnitOfWork() {
+        // Arrange
+        final TestTrackedTable tracked = new TestTrackedTable("old", 1, null);
+        final long trackedId = DatabaseHelper.insert(sqliteOpenHelper, tracked);
+        final TestTrackedTable loaded = DatabaseHelper.query(sqliteOpenHelper,
+                TestTrackedTable.class, "id = ?", String.valueOf(trackedId)).get(0);
+        loaded.setTitle("new");
+        final TestIndexedTable deleted = new TestIndexedTable("gone", "x", 0);
+        DatabaseHelper.insert(sqliteOpenHelper, deleted);
+        final TestIndexedTable removed = DatabaseHelper.query(sqliteOpenHelper,
+                TestIndexedTable.class, "code = ?", "gone").get(0);
+        final UnitOfWork unitOfWork = new UnitOfWork()
+                .insert(new TestPrimitiveTable())
+                .insert(new TestIndexedTable("a", "x", 1))
+                .insert(new TestPrimitiveTable())
+                .update(loaded)
+                .delete(removed);
+
+        // Act
+        final long[] ids = unitOfWork.flush(sqliteOpenHelper);
+
+        // Assert
+        assertThat(ids).isEqualTo(new long[]{1, 2, 2});
+        assertThat(unitOfWork.size()).isZero();
+        assertThat(count(TestPrimitiveTable.class)).isEqualTo(2);
+        assertThat(count(TestIndexedTable.class, "code = 'a'")).isEqualTo(1);
+        assertThat(count(TestIndexedTable.class, "code = 'gone'")).isZero();
+        assertThat(count(TestTrackedTable.class, "title = 'new'")).isEqualTo(1);
+    }
+
+    public void testUnitOfWorkInsertsRelatedObjects() {
+        // Arrange
+        final TestOneToOne.Child child = new TestOneToOne.Child("child");
+        final TestOneToOne parent = new TestOneToOne(child);
+
+        // Act
+        final long[] ids = new UnitOfWork()
+                .insert(child)
+                .insert(parent)
+                .flush(sqliteOpenHelper);
+
+        // Assert
+        assertThat(child.getId()).isEqualTo(ids[0]);
+        assertThat(parent.getId()).isEqualTo(ids[1]);
+        final TestOneToOne result = DatabaseHelper.query(sqliteOpenHelper, TestOneToOne.class,
+                "id = ?", String.valueOf(ids[1])).get(0);
+        assertThat(result.getChild()).isNotNull();
+        assertThat(result.getChild().getId()).isEqualTo(ids[0]);
+        assertThat(result.getChild().getChildName()).isEqualTo("child");
+    }
+
+    public void testUnitOfWorkRollsBackOnFailure() {
+        // Arrange
+        final UnitOfWork unitOfWork = new UnitOfWork()
+                .insert(new TestPrimitiveTable())
+                .insert(new TestIndexedTable("a", "x", 1))
+                .insert(new TestIndexedTable("a", "x", 2));
+
+        // Act
+        try {
+            unitOfWork.flush(sqliteOpenHelper);
+        } catch (RuntimeException e) {
+            // Assert
+            assertThat(unitOfWork.size()).isEqualTo(3);
+            assertThat(count(TestPrimitiveTable.class)).isZero();
+            assertThat(count(TestIndexedTable.class)).isZero();
+            return;
+        }
+
+        throw new AssertionError("Expected Exception Not Thrown");
+    }
+
+    private int count(Class<?> clazz) {
+        return count(clazz, "1");
+    }
+
+    private int count(Class<?> clazz, String where) {
+        return (int) DatabaseUtils.longForQuery(sqliteOpenHelper.getReadableDatabase(),
+                "SELECT COUNT(*) FROM " + getTableName(clazz) + " WHERE " + where, null);
+    }
+}
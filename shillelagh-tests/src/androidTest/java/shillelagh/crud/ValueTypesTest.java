@@ -0,0 +1,132 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package shillelagh.crud;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.test.AndroidTestCase;
+
+import com.example.shillelagh.TestSQLiteOpenHelper;
+import com.example.shillelagh.model.TestValueTypesTable;
+import com.example.shillelagh.model.TestValueTypesTable_Columns;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.UUID;
+
+import tale.androiddb.DatabaseHelper;
+import tale.androiddb.Query;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static tale.androiddb.DatabaseHelper.getTableName;
+
+public class ValueTypesTest extends AndroidTestCase {
+
+    private SQLiteOpenHelper sqliteOpenHelper;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        sqliteOpenHelper = new TestSQLiteOpenHelper(getContext());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        getContext().deleteDatabase(TestSQLiteOpenHelper.DATABASE_NAME);
+        super.tearDown();
+    }
+
+    public void testCompactStorage() {
+        // Arrange
+        TestValueTypesTable row = new TestValueTypesTable(UUID.randomUUID(),
+                new BigDecimal("12.50"), new BigDecimal("0.0125"), new Timestamp(1000L));
+
+        // Act
+        long id = DatabaseHelper.insert(sqliteOpenHelper, row);
+
+        // Assert
+        Cursor cursor = sqliteOpenHelper.getReadableDatabase().rawQuery(
+                "SELECT length(uuid), typeof(amount), amount, rate, created FROM "
+                        + getTableName(TestValueTypesTable.class) + " WHERE id = " + id, null);
+        assertThat(cursor.moveToFirst()).isTrue();
+        assertThat(cursor.getInt(0)).isEqualTo(16);
+        assertThat(cursor.getString(1)).isEqualTo("integer");
+        assertThat(cursor.getLong(2)).isEqualTo(1250);
+        assertThat(cursor.getLong(3)).isEqualTo(125);
+        assertThat(cursor.getLong(4)).isEqualTo(1000);
+        cursor.close();
+    }
+
+    public void testRoundTrip() {
+        // Arrange
+        UUID uuid = UUID.randomUUID();
+        DatabaseHelper.insert(sqliteOpenHelper, new TestValueTypesTable(uuid,
+                new BigDecimal("-3.5"), null, new Timestamp(123456789L)));
+
+        // Act
+        List<TestValueTypesTable> rows = DatabaseHelper.query(sqliteOpenHelper,
+                TestValueTypesTable.class, null);
+
+        // Assert
+        TestValueTypesTable result = rows.get(0);
+        assertThat(result.getUuid()).isEqualTo(uuid);
+        assertThat(result.getAmount()).isEqualTo(new BigDecimal("-3.50"));
+        assertThat(result.getRate()).isNull();
+        assertThat(result.getCreated()).isEqualTo(new Timestamp(123456789L));
+    }
+
+    public void testQueryByUuidAndAmount() {
+        // Arrange
+        UUID uuid = UUID.randomUUID();
+        DatabaseHelper.insert(sqliteOpenHelper, new TestValueTypesTable(uuid,
+                new BigDecimal("10"), null, null));
+        DatabaseHelper.insert(sqliteOpenHelper, new TestValueTypesTable(UUID.randomUUID(),
+                new BigDecimal("20"), null, null));
+
+        // Act
+        List<TestValueTypesTable> byUuid = Query.from(TestValueTypesTable.class)
+                .where(TestValueTypesTable_Columns.uuid.eq(uuid))
+                .list(sqliteOpenHelper);
+        List<TestValueTypesTable> byAmount = Query.from(TestValueTypesTable.class)
+                .where(TestValueTypesTable_Columns.amount.gt(new BigDecimal("15.5")))
+                .list(sqliteOpenHelper);
+
+        // Assert
+        assertThat(byUuid).hasSize(1);
+        assertThat(byUuid.get(0).getUuid()).isEqualTo(uuid);
+        assertThat(byAmount).hasSize(1);
+        assertThat(byAmount.get(0).getAmount()).isEqualTo(new BigDecimal("20.00"));
+    }
+
+    public void testAmountWithTooManyDecimalsIsRejected() {
+        // Arrange
+        TestValueTypesTable row = new TestValueTypesTable(null, new BigDecimal("0.001"), null,
+                null);
+
+        // Act
+        try {
+            DatabaseHelper.insert(sqliteOpenHelper, row);
+        } catch (ArithmeticException e) {
+            // Assert
+            return;
+        }
+
+        throw new AssertionError("Expected Exception Not Thrown");
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2014 Giang Nguyen
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package shillelagh.crud;
+
+
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.Build;
+import android.test.AndroidTestCase;
+
+import com.example.shillelagh.TestSQLiteOpenHelper;
+import com.example.shillelagh.model.TestPrimitiveTable;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import tale.androiddb.DatabaseHelper;
+import tale.androiddb.Transaction;
+import tale.androiddb.WriteAheadLog;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static tale.androiddb.DatabaseHelper.getTableName;
+
+public class WriteAheadLogTest extends AndroidTestCase {
+
+    private WalSQLiteOpenHelper sqliteOpenHelper;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        sqliteOpenHelper = new WalSQLiteOpenHelper();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        if (sqliteOpenHelper.writeAheadLog != null) {
+            sqliteOpenHelper.writeAheadLog.close();
+        }
+        sqliteOpenHelper.close();
+        getContext().deleteDatabase(TestSQLiteOpenHelper.DATABASE_NAME);
+        super.tearDown();
+    }
+
+    public void testEnable() {
+        // Act
+        final SQLiteDatabase database = sqliteOpenHelper.getWritableDatabase();
+
+        // Assert
+        assertThat(sqliteOpenHelper.writeAheadLog).isNotNull();
+        assertThat(DatabaseUtils.stringForQuery(database, "PRAGMA journal_mode", null))
+                .isEqualToIgnoringCase("wal");
+    }
+
+    public void testReadWhileWriting() throws InterruptedException {
+        // Arrange
+        DatabaseHelper.insert(sqliteOpenHelper, new TestPrimitiveTable());
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch read = new CountDownLatch(1);
+        final Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                DatabaseHelper.runInTransaction(sqliteOpenHelper, new Transaction.Work<Void>() {
+                    @Override
+                    public Void run(Transaction transaction) {
+                        DatabaseHelper.insert(sqliteOpenHelper, new TestPrimitiveTable());
+                        writing.countDown();
+                        try {
+                            // Without a reader connection the read waits for this transaction
+                            read.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return null;
+                    }
+                });
+            }
+        });
+        writer.start();
+        writing.await();
+
+        // Act
+        final List<TestPrimitiveTable> rows = DatabaseHelper.rawQuery(sqliteOpenHelper,
+                TestPrimitiveTable.class,
+                "SELECT * FROM " + getTableName(TestPrimitiveTable.class));
+        final boolean readDuringWrite = writer.isAlive();
+        read.countDown();
+        writer.join();
+
+        // Assert
+        assertThat(readDuringWrite).isTrue();
+        // The uncommitted row is not seen
+        assertThat(rows).hasSize(1);
+    }
+
+    public void testCheckpoint() {
+        // Arrange
+        for (int i = 0; i < 10; i++) {
+            DatabaseHelper.insert(sqliteOpenHelper, new TestPrimitiveTable());
+        }
+
+        // Act
+        final boolean checkpointed = sqliteOpenHelper.writeAheadLog.checkpoint();
+
+        // Assert
+        assertThat(checkpointed).isTrue();
+    }
+
+    public void testCheckpointWhileWriting() throws InterruptedException {
+        // Checkpoints run on the primary connection before Android 4.1
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN) {
+            return;
+        }
+
+        // Arrange
+        DatabaseHelper.insert(sqliteOpenHelper, new TestPrimitiveTable());
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch checkpointed = new CountDownLatch(1);
+        final Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                DatabaseHelper.runInTransaction(sqliteOpenHelper, new Transaction.Work<Void>() {
+                    @Override
+                    public Void run(Transaction transaction) {
+                        DatabaseHelper.insert(sqliteOpenHelper, new TestPrimitiveTable());
+                        writing.countDown();
+                        try {
+                            // On the primary connection the checkpoint waits for this transaction
+                            checkpointed.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return null;
+                    }
+                });
+            }
+        });
+        writer.start();
+        writing.await();
+
+        // Act
+        sqliteOpenHelper.writeAheadLog.checkpoint();
+        final boolean checkpointDuringWrite = writer.isAlive();
+        checkpointed.countDown();
+        writer.join();
+
+        // Assert
+        assertThat(checkpointDuringWrite).isTrue();
+    }
+
+    private class WalSQLiteOpenHelper extends TestSQLiteOpenHelper {
+        WriteAheadLog writeAheadLog;
+
+        WalSQLiteOpenHelper() {
+            super(getContext());
+        }
+
+        @Override
+        public void onOpen(SQLiteDatabase db) {
+            super.onOpen(db);
+            writeAheadLog = WriteAheadLog.enable(db, 10, 50, TimeUnit.MILLISECONDS);
+        }
+    }
+}
@@ -22,16 +22,25 @@ import android.database.sqlite.SQLiteOpenHelper;
 
 import com.example.shillelagh.model.TestBlobs;
 import com.example.shillelagh.model.TestBoxedPrimitivesTable;
+import com.example.shillelagh.model.TestConvertedTable;
+import com.example.shillelagh.model.TestEmbeddedTable;
+import com.example.shillelagh.model.TestEnumTable;
+import com.example.shillelagh.model.TestIndexedTable;
 import com.example.shillelagh.model.TestJavaObjectsTable;
 import com.example.shillelagh.model.TestOneToMany;
 import com.example.shillelagh.model.TestOneToOne;
+import com.example.shillelagh.model.TestPackedTable;
 import com.example.shillelagh.model.TestPrimitiveTable;
+import com.example.shillelagh.model.TestRecordTable;
+import com.example.shillelagh.model.TestRowIdTable;
+import com.example.shillelagh.model.TestTrackedTable;
+import com.example.shillelagh.model.TestValueTypesTable;
 
 import tale.androiddb.DatabaseHelper;
 
 public class TestSQLiteOpenHelper extends SQLiteOpenHelper {
   public static final String DATABASE_NAME = "shillelagh_test.db";
-  private static final int DATABASE_VERSION = 3;
+  private static final int DATABASE_VERSION = 13;
 
   public TestSQLiteOpenHelper(Context context) {
     super(context, DATABASE_NAME, null, DATABASE_VERSION);
@@ -46,18 +55,35 @@ public class TestSQLiteOpenHelper extends SQLiteOpenHelper {
       DatabaseHelper.createTable(db, TestOneToOne.Child.class);
       DatabaseHelper.createTable(db, TestOneToMany.class);
       DatabaseHelper.createTable(db, TestOneToMany.Child.class);
+      DatabaseHelper.createTable(db, TestIndexedTable.class);
+      DatabaseHelper.createTable(db, TestTrackedTable.class);
+      DatabaseHelper.createTable(db, TestRowIdTable.class);
+      DatabaseHelper.createTable(db, TestEnumTable.class);
+      DatabaseHelper.createTable(db, TestPackedTable.class);
+      DatabaseHelper.createTable(db, TestEmbeddedTable.class);
+      DatabaseHelper.createTable(db, TestConvertedTable.class);
+      DatabaseHelper.createTable(db, TestValueTypesTable.class);
+      DatabaseHelper.createTable(db, TestRecordTable.class);
   }
 
   @Override public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-    // Simplistic solution, you will lose your data though, good for debug builds bad for prod
-      DatabaseHelper.dropTable(db, TestPrimitiveTable.class);
-      DatabaseHelper.dropTable(db, TestBoxedPrimitivesTable.class);
-      DatabaseHelper.dropTable(db, TestPrimitiveTable.class);
-      DatabaseHelper.dropTable(db, TestBlobs.class);
-      DatabaseHelper.dropTable(db, TestOneToOne.class);
-      DatabaseHelper.dropTable(db, TestOneToOne.Child.class);
-      DatabaseHelper.dropTable(db, TestOneToMany.class);
-      DatabaseHelper.dropTable(db, TestOneToMany.Child.class);
-    onCreate(db);
+    // Tables are altered in place, their rows are kept
+      DatabaseHelper.migrateTable(db, TestBoxedPrimitivesTable.class);
+      DatabaseHelper.migrateTable(db, TestPrimitiveTable.class);
+      DatabaseHelper.migrateTable(db, TestJavaObjectsTable.class);
+      DatabaseHelper.migrateTable(db, TestBlobs.class);
+      DatabaseHelper.migrateTable(db, TestOneToOne.class);
+      DatabaseHelper.migrateTable(db, TestOneToOne.Child.class);
+      DatabaseHelper.migrateTable(db, TestOneToMany.class);
+      DatabaseHelper.migrateTable(db, TestOneToMany.Child.class);
+      DatabaseHelper.migrateTable(db, TestIndexedTable.class);
+      DatabaseHelper.migrateTable(db, TestTrackedTable.class);
+      DatabaseHelper.migrateTable(db, TestRowIdTable.class);
+      DatabaseHelper.migrateTable(db, TestEnumTable.class);
+      DatabaseHelper.migrateTable(db, TestPackedTable.class);
+      DatabaseHelper.migrateTable(db, TestEmbeddedTable.class);
+      DatabaseHelper.migrateTable(db, TestConvertedTable.class);
+      DatabaseHelper.migrateTable(db, TestValueTypesTable.class);
+      DatabaseHelper.migrateTable(db, TestRecordTable.class);
   }
 }
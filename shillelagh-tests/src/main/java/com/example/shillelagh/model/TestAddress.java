@@ -0,0 +1,49 @@
+/*
+ * Copyright 2014 Andrew Reitz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.shillelagh.model;
+
+import tale.androiddb.Field;
+
+public class TestAddress {
+    @Field
+    String street;
+    @Field
+    int number;
+    @Field
+    String city;
+
+    public TestAddress() {
+    }
+
+    public TestAddress(String street, int number, String city) {
+        this.street = street;
+        this.number = number;
+        this.city = city;
+    }
+
+    public String getStreet() {
+        return street;
+    }
+
+    public int getNumber() {
+        return number;
+    }
+
+    public String getCity() {
+        return city;
+    }
+}
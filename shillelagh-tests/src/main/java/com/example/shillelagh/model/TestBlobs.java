@@ -25,8 +25,9 @@ import tale.androiddb.Table;
 @Table public class TestBlobs {
   @Id long id;
   @Field(isBlob = true) Byte[] aByteArray;
-  @Field(isBlob = true) byte[] anotherByteArray; // TODO Make this not require isBlob == true
+  @Field(isBlob = true) byte[] anotherByteArray;
   @Field(isBlob = true) TestBlobObject aTestBlobObject;
+  @Field byte[] implicitByteArray;
 
   public long getId() {
     return id;
@@ -60,6 +61,14 @@ import tale.androiddb.Table;
     return this.aTestBlobObject;
   }
 
+  public byte[] getImplicitByteArray() {
+    return implicitByteArray;
+  }
+
+  public void setImplicitByteArray(byte[] implicitByteArray) {
+    this.implicitByteArray = implicitByteArray;
+  }
+
   public static class TestBlobObject implements Serializable {
     public String testString;
   }
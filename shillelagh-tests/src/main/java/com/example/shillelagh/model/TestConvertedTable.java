@@ -0,0 +1,94 @@
+/*
+ * Copyright 2014 Andrew Reitz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.shillelagh.model;
+
+import java.net.URI;
+
+import tale.androiddb.Converter;
+import tale.androiddb.Field;
+import tale.androiddb.Id;
+import tale.androiddb.Table;
+import tale.androiddb.TypeConverter;
+
+@Table
+public class TestConvertedTable {
+    public static final class Money {
+        private final long cents;
+
+        public Money(long cents) {
+            this.cents = cents;
+        }
+
+        public long getCents() {
+            return cents;
+        }
+    }
+
+    public static final class MoneyConverter implements TypeConverter<Money, Long> {
+        @Override
+        public Long toColumn(Money value) {
+            return value.getCents();
+        }
+
+        @Override
+        public Money fromColumn(Long value) {
+            return new Money(value);
+        }
+    }
+
+    public static final class UriConverter implements TypeConverter<URI, String> {
+        @Override
+        public String toColumn(URI value) {
+            return value.toString();
+        }
+
+        @Override
+        public URI fromColumn(String value) {
+            return URI.create(value);
+        }
+    }
+
+    @Id
+    long id;
+
+    @Field
+    @Converter(MoneyConverter.class)
+    Money price;
+    @Field
+    @Converter(UriConverter.class)
+    URI link;
+
+    public TestConvertedTable() {
+    }
+
+    public TestConvertedTable(Money price, URI link) {
+        this.price = price;
+        this.link = link;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public Money getPrice() {
+        return price;
+    }
+
+    public URI getLink() {
+        return link;
+    }
+}
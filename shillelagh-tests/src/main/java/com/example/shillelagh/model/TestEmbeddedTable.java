@@ -0,0 +1,67 @@
+/*
+ * Copyright 2014 Andrew Reitz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.shillelagh.model;
+
+import tale.androiddb.Embedded;
+import tale.androiddb.Field;
+import tale.androiddb.Id;
+import tale.androiddb.Index;
+import tale.androiddb.Indexes;
+import tale.androiddb.Table;
+
+@Table
+@Indexes(@Index("home_city"))
+public class TestEmbeddedTable {
+    @Id
+    long id;
+
+    @Field
+    String name;
+    @Embedded
+    TestAddress home;
+    @Embedded(prefix = "office_")
+    TestAddress work;
+
+    public TestEmbeddedTable() {
+    }
+
+    public TestEmbeddedTable(String name, TestAddress home, TestAddress work) {
+        this.name = name;
+        this.home = home;
+        this.work = work;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public TestAddress getHome() {
+        return home;
+    }
+
+    public TestAddress getWork() {
+        return work;
+    }
+
+    public void setHome(TestAddress home) {
+        this.home = home;
+    }
+}
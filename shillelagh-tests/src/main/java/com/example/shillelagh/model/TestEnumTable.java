@@ -0,0 +1,72 @@
+/*
+ * Copyright 2014 Andrew Reitz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.shillelagh.model;
+
+import tale.androiddb.CodedEnum;
+import tale.androiddb.Field;
+import tale.androiddb.Id;
+import tale.androiddb.Table;
+
+@Table
+public class TestEnumTable {
+    public enum Color {
+        RED, GREEN, BLUE
+    }
+
+    public enum Priority implements CodedEnum {
+        LOW(10), HIGH(20);
+
+        private final int code;
+
+        Priority(int code) {
+            this.code = code;
+        }
+
+        @Override
+        public int getCode() {
+            return code;
+        }
+    }
+
+    @Id
+    long id;
+
+    @Field
+    Color color;
+    @Field
+    Priority priority;
+
+    public TestEnumTable() {
+    }
+
+    public TestEnumTable(Color color, Priority priority) {
+        this.color = color;
+        this.priority = priority;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public Color getColor() {
+        return color;
+    }
+
+    public Priority getPriority() {
+        return priority;
+    }
+}
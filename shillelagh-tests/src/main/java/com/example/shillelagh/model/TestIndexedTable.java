@@ -0,0 +1,48 @@
+/*
+ * Copyright 2014 Andrew Reitz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.shillelagh.model;
+
+import tale.androiddb.Field;
+import tale.androiddb.Id;
+import tale.androiddb.Index;
+import tale.androiddb.Table;
+import tale.androiddb.Unique;
+
+@Table
+@Index(value = {"category", "rank DESC"}, name = "category_rank")
+public class TestIndexedTable {
+    @Id
+    long id;
+
+    @Field
+    @Unique
+    String code;
+    @Field
+    @Index
+    String category;
+    @Field
+    int rank;
+
+    public TestIndexedTable() {
+    }
+
+    public TestIndexedTable(String code, String category, int rank) {
+        this.code = code;
+        this.category = category;
+        this.rank = rank;
+    }
+}
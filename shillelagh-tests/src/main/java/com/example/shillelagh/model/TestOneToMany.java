@@ -39,6 +39,10 @@ import tale.androiddb.Table;
     this.someValue = someValue;
   }
 
+  public String getSomeValue() {
+    return someValue;
+  }
+
   public List<Child> getChildren() {
     return children;
   }
@@ -59,6 +63,10 @@ import tale.androiddb.Table;
       this.testString = testString;
     }
 
+    public String getTestString() {
+      return testString;
+    }
+
     @Override public String toString() {
       return "Child{" +
           "id=" + id +
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2014 Andrew Reitz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.shillelagh.model;
+
+import java.util.List;
+
+import tale.androiddb.Field;
+import tale.androiddb.Id;
+import tale.androiddb.Table;
+
+@Table
+public class TestPackedTable {
+    @Id
+    long id;
+
+    @Field
+    int[] ints;
+    @Field
+    long[] longs;
+    @Field
+    float[] floats;
+    @Field
+    double[] doubles;
+    @Field
+    Byte[] boxedBytes;
+    @Field
+    List<Integer> integerList;
+    @Field
+    List<Long> longList;
+    @Field
+    List<Double> doubleList;
+
+    public TestPackedTable() {
+    }
+
+    public TestPackedTable(int[] ints, long[] longs, float[] floats, double[] doubles,
+                           Byte[] boxedBytes, List<Integer> integerList, List<Long> longList,
+                           List<Double> doubleList) {
+        this.ints = ints;
+        this.longs = longs;
+        this.floats = floats;
+        this.doubles = doubles;
+        this.boxedBytes = boxedBytes;
+        this.integerList = integerList;
+        this.longList = longList;
+        this.doubleList = doubleList;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public int[] getInts() {
+        return ints;
+    }
+
+    public long[] getLongs() {
+        return longs;
+    }
+
+    public float[] getFloats() {
+        return floats;
+    }
+
+    public double[] getDoubles() {
+        return doubles;
+    }
+
+    public Byte[] getBoxedBytes() {
+        return boxedBytes;
+    }
+
+    public List<Integer> getIntegerList() {
+        return integerList;
+    }
+
+    public List<Long> getLongList() {
+        return longList;
+    }
+
+    public List<Double> getDoubleList() {
+        return doubleList;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2014 Andrew Reitz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.shillelagh.model;
+
+import tale.androiddb.Field;
+import tale.androiddb.Id;
+import tale.androiddb.Table;
+
+@Table
+public class TestRecordTable {
+    @Id
+    long id;
+
+    @Field(isBlob = true)
+    Point point;
+
+    public TestRecordTable() {
+    }
+
+    public TestRecordTable(Point point) {
+        this.point = point;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public Point getPoint() {
+        return point;
+    }
+
+    public static class Point {
+        public int x;
+        public int y;
+        public String label;
+
+        public Point() {
+        }
+
+        public Point(int x, int y, String label) {
+            this.x = x;
+            this.y = y;
+            this.label = label;
+        }
+    }
+}
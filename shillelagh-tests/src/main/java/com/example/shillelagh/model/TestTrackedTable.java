@@ -0,0 +1,63 @@
+/*
+ * Copyright 2014 Andrew Reitz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.shillelagh.model;
+
+import tale.androiddb.Field;
+import tale.androiddb.Id;
+import tale.androiddb.Table;
+
+@Table(trackChanges = true)
+public class TestTrackedTable {
+    @Id
+    long id;
+
+    @Field
+    String title;
+    @Field
+    int rank;
+    @Field(isBlob = true)
+    byte[] image;
+
+    public TestTrackedTable() {
+    }
+
+    public TestTrackedTable(String title, int rank, byte[] image) {
+        this.title = title;
+        this.rank = rank;
+        this.image = image;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public int getRank() {
+        return rank;
+    }
+
+    public byte[] getImage() {
+        return image;
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2014 Andrew Reitz
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.example.shillelagh.model;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.UUID;
+
+import tale.androiddb.Field;
+import tale.androiddb.Id;
+import tale.androiddb.Table;
+
+@Table
+public class TestValueTypesTable {
+    @Id
+    long id;
+
+    @Field
+    UUID uuid;
+    @Field
+    BigDecimal amount;
+    @Field(scale = 4)
+    BigDecimal rate;
+    @Field
+    Timestamp created;
+
+    public TestValueTypesTable() {
+    }
+
+    public TestValueTypesTable(UUID uuid, BigDecimal amount, BigDecimal rate, Timestamp created) {
+        this.uuid = uuid;
+        this.amount = amount;
+        this.rate = rate;
+        this.created = created;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public UUID getUuid() {
+        return uuid;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public BigDecimal getRate() {
+        return rate;
+    }
+
+    public Timestamp getCreated() {
+        return created;
+    }
+}